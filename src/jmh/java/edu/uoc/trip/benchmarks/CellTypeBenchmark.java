@@ -0,0 +1,88 @@
+package edu.uoc.trip.benchmarks;
+
+import edu.uoc.trip.model.cells.CellType;
+import edu.uoc.trip.model.levels.ConnectionTable;
+import edu.uoc.trip.model.levels.Direction;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the lookups of {@link CellType}.
+ *
+ * @author Estela Madariaga
+ * @version 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CellTypeBenchmark {
+
+    /**
+     * Symbols of all the cell types, as they appear in the level files.
+     */
+    private final char[] symbols;
+
+    /**
+     * All the cell types.
+     */
+    private final CellType[] types = CellType.values();
+
+    public CellTypeBenchmark() {
+        symbols = new char[types.length];
+        for (int i = 0; i < types.length; i++) {
+            symbols[i] = types[i].getFileSymbol();
+        }
+    }
+
+    @Benchmark
+    public void map2CellType(Blackhole blackhole) {
+        for (char symbol : symbols) {
+            blackhole.consume(CellType.map2CellType(symbol));
+        }
+    }
+
+    @Benchmark
+    public void getAvailableConnections(Blackhole blackhole) {
+        for (CellType type : types) {
+            blackhole.consume(type.getAvailableConnections());
+        }
+    }
+
+    @Benchmark
+    public int iterateAvailableConnections() {
+        int sum = 0;
+        for (CellType type : types) {
+            for (Direction direction : type.getAvailableConnections()) {
+                sum += direction.ordinal();
+            }
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public int iterateConnectionMask() {
+        int sum = 0;
+        for (CellType type : types) {
+            int mask = type.getConnectionMask();
+            for (int dir = 0; dir < ConnectionTable.NUM_DIRECTIONS; dir++) {
+                if ((mask & (1 << dir)) != 0) {
+                    sum += dir;
+                }
+            }
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,49 @@
+package edu.uoc.trip.benchmarks;
+
+import edu.uoc.trip.controller.Game;
+import edu.uoc.trip.controller.LevelIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Startup time of {@link Game}, i.e. the time needed to find out the number of levels,
+ * with the index generated at build time and with a scan of the folder.
+ * <br/>
+ * It is measured in single-shot mode with a fresh JVM for each measurement, so the results are cold starts.
+ *
+ * @author Estela Madariaga
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(20)
+public class GameStartupBenchmark {
+
+    @Benchmark
+    public Game newGame() throws IOException {
+        return new Game("levels/");
+    }
+
+    @Benchmark
+    public LevelIndex readIndex() throws IOException {
+        return LevelIndex.read("levels/");
+    }
+
+    @Benchmark
+    public LevelIndex scanFolder() throws IOException {
+        return LevelIndex.scan("levels/");
+    }
+}
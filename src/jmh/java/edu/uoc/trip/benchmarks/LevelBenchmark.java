@@ -0,0 +1,131 @@
+package edu.uoc.trip.benchmarks;
+
+import edu.uoc.trip.model.levels.CompactLevel;
+import edu.uoc.trip.model.levels.Level;
+import edu.uoc.trip.model.levels.LevelException;
+import edu.uoc.trip.model.utils.Coordinate;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the hot paths of {@link Level}: parsing, path checking, swaps and rotations.
+ * <br/>
+ * {@link Level#isSolved()} only reads the state of the incremental path, so the path checking is measured with
+ * a full walk of the board ({@link CompactLevel#isSolved(byte[], int)}), i.e. the check of the concurrent mode and
+ * of the solver. The incremental update of the path is part of {@link #swapCells()} and {@link #rotateCell()}.
+ *
+ * @author Estela Madariaga
+ * @version 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LevelBenchmark {
+
+    /**
+     * Number of the bundled level which is used.
+     */
+    @Param({"1", "4", "7"})
+    public int id;
+
+    /**
+     * Level in its initial (unsolved) state.
+     */
+    private Level unsolved;
+
+    /**
+     * Packed board of the level in its initial state.
+     */
+    private byte[] unsolvedCells;
+
+    /**
+     * Packed board of the same level, but solved.
+     */
+    private byte[] solvedCells;
+
+    /**
+     * Size of the board.
+     */
+    private int size;
+
+    /**
+     * Coordinates of two movable cells which can be swapped.
+     */
+    private Coordinate first;
+    private Coordinate second;
+
+    /**
+     * Coordinate of a rotatable cell, or null if the level has none.
+     */
+    private Coordinate rotatable;
+
+    @Setup
+    public void setUp() throws LevelException {
+        unsolved = new Level(fileName());
+        unsolvedCells = new CompactLevel(unsolved).toByteArray();
+        solvedCells = new CompactLevel(new Level("levels/solved/level" + id + ".txt")).toByteArray();
+
+        size = unsolved.getSize();
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                Coordinate coordinate = new Coordinate(i, j);
+                if (unsolved.getCell(coordinate).isMovable()) {
+                    if (first == null) {
+                        first = coordinate;
+                    } else if (second == null) {
+                        second = coordinate;
+                    }
+                } else if (unsolved.getCell(coordinate).isRotatable() && rotatable == null) {
+                    rotatable = coordinate;
+                }
+            }
+        }
+    }
+
+    private String fileName() {
+        return "levels/level" + id + ".txt";
+    }
+
+    @Benchmark
+    public Level parse() throws LevelException {
+        return new Level(fileName());
+    }
+
+    @Benchmark
+    public boolean walkOnUnsolved() {
+        return CompactLevel.isSolved(unsolvedCells, size);
+    }
+
+    @Benchmark
+    public boolean walkOnSolved() {
+        return CompactLevel.isSolved(solvedCells, size);
+    }
+
+    @Benchmark
+    public boolean swapCells() throws LevelException {
+        unsolved.swapCells(first, second);
+        return unsolved.isSolved();
+    }
+
+    @Benchmark
+    public boolean rotateCell() throws LevelException {
+        if (rotatable != null) {
+            unsolved.rotateCell(rotatable);
+        }
+        return unsolved.isSolved();
+    }
+}
@@ -0,0 +1,170 @@
+package edu.uoc.trip.benchmarks;
+
+import edu.uoc.trip.model.cells.CellType;
+import edu.uoc.trip.model.levels.CompactLevel;
+import edu.uoc.trip.model.levels.Level;
+import edu.uoc.trip.model.levels.LevelDifficulty;
+import edu.uoc.trip.model.levels.LevelException;
+import edu.uoc.trip.model.utils.Coordinate;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Contention of several threads that make moves in the same level: the lock striping of the concurrent mode
+ * of {@link Level} vs. a single global lock around every move of a level which is not in concurrent mode
+ * (i.e. with no stripes, no seqlock and an incremental path). Each thread swaps cells of its own row of a
+ * 16x16 board, so the striped moves never wait for each other.
+ * <br/>
+ * The scaling curve is given by {@link #main(String[])}, which runs the benchmarks with 1, 2, 4 and 8 threads
+ * (gradle jmhContention). It only makes sense on a machine with at least as many cores as threads.
+ *
+ * @author Estela Madariaga
+ * @version 1.0
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LevelContentionBenchmark {
+
+    /**
+     * Size of the board.
+     */
+    private static final int SIZE = 16;
+
+    /**
+     * Numbers of threads of the scaling curve.
+     */
+    private static final int[] THREADS = {1, 2, 4, 8};
+
+    @State(Scope.Benchmark)
+    public static class Shared {
+
+        /**
+         * Level in concurrent mode, whose moves take the locks of their rows.
+         */
+        Level striped;
+
+        /**
+         * Level in normal mode whose moves are guarded by the global lock.
+         */
+        Level global;
+
+        /**
+         * Global lock.
+         */
+        final ReentrantLock lock = new ReentrantLock();
+
+        /**
+         * Row of the next thread.
+         */
+        final AtomicInteger nextRow = new AtomicInteger(1);
+
+        @Setup
+        public void setUp() throws LevelException {
+            //Start and finish in the first column, and straight pieces everywhere else.
+            byte[] cells = new byte[SIZE * SIZE];
+            for (int i = 0; i < cells.length; i++) {
+                cells[i] = (byte) (i % 2 == 0 ? CellType.VERTICAL : CellType.HORIZONTAL).ordinal();
+            }
+            cells[0] = (byte) CellType.FINISH.ordinal();
+            cells[(SIZE - 1) * SIZE] = (byte) CellType.START.ordinal();
+
+            CompactLevel compact = new CompactLevel(SIZE, LevelDifficulty.WIZARD, cells);
+            striped = new Level(compact);
+            striped.setConcurrent(true);
+            global = new Level(compact);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Moves {
+
+        /**
+         * Cells of the row of the thread.
+         */
+        Coordinate[] cells = new Coordinate[SIZE];
+
+        /**
+         * Index of the next move.
+         */
+        int next;
+
+        @Setup
+        public void setUp(Shared shared) {
+            int row = 1 + shared.nextRow.getAndIncrement() % (SIZE - 2);
+            for (int column = 0; column < SIZE; column++) {
+                cells[column] = new Coordinate(row, column);
+            }
+        }
+    }
+
+    @Benchmark
+    public void stripedSwap(Shared shared, Moves moves) throws LevelException {
+        int i = moves.next++ & (SIZE - 1);
+        shared.striped.swapCells(moves.cells[i], moves.cells[(i + 1) & (SIZE - 1)]);
+    }
+
+    @Benchmark
+    public void globalLockSwap(Shared shared, Moves moves) throws LevelException {
+        int i = moves.next++ & (SIZE - 1);
+        shared.lock.lock();
+        try {
+            shared.global.swapCells(moves.cells[i], moves.cells[(i + 1) & (SIZE - 1)]);
+        } finally {
+            shared.lock.unlock();
+        }
+    }
+
+    @Benchmark
+    public boolean stripedIsSolved(Shared shared) {
+        return shared.striped.isSolved();
+    }
+
+    @Benchmark
+    public boolean globalLockIsSolved(Shared shared) {
+        shared.lock.lock();
+        try {
+            return shared.global.isSolved();
+        } finally {
+            shared.lock.unlock();
+        }
+    }
+
+    /**
+     * Runs the benchmarks with each number of threads of the scaling curve and prints their throughput.
+     *
+     * @param args Not used.
+     * @throws RunnerException When a benchmark cannot be run.
+     */
+    public static void main(String[] args) throws RunnerException {
+        StringBuilder curve = new StringBuilder(String.format("%-20s %8s %12s%n", "Benchmark", "Threads", "ops/us"));
+        for (int threads : THREADS) {
+            OptionsBuilder options = new OptionsBuilder();
+            options.include(LevelContentionBenchmark.class.getName()).threads(threads);
+            for (RunResult result : new Runner(options.build()).run()) {
+                String name = result.getParams().getBenchmark();
+                curve.append(String.format("%-20s %8d %12.3f%n", name.substring(name.lastIndexOf('.') + 1),
+                        threads, result.getPrimaryResult().getScore()));
+            }
+        }
+        System.out.print(curve);
+    }
+}
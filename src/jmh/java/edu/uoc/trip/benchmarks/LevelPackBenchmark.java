@@ -0,0 +1,90 @@
+package edu.uoc.trip.benchmarks;
+
+import edu.uoc.trip.model.levels.CompactLevel;
+import edu.uoc.trip.model.levels.Level;
+import edu.uoc.trip.model.levels.LevelException;
+import edu.uoc.trip.model.levels.LevelPack;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bulk loading of levels: parsing the text files vs. reading them from a memory-mapped {@link LevelPack}.
+ * Both benchmarks load the bundled levels NUM_COPIES times.
+ *
+ * @author Estela Madariaga
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LevelPackBenchmark {
+
+    /**
+     * Number of times that the bundled levels are loaded.
+     */
+    private static final int NUM_COPIES = 1000;
+
+    /**
+     * Number of bundled levels.
+     */
+    private static final int NUM_LEVELS = 7;
+
+    /**
+     * Temporary pack file.
+     */
+    private Path file;
+
+    @Setup
+    public void setUp() throws IOException, LevelException {
+        List<CompactLevel> levels = new ArrayList<>();
+        for (int copy = 0; copy < NUM_COPIES; copy++) {
+            for (int i = 1; i <= NUM_LEVELS; i++) {
+                levels.add(new CompactLevel(new Level("levels/level" + i + ".txt")));
+            }
+        }
+        file = Files.createTempFile("levels", ".pack");
+        LevelPack.write(levels, file);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public void parseTextFiles(Blackhole blackhole) throws LevelException {
+        for (int copy = 0; copy < NUM_COPIES; copy++) {
+            for (int i = 1; i <= NUM_LEVELS; i++) {
+                blackhole.consume(new Level("levels/level" + i + ".txt"));
+            }
+        }
+    }
+
+    @Benchmark
+    public void readPack(Blackhole blackhole) throws IOException, LevelException {
+        LevelPack pack = LevelPack.open(file);
+        for (int i = 0; i < pack.size(); i++) {
+            blackhole.consume(pack.getLevel(i));
+        }
+    }
+}
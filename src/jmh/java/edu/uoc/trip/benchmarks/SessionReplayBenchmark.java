@@ -0,0 +1,113 @@
+package edu.uoc.trip.benchmarks;
+
+import edu.uoc.trip.controller.Game;
+import edu.uoc.trip.controller.SessionLog;
+import edu.uoc.trip.controller.SessionReplay;
+import edu.uoc.trip.model.levels.LevelException;
+import edu.uoc.trip.model.utils.Coordinate;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Replay of a session log with NUM_EVENTS random moves, undos and redos in the bundled levels.
+ * The score is the throughput in events per second.
+ *
+ * @author Estela Madariaga
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SessionReplayBenchmark {
+
+    /**
+     * Number of events of the log.
+     */
+    private static final int NUM_EVENTS = 1_000_000;
+
+    /**
+     * Content of the log.
+     */
+    private byte[] log;
+
+    /**
+     * Number of events that have really been written (the log ends with a checkpoint).
+     */
+    private long numEvents;
+
+    @Setup
+    public void setUp() throws IOException, LevelException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        SessionLog sessionLog = new SessionLog(out);
+        Game game = new Game("levels/");
+        game.setSessionLog(sessionLog);
+        Random random = new Random(1);
+
+        List<Coordinate> movable = new ArrayList<>();
+        List<Coordinate> rotatable = new ArrayList<>();
+        while (sessionLog.getNumEvents() < NUM_EVENTS) {
+            if (movable.isEmpty() || random.nextInt(50_000) == 0) {
+                if (!game.nextLevel()) {
+                    game.reload(); //the last level is played again
+                }
+                movable.clear();
+                rotatable.clear();
+                for (int row = 0; row < game.getBoardSize(); row++) {
+                    for (int column = 0; column < game.getBoardSize(); column++) {
+                        if (game.getCell(row, column).isMovable()) {
+                            movable.add(new Coordinate(row, column));
+                        } else if (game.getCell(row, column).isRotatable()) {
+                            rotatable.add(new Coordinate(row, column));
+                        }
+                    }
+                }
+            }
+
+            int action = random.nextInt(10);
+            if (action < 6) {
+                game.swap(movable.get(random.nextInt(movable.size())), movable.get(random.nextInt(movable.size())));
+            } else if (action < 7 && !rotatable.isEmpty()) {
+                game.rotate(rotatable.get(random.nextInt(rotatable.size())));
+            } else if (action < 9) {
+                game.undo();
+            } else {
+                game.redo();
+            }
+        }
+        sessionLog.checkpoint(game);
+        sessionLog.close();
+
+        log = out.toByteArray();
+        numEvents = sessionLog.getNumEvents();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NUM_EVENTS)
+    public SessionReplay.Result replay() throws IOException {
+        SessionReplay.Result result = new SessionReplay().replay(ByteBuffer.wrap(log), new Game("levels/"));
+        if (!result.isVerified() || result.getNumEvents() != numEvents) {
+            throw new IllegalStateException(result.toString());
+        }
+        return result;
+    }
+}
@@ -5,15 +5,17 @@ import edu.uoc.trip.model.levels.Level;
 import edu.uoc.trip.model.levels.LevelDifficulty;
 import edu.uoc.trip.model.levels.LevelException;
 import edu.uoc.trip.model.utils.Coordinate;
+import edu.uoc.trip.solver.HintEngine;
+import edu.uoc.trip.solver.Move;
 
-import java.io.*;
-import java.net.*;
-import java.nio.charset.StandardCharsets;
-import java.nio.file.FileSystem;
-import java.nio.file.FileSystems;
-import java.nio.file.Files;
-import java.util.Collections;
+import java.io.IOException;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Controller class of the game. It is the middleware (or bridge) between the model and view classes.
@@ -33,7 +35,7 @@ public class Game {
     /**
      * Number of the current level.
      */
-    private int currentLevel = 0;
+    private volatile int currentLevel = 0;
 
     /**
      * Maximum quantity of levels that the game has.
@@ -42,55 +44,86 @@ public class Game {
 
     /**
      * Level object that contains the information of the current level.
+     * It is volatile so that a new level is visible to all the threads in concurrent mode.
      */
-    private Level level;
+    private volatile Level level;
 
     /**
-     * Constructor
-     *
-     * @param fileFolder Folder name where the configuration/level files are.
-     * @throws IOException When there is a problem while retrieving number of levels
+     * It indicates if the game can be used by several threads at the same time (see {@link #setConcurrent(boolean)}).
      */
-    public Game(String fileFolder) throws IOException {
-        int num;
+    private volatile boolean concurrent = false;
 
-        setFileFolder(fileFolder);
+    /**
+     * Cache of the parsed levels, so that a level file is not read again when it is reloaded.
+     */
+    private LevelCache levelCache;
 
-        //Get the number of files that are in the fileFolder, i.e. the number of levels.
+    /**
+     * Log in which the events of the session are written, or null if the session is not logged.
+     */
+    private SessionLog sessionLog;
 
-        URL url = getClass().getClassLoader().getResource(getFileFolder());
+    /**
+     * Engine which suggests the next move of the player.
+     */
+    private final HintEngine hintEngine;
 
-        URLConnection urlConnection = Objects.requireNonNull(url).openConnection();
+    /**
+     * Time in seconds that the background thread of a game waits for new work before it ends.
+     */
+    private static final long LOADER_KEEP_ALIVE_SECONDS = 30;
 
-        if(urlConnection instanceof JarURLConnection){
-            //run in jar
-            String path = null;
-            try {
-                path = getClass().getProtectionDomain().getCodeSource().getLocation().toURI().getPath();
-            } catch (URISyntaxException e) {
-                System.out.println("ERROR: Game Constructor");
-                e.printStackTrace();
-                System.exit(-1);
-            }
+    /**
+     * Background thread of this game in which the levels are loaded by {@link #nextLevelAsync()}.
+     * The thread is only started when there is work and it ends when it has been idle for a while,
+     * so the games which are never loaded asynchronously (or are discarded) do not keep a thread.
+     */
+    private final ExecutorService levelLoader = new ThreadPoolExecutor(0, 1,
+            LOADER_KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), task -> {
+        Thread thread = new Thread(task, "level-loader");
+        thread.setDaemon(true);
+        return thread;
+    });
 
-            URI uri = URI.create("jar:file:"+path);
+    /**
+     * Level which is being loaded in the background while the current one is played, or null if there is not any.
+     */
+    private CompletableFuture<Level> prefetchedLevel;
 
-            try(FileSystem fs = FileSystems.newFileSystem(uri, Collections.emptyMap())) {
-                num = (int) Files.walk(fs.getPath(getFileFolder()))
-                        .filter(Files::isRegularFile).count();
-            }
-        }else{
-            //run in ide
-            ClassLoader classLoader = getClass().getClassLoader();
-            InputStream inputStream;
-            inputStream = Objects.requireNonNull(classLoader.getResourceAsStream(getFileFolder()));
-
-            try(InputStreamReader streamReader = new InputStreamReader(inputStream, StandardCharsets.UTF_8);
-                BufferedReader reader = new BufferedReader(streamReader)){
-                num = (int) reader.lines().count();
-            }
-        }
-            maxLevels = num;
+    /**
+     * Number of the level of "prefetchedLevel".
+     */
+    private int prefetchedNumber;
+
+    /**
+     * Change of level which has been requested by {@link #nextLevelAsync()}, or null if there is not any.
+     */
+    private CompletableFuture<Boolean> pendingLevel;
+
+    /**
+     * Constructor
+     *
+     * @param fileFolder Folder name where the configuration/level files are.
+     * @throws IOException When there is a problem while retrieving number of levels
+     */
+    public Game(String fileFolder) throws IOException {
+        //Get the number of levels from the index generated at build time (or by scanning the folder if it is missing).
+        this(fileFolder, LevelIndex.load(fileFolder).size(), new LevelCache(), new HintEngine());
+    }
+
+    /**
+     * Constructor of the games which share their resources with other games (see {@link GameContext}).
+     *
+     * @param fileFolder Folder name where the configuration/level files are.
+     * @param maxLevels Number of levels of the folder.
+     * @param levelCache Cache of the parsed levels.
+     * @param hintEngine Engine of the hints.
+     */
+    Game(String fileFolder, int maxLevels, LevelCache levelCache, HintEngine hintEngine) {
+        setFileFolder(fileFolder);
+        this.maxLevels = maxLevels;
+        this.levelCache = levelCache;
+        this.hintEngine = hintEngine;
     }
 
     /**
@@ -172,27 +205,169 @@ public class Game {
      * @return True if there is a next level, and it has been loaded correctly. Otherwise, it returns false.
      * @throws LevelException When there is a level exception/problem.
      */
-    public boolean nextLevel() throws LevelException {
+    public synchronized boolean nextLevel() throws LevelException {
         if(isFinished()){
             return false;
         }else{
             loadLevel();
-            currentLevel++;
             return true;
         }
 
     }
 
+    /**
+     * Asynchronous version of {@link #nextLevel()}: the next level is loaded and set in a background thread,
+     * so that the caller (e.g. the JavaFX Application Thread) is not blocked by the parsing and validation of the file.
+     * <br/>
+     * When the new level is set, the following one is prefetched in the background while the player plays it,
+     * so the next call usually finds it already loaded and only has to set it.
+     * <br/>
+     * The game must not be used until the future is completed, since the current level changes in the background
+     * thread. If this method is called again before, it returns the same future, i.e. only one level is skipped.
+     *
+     * @return Future which is completed with true if there is a next level, and it has been loaded correctly,
+     * and false if the game is finished. It is completed exceptionally with a CompletionException whose cause is
+     * the LevelException when there is a level exception/problem.
+     */
+    public synchronized CompletableFuture<Boolean> nextLevelAsync() {
+        if(pendingLevel != null && !pendingLevel.isDone()){
+            return pendingLevel;
+        }
+        if(isFinished()){
+            return CompletableFuture.completedFuture(false);
+        }
+
+        int number = currentLevel + 1;
+        CompletableFuture<Level> next = prefetchedLevel;
+        if(next == null || prefetchedNumber != number){
+            next = loadLevelAsync(number);
+        }else{
+            //If the prefetch fails (e.g. a file which could not be read), before or after this call,
+            //the level is loaded again instead of failing the change of level.
+            next = next.exceptionallyComposeAsync(e -> loadLevelAsync(number), levelLoader);
+        }
+        prefetchedLevel = null;
+
+        pendingLevel = next.thenApplyAsync(loaded -> {
+            synchronized (this) {
+                switchLevel(loaded);
+                if(!isFinished()){
+                    prefetchedNumber = currentLevel + 1;
+                    prefetchedLevel = loadLevelAsync(prefetchedNumber);
+                }
+                return true;
+            }
+        }, levelLoader);
+        return pendingLevel;
+    }
+
+    /**
+     * Loads a level in the background thread. The level is taken from the cache of levels,
+     * so its file is only read the first time.
+     *
+     * @param numberLevel Number of the level (the first one is 1).
+     * @return Future of the new copy of the level.
+     */
+    private CompletableFuture<Level> loadLevelAsync(int numberLevel) {
+        String fileName = getLevelFileName(numberLevel);
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return levelCache.get(fileName);
+            } catch (LevelException e) {
+                throw new CompletionException(e);
+            }
+        }, levelLoader);
+    }
+
     /**
      * Loads a new level by using the value of attribute "currentLevel".
+     * The level is taken from the cache of levels, so its file is only read the first time.
      *
      * The pattern of the filename is: fileFolder+"level" + numberLevel + ".txt".
      * @throws LevelException When there is a level exception/problem.
      */
     private void loadLevel() throws LevelException {
-        int numberLevel = this.currentLevel + 1;
-        String fileName = this.getFileFolder() +"level" + numberLevel+ ".txt";
-        level = new Level(fileName);
+        switchLevel(levelCache.get(getLevelFileName(this.currentLevel + 1)));
+    }
+
+    /**
+     * Makes a loaded level the current one, i.e. the level number "currentLevel" + 1.
+     *
+     * @param next Level which has been loaded.
+     */
+    private void switchLevel(Level next) {
+        if(sessionLog != null && level != null){
+            sessionLog.checkpoint(this);
+        }
+        setLevel(next);
+        currentLevel++;
+        if(sessionLog != null){
+            sessionLog.event(SessionLog.EventType.NEXT_LEVEL);
+        }
+    }
+
+    /**
+     * Sets the current level. It is put in concurrent mode before it is published if the game is in concurrent mode.
+     *
+     * @param level New current level.
+     */
+    private void setLevel(Level level) {
+        level.setConcurrent(concurrent);
+        this.level = level;
+    }
+
+    /**
+     * Enables or disables the concurrent mode, in which the game can be driven by several threads at the same time
+     * (e.g. the UI thread and a background hint or solver thread). The current level and the next ones are
+     * put in the concurrent mode of {@link Level#setConcurrent(boolean)}, and the levels are loaded one at a time.
+     * <br/>
+     * The mode must be changed while the game is not being used by other threads.
+     *
+     * @param concurrent True to enable the concurrent mode, false to disable it.
+     */
+    public synchronized void setConcurrent(boolean concurrent) {
+        this.concurrent = concurrent;
+        if (level != null) {
+            level.setConcurrent(concurrent);
+        }
+    }
+
+    /**
+     * Returns the name of the file of the given level.
+     *
+     * @param numberLevel Number of the level (the first one is 1).
+     * @return Name of the file, i.e. fileFolder+"level" + numberLevel + ".txt".
+     */
+    private String getLevelFileName(int numberLevel) {
+        return this.getFileFolder() +"level" + numberLevel+ ".txt";
+    }
+
+    /**
+     * Getter of the attribute "levelCache".
+     *
+     * @return Cache of the parsed levels (e.g. to check its hits and misses).
+     */
+    public LevelCache getLevelCache() {
+        return levelCache;
+    }
+
+    /**
+     * Setter of the attribute "levelCache". A cache can be shared by several games (e.g. the sessions of a server),
+     * so that each level file is only parsed once for all of them.
+     *
+     * @param levelCache Cache of the parsed levels.
+     */
+    public void setLevelCache(LevelCache levelCache) {
+        this.levelCache = Objects.requireNonNull(levelCache);
+    }
+
+    /**
+     * Setter of the attribute "sessionLog". From now on, every successful action of the player is written in it.
+     *
+     * @param sessionLog Log of the session, or null to stop logging.
+     */
+    public void setSessionLog(SessionLog sessionLog) {
+        this.sessionLog = sessionLog;
     }
 
     /**
@@ -248,6 +423,9 @@ public class Game {
      */
     public void swap(Coordinate first, Coordinate second) throws LevelException {
         level.swapCells(first,second);
+        if(sessionLog != null){
+            sessionLog.swap(first, second);
+        }
     }
 
     /**
@@ -258,14 +436,69 @@ public class Game {
      */
     public void rotate(Coordinate cellCoord) throws LevelException{
        level.rotateCell(cellCoord);
+       if(sessionLog != null){
+           sessionLog.rotate(cellCoord);
+       }
+    }
+
+    /**
+     * Undoes the last move of the current level.
+     *
+     * @return True if a move has been undone. False, if there was no move to undo.
+     */
+    public boolean undo() {
+        if(level==null)
+            return false;
+
+        boolean undone = level.undo();
+        if(undone && sessionLog != null){
+            sessionLog.event(SessionLog.EventType.UNDO);
+        }
+        return undone;
+    }
+
+    /**
+     * Redoes the last move of the current level that was undone.
+     *
+     * @return True if a move has been redone. False, if there was no move to redo.
+     */
+    public boolean redo() {
+        if(level==null)
+            return false;
+
+        boolean redone = level.redo();
+        if(redone && sessionLog != null){
+            sessionLog.event(SessionLog.EventType.REDO);
+        }
+        return redone;
+    }
+
+    /**
+     * Suggests the next move of the current level. The search stops when the budget runs out, so the move is
+     * optimal only if the search has finished in time (see {@link HintEngine}).
+     *
+     * @param budgetMillis Maximum time of the search in milliseconds, e.g. {@link HintEngine#DEFAULT_BUDGET_MILLIS}.
+     * @return Suggested move, or null if there is no level, the level is solved or it cannot be solved.
+     * @throws LevelException When there is a level exception/problem.
+     */
+    public Move getHint(long budgetMillis) throws LevelException {
+        if(level==null)
+            return null;
+
+        return hintEngine.hint(level, budgetMillis);
     }
 
     /**
      * Reloads the current level, i.e. load the level again.
+     * It is a copy of the cached level, so the level file is not read again.
      *
      * @throws LevelException When there is a level exception/problem.
      */
-    public void reload() throws LevelException {
-        loadLevel();
+    public synchronized void reload() throws LevelException {
+        //"currentLevel" has already been increased by nextLevel(), so it is the number of the current level.
+        setLevel(levelCache.get(getLevelFileName(Math.max(this.currentLevel, 1))));
+        if(sessionLog != null){
+            sessionLog.event(SessionLog.EventType.RELOAD);
+        }
     }
 }
@@ -0,0 +1,85 @@
+package edu.uoc.trip.controller;
+
+import edu.uoc.trip.solver.HintEngine;
+
+import java.io.IOException;
+
+/**
+ * Resources which are shared by all the games of the same level folder, e.g. by the sessions of a server.
+ * <br/>
+ * The number of levels is read from the {@link LevelIndex} once, and all the games share the same
+ * {@link LevelCache} and the same {@link HintEngine}, so creating a game is cheap: it does not read the index
+ * again and the hints of a board state are searched only once for all the players.
+ *
+ * @author Estela Madariaga
+ * @version 1.0
+ */
+public class GameContext {
+
+    /**
+     * Name of the folder in which the level files are.
+     */
+    private final String fileFolder;
+
+    /**
+     * Number of levels of the folder.
+     */
+    private final int maxLevels;
+
+    /**
+     * Cache of the parsed levels, shared by all the games.
+     */
+    private final LevelCache levelCache = new LevelCache();
+
+    /**
+     * Engine of the hints, shared by all the games.
+     */
+    private final HintEngine hintEngine = new HintEngine();
+
+    /**
+     * Constructor. It loads the index of the folder.
+     *
+     * @param fileFolder Folder name where the level files are.
+     * @throws IOException When there is a problem while retrieving the number of levels.
+     */
+    public GameContext(String fileFolder) throws IOException {
+        this.fileFolder = fileFolder;
+        this.maxLevels = LevelIndex.load(fileFolder).size();
+    }
+
+    /**
+     * Creates a new game which uses the shared resources.
+     *
+     * @return New game, with no level loaded.
+     */
+    public Game newGame() {
+        return new Game(fileFolder, maxLevels, levelCache, hintEngine);
+    }
+
+    /**
+     * Getter of the attribute "maxLevels".
+     *
+     * @return Number of levels of the folder.
+     */
+    public int getMaxLevels() {
+        return maxLevels;
+    }
+
+    /**
+     * Getter of the attribute "levelCache".
+     *
+     * @return Cache of the parsed levels shared by all the games.
+     */
+    public LevelCache getLevelCache() {
+        return levelCache;
+    }
+
+    /**
+     * Getter of the attribute "hintEngine".
+     *
+     * @return Engine of the hints shared by all the games.
+     */
+    public HintEngine getHintEngine() {
+        return hintEngine;
+    }
+}
@@ -0,0 +1,154 @@
+package edu.uoc.trip.controller;
+
+import edu.uoc.trip.model.levels.Level;
+import edu.uoc.trip.model.levels.LevelException;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Cache of parsed levels, keyed by the name of their files.
+ * <br/>
+ * The cache keeps a pristine template of each level (i.e. as it is in its file) and returns
+ * deep copies of it, so a level file is read and validated only once while it is in the cache.
+ * When the cache is full, the least recently used level is evicted (LRU policy).
+ * <br/>
+ * It is thread-safe, so it can be shared by several games.
+ *
+ * @author Estela Madariaga
+ * @version 1.0
+ */
+public class LevelCache {
+
+    /**
+     * Default maximum number of levels that are kept in the cache.
+     */
+    public static final int DEFAULT_CAPACITY = 16;
+
+    /**
+     * Maximum number of levels that are kept in the cache.
+     */
+    private final int capacity;
+
+    /**
+     * Pristine levels in access order, i.e. the first one is the least recently used.
+     */
+    private final LinkedHashMap<String, Level> templates;
+
+    /**
+     * Number of requests which have been served from the cache.
+     */
+    private long hits = 0;
+
+    /**
+     * Number of requests which have needed to read the level file.
+     */
+    private long misses = 0;
+
+    /**
+     * Constructor with the default capacity.
+     */
+    public LevelCache() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param capacity Maximum number of levels that are kept in the cache.
+     * @throws IllegalArgumentException When the capacity is not positive.
+     */
+    public LevelCache(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("The capacity of the cache must be positive");
+        }
+
+        this.capacity = capacity;
+        this.templates = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Level> eldest) {
+                return size() > LevelCache.this.capacity;
+            }
+        };
+    }
+
+    /**
+     * Returns a new copy of the level stored in the given file, which can be modified freely.
+     * If the level is not in the cache, the file is parsed (outside the lock) and added to the cache.
+     *
+     * @param fileName Name of the file that contains level's data.
+     * @return Copy of the pristine level.
+     * @throws LevelException When there is any error while parsing the file.
+     */
+    public Level get(String fileName) throws LevelException {
+        Level template;
+
+        synchronized (this) {
+            template = templates.get(fileName);
+            if (template != null) {
+                hits++;
+            } else {
+                misses++;
+            }
+        }
+
+        if (template != null) {
+            //The templates are never modified, so they can be copied outside the lock.
+            return new Level(template);
+        }
+
+        template = new Level(fileName);
+
+        synchronized (this) {
+            //Another thread may have loaded it meanwhile: keep the first one.
+            templates.putIfAbsent(fileName, template);
+        }
+
+        return new Level(template);
+    }
+
+    /**
+     * Getter of the attribute "capacity".
+     *
+     * @return Maximum number of levels that are kept in the cache.
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Returns the number of levels that are in the cache.
+     *
+     * @return Number of cached levels.
+     */
+    public synchronized int size() {
+        return templates.size();
+    }
+
+    /**
+     * Getter of the attribute "hits".
+     *
+     * @return Number of requests which have been served from the cache.
+     */
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    /**
+     * Getter of the attribute "misses".
+     *
+     * @return Number of requests which have needed to read the level file.
+     */
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Removes all the levels from the cache and resets the counters.
+     */
+    public synchronized void clear() {
+        templates.clear();
+        hits = 0;
+        misses = 0;
+    }
+}
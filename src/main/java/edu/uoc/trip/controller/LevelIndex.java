@@ -0,0 +1,256 @@
+package edu.uoc.trip.controller;
+
+import edu.uoc.trip.model.levels.LevelDifficulty;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.JarURLConnection;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+/**
+ * Index of the level files of a folder: their names and, when they are known, their sizes and difficulties.
+ * <br/>
+ * The index is generated at build time (Gradle task "generateLevelIndex") in the resource {@link #INDEX_FILE},
+ * so the game only has to read one small file when it starts. Each line of this file has the format
+ * "fileName;size;difficulty" (e.g. "levels/level1.txt;4;STARTER") and the lines that start with '#' are comments.
+ * If the resource does not exist or it does not have any level of the folder, the folder is scanned
+ * (which is much slower when the game runs from a jar file).
+ *
+ * @author Estela Madariaga
+ * @version 1.0
+ */
+public class LevelIndex {
+
+    /**
+     * Name of the resource that contains the index generated at build time.
+     */
+    public static final String INDEX_FILE = "levels.index";
+
+    /**
+     * Separator of the fields of each line of the index.
+     */
+    private static final String SEPARATOR = ";";
+
+    /**
+     * Entries of the index.
+     */
+    private final List<Entry> entries;
+
+    /**
+     * It indicates if the entries have been read from the generated index (true) or from a scan of the folder (false).
+     */
+    private final boolean generated;
+
+    /**
+     * Constructor.
+     *
+     * @param entries Entries of the index.
+     * @param generated True if the entries have been read from the generated index. False, if the folder has been scanned.
+     */
+    private LevelIndex(List<Entry> entries, boolean generated) {
+        this.entries = Collections.unmodifiableList(entries);
+        this.generated = generated;
+    }
+
+    /**
+     * Loads the index of the given folder. It reads the generated index and, if it is missing, it scans the folder.
+     *
+     * @param fileFolder Folder name where the level files are, e.g. "levels/".
+     * @return Index of the level files of the folder.
+     * @throws IOException When there is a problem while reading the index or scanning the folder.
+     */
+    public static LevelIndex load(String fileFolder) throws IOException {
+        LevelIndex index = read(fileFolder);
+        return index != null ? index : scan(fileFolder);
+    }
+
+    /**
+     * Reads the generated index and keeps the entries of the given folder (not the ones of its sub-folders).
+     *
+     * @param fileFolder Folder name where the level files are, e.g. "levels/".
+     * @return Index of the level files of the folder, or null if the generated index does not exist
+     * or it does not have any level of the folder.
+     * @throws IOException When there is a problem while reading the index.
+     */
+    public static LevelIndex read(String fileFolder) throws IOException {
+        InputStream inputStream = LevelIndex.class.getClassLoader().getResourceAsStream(INDEX_FILE);
+        if (inputStream == null) {
+            return null;
+        }
+
+        List<Entry> entries = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank() || line.startsWith("#")) {
+                    continue;
+                }
+
+                String[] fields = line.split(SEPARATOR);
+                if (fields.length != 3) {
+                    throw new IOException("Malformed line in " + INDEX_FILE + ": " + line);
+                }
+
+                String fileName = fields[0].trim();
+                if (fileName.startsWith(fileFolder) && fileName.indexOf('/', fileFolder.length()) < 0) {
+                    try {
+                        entries.add(new Entry(fileName, Integer.parseInt(fields[1].trim()),
+                                LevelDifficulty.valueOf(fields[2].trim())));
+                    } catch (IllegalArgumentException e) {
+                        throw new IOException("Malformed line in " + INDEX_FILE + ": " + line, e);
+                    }
+                }
+            }
+        }
+
+        return entries.isEmpty() ? null : new LevelIndex(entries, true);
+    }
+
+    /**
+     * Scans the given folder to find its files. The sizes and difficulties of the levels are unknown,
+     * since the level files are not read.
+     *
+     * @param fileFolder Folder name where the level files are, e.g. "levels/".
+     * @return Index of the files of the folder.
+     * @throws IOException When there is a problem while scanning the folder.
+     */
+    public static LevelIndex scan(String fileFolder) throws IOException {
+        List<Entry> entries = new ArrayList<>();
+
+        URL url = LevelIndex.class.getClassLoader().getResource(fileFolder);
+
+        URLConnection urlConnection = Objects.requireNonNull(url).openConnection();
+
+        if(urlConnection instanceof JarURLConnection){
+            //run in jar
+            String path;
+            try {
+                path = LevelIndex.class.getProtectionDomain().getCodeSource().getLocation().toURI().getPath();
+            } catch (URISyntaxException e) {
+                throw new IOException("The location of the jar file cannot be read", e);
+            }
+
+            URI uri = URI.create("jar:file:"+path);
+
+            try(FileSystem fs = FileSystems.newFileSystem(uri, Collections.emptyMap());
+                Stream<Path> files = Files.walk(fs.getPath(fileFolder))) {
+                files.filter(Files::isRegularFile)
+                        .forEach(file -> entries.add(new Entry(fileFolder + file.getFileName(), -1, null)));
+            }
+        }else{
+            //run in ide
+            InputStream inputStream = Objects.requireNonNull(
+                    LevelIndex.class.getClassLoader().getResourceAsStream(fileFolder));
+
+            try(InputStreamReader streamReader = new InputStreamReader(inputStream, StandardCharsets.UTF_8);
+                BufferedReader reader = new BufferedReader(streamReader)){
+                reader.lines().forEach(name -> entries.add(new Entry(fileFolder + name, -1, null)));
+            }
+        }
+
+        return new LevelIndex(entries, false);
+    }
+
+    /**
+     * Returns the number of levels of the index.
+     *
+     * @return Number of entries.
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Getter of the attribute "entries".
+     *
+     * @return Unmodifiable list with the entries of the index.
+     */
+    public List<Entry> getEntries() {
+        return entries;
+    }
+
+    /**
+     * Getter of the attribute "generated".
+     *
+     * @return True if the entries have been read from the generated index. False, if the folder has been scanned.
+     */
+    public boolean isGenerated() {
+        return generated;
+    }
+
+    /**
+     * Entry of the index, i.e. data of a level file.
+     */
+    public static final class Entry {
+
+        /**
+         * Name of the level file (including its folder).
+         */
+        private final String fileName;
+
+        /**
+         * Size of the board, or -1 if it is unknown.
+         */
+        private final int size;
+
+        /**
+         * Difficulty of the level, or null if it is unknown.
+         */
+        private final LevelDifficulty difficulty;
+
+        /**
+         * Constructor.
+         *
+         * @param fileName Name of the level file (including its folder).
+         * @param size Size of the board, or -1 if it is unknown.
+         * @param difficulty Difficulty of the level, or null if it is unknown.
+         */
+        private Entry(String fileName, int size, LevelDifficulty difficulty) {
+            this.fileName = fileName;
+            this.size = size;
+            this.difficulty = difficulty;
+        }
+
+        /**
+         * Getter of the attribute "fileName".
+         *
+         * @return Name of the level file (including its folder).
+         */
+        public String getFileName() {
+            return fileName;
+        }
+
+        /**
+         * Getter of the attribute "size".
+         *
+         * @return Size of the board, or -1 if it is unknown.
+         */
+        public int getSize() {
+            return size;
+        }
+
+        /**
+         * Getter of the attribute "difficulty".
+         *
+         * @return Difficulty of the level, or null if it is unknown.
+         */
+        public LevelDifficulty getDifficulty() {
+            return difficulty;
+        }
+    }
+}
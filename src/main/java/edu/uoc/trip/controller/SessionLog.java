@@ -0,0 +1,252 @@
+package edu.uoc.trip.controller;
+
+import edu.uoc.trip.model.levels.LevelException;
+import edu.uoc.trip.model.utils.Coordinate;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Append-only binary log of the events of a play session, i.e. every successful call to
+ * {@link Game#nextLevel()}, {@link Game#swap(Coordinate, Coordinate)}, {@link Game#rotate(Coordinate)},
+ * {@link Game#reload()}, {@link Game#undo()} and {@link Game#redo()}.
+ * The session can be played again with {@link SessionReplay}.
+ * <br/>
+ * Format of the log (big-endian):
+ * <ul>
+ *     <li>Header: magic number {@link #MAGIC} (4 bytes), version {@link #VERSION} (2 bytes)
+ *     and the time at which the session started in milliseconds since the epoch (8 bytes).</li>
+ *     <li>Events: the ordinal of its {@link EventType} (1 byte), the microseconds since the previous event
+ *     (a varint, i.e. 7 bits per byte and the highest bit set if more bytes follow) and its data:
+ *     row and column of both cells for SWAP (4 bytes), row and column of the cell for ROTATE (2 bytes),
+ *     and level, number of moves (varints) and hash of the board (4 bytes) for CHECKPOINT.
+ *     The rest of events have no data.</li>
+ * </ul>
+ * Most events take 2 or 6 bytes. The errors while writing do not stop the game: the first one is kept
+ * and it is thrown by {@link #close()}.
+ *
+ * @author Estela Madariaga
+ * @version 1.0
+ */
+public class SessionLog implements Closeable {
+
+    /**
+     * Magic number of the log files, i.e. "TRLG" in ASCII.
+     */
+    public static final int MAGIC = 0x54524C47;
+
+    /**
+     * Version of the format.
+     */
+    public static final short VERSION = 1;
+
+    /**
+     * Types of the events of the log. Their ordinals are written in the log, so new types must be added at the end.
+     */
+    public enum EventType {
+        NEXT_LEVEL, SWAP, ROTATE, RELOAD, UNDO, REDO,
+        /**
+         * State of the game (level, number of moves and board) which is checked when the log is replayed.
+         */
+        CHECKPOINT
+    }
+
+    /**
+     * Stream in which the events are written.
+     */
+    private final DataOutputStream out;
+
+    /**
+     * Value of System.nanoTime() when the last event was written.
+     */
+    private long lastTime;
+
+    /**
+     * Number of events that have been written.
+     */
+    private long numEvents;
+
+    /**
+     * First error while writing, or null if there has not been any.
+     */
+    private IOException error;
+
+    /**
+     * Constructor.
+     *
+     * @param out Stream in which the log is written. It is buffered by the log and closed by {@link #close()}.
+     * @throws IOException When the header cannot be written.
+     */
+    public SessionLog(OutputStream out) throws IOException {
+        this.out = new DataOutputStream(new BufferedOutputStream(out, 1 << 16));
+        this.out.writeInt(MAGIC);
+        this.out.writeShort(VERSION);
+        this.out.writeLong(System.currentTimeMillis());
+        lastTime = System.nanoTime();
+    }
+
+    /**
+     * Creates a log file. If it exists, it is overwritten.
+     *
+     * @param file Path of the log file.
+     * @return Log of the session.
+     * @throws IOException When the file cannot be created.
+     */
+    public static SessionLog create(Path file) throws IOException {
+        return new SessionLog(Files.newOutputStream(file));
+    }
+
+    /**
+     * Writes an event without data.
+     *
+     * @param type Type of the event.
+     */
+    void event(EventType type) {
+        try {
+            writeHeader(type);
+        } catch (IOException e) {
+            setError(e);
+        }
+    }
+
+    /**
+     * Writes a SWAP event.
+     *
+     * @param first Coordinate of the first cell.
+     * @param second Coordinate of the second cell.
+     */
+    void swap(Coordinate first, Coordinate second) {
+        try {
+            writeHeader(EventType.SWAP);
+            out.writeByte(first.getRow());
+            out.writeByte(first.getColumn());
+            out.writeByte(second.getRow());
+            out.writeByte(second.getColumn());
+        } catch (IOException e) {
+            setError(e);
+        }
+    }
+
+    /**
+     * Writes a ROTATE event.
+     *
+     * @param coord Coordinate of the cell.
+     */
+    void rotate(Coordinate coord) {
+        try {
+            writeHeader(EventType.ROTATE);
+            out.writeByte(coord.getRow());
+            out.writeByte(coord.getColumn());
+        } catch (IOException e) {
+            setError(e);
+        }
+    }
+
+    /**
+     * Writes a CHECKPOINT event with the current state of the game. It is written by {@link Game}
+     * before each new level, and it should also be written at the end of the session.
+     *
+     * @param game Game whose state is written.
+     */
+    public void checkpoint(Game game) {
+        try {
+            int hash = boardHash(game);
+            writeHeader(EventType.CHECKPOINT);
+            writeVarint(game.getCurrentLevel());
+            writeVarint(game.getNumMoves());
+            out.writeInt(hash);
+        } catch (IOException e) {
+            setError(e);
+        } catch (LevelException e) {
+            setError(new IOException(e));
+        }
+    }
+
+    /**
+     * Returns the number of events that have been written.
+     *
+     * @return Number of events.
+     */
+    public long getNumEvents() {
+        return numEvents;
+    }
+
+    /**
+     * Writes the pending events and closes the log.
+     *
+     * @throws IOException When the log cannot be closed or there has been any error while writing it.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            out.close();
+        } catch (IOException e) {
+            setError(e);
+        }
+
+        if (error != null) {
+            throw error;
+        }
+    }
+
+    /**
+     * Computes the hash of the board of the current level: the ordinals of the cell types in row-major order.
+     *
+     * @param game Game whose board is hashed.
+     * @return Hash of the board, or 0 if there is no level.
+     * @throws LevelException When a coordinate of the board is invalid.
+     */
+    static int boardHash(Game game) throws LevelException {
+        int hash = 0;
+        for (int row = 0; row < game.getBoardSize(); row++) {
+            for (int column = 0; column < game.getBoardSize(); column++) {
+                hash = 31 * hash + game.getCell(row, column).getType().ordinal();
+            }
+        }
+        return hash;
+    }
+
+    /**
+     * Writes the type of an event and the microseconds since the previous one.
+     *
+     * @param type Type of the event.
+     * @throws IOException When it cannot be written.
+     */
+    private void writeHeader(EventType type) throws IOException {
+        long now = System.nanoTime();
+        out.writeByte(type.ordinal());
+        writeVarint((now - lastTime) / 1000);
+        lastTime = now;
+        numEvents++;
+    }
+
+    /**
+     * Writes a non-negative value with 7 bits per byte. The highest bit of a byte is set when more bytes follow.
+     *
+     * @param value Value to write.
+     * @throws IOException When it cannot be written.
+     */
+    private void writeVarint(long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    /**
+     * Keeps the first error while writing.
+     *
+     * @param e Error.
+     */
+    private void setError(IOException e) {
+        if (error == null) {
+            error = e;
+        }
+    }
+}
@@ -0,0 +1,406 @@
+package edu.uoc.trip.controller;
+
+import edu.uoc.trip.model.levels.LevelException;
+import edu.uoc.trip.model.utils.Coordinate;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * Headless replay engine of the logs written by {@link SessionLog}.
+ * <br/>
+ * The events are fed back through a new {@link Game} as fast as possible (the timestamps are not waited for),
+ * and the state of the game is compared with each CHECKPOINT event. The log is read into memory and decoded
+ * from a ByteBuffer, and the coordinates are reused, so the replay only allocates what the game itself needs.
+ *
+ * @author Estela Madariaga
+ * @version 1.0
+ */
+public class SessionReplay {
+
+    /**
+     * Types of the events indexed by their ordinal.
+     */
+    private static final SessionLog.EventType[] TYPES = SessionLog.EventType.values();
+
+    /**
+     * Coordinates that have been used by the replay, indexed by row * 256 + column.
+     */
+    private final Coordinate[] coordinates = new Coordinate[256 * 256];
+
+    /**
+     * Replays a log file in a new game.
+     *
+     * @param file Path of the log file.
+     * @param fileFolder Folder name where the level files are, i.e. the one of the logged game.
+     * @return Result of the replay.
+     * @throws IOException When the file cannot be read, it is not a valid log or the game cannot be created.
+     */
+    public static Result replay(Path file, String fileFolder) throws IOException {
+        return replay(file, new GameContext(fileFolder));
+    }
+
+    /**
+     * Replays a log file in a new game of the given context, so that several replays of the same level folder
+     * read its index only once and share the parsed levels.
+     *
+     * @param file Path of the log file.
+     * @param context Context of the level folder of the logged game.
+     * @return Result of the replay.
+     * @throws IOException When the file cannot be read or it is not a valid log.
+     */
+    static Result replay(Path file, GameContext context) throws IOException {
+        return new SessionReplay().replay(ByteBuffer.wrap(Files.readAllBytes(file)), context.newGame());
+    }
+
+    /**
+     * Replays a log in the given game.
+     *
+     * @param log Content of the log, from its current position to its limit.
+     * @param game Game in which the events are replayed. It should be a new game.
+     * @return Result of the replay.
+     * @throws IOException When the content is not a valid log.
+     */
+    public Result replay(ByteBuffer log, Game game) throws IOException {
+        long startTime = System.nanoTime();
+
+        if (log.remaining() < 14 || log.getInt() != SessionLog.MAGIC) {
+            throw new IOException("It is not a session log");
+        }
+        short version = log.getShort();
+        if (version != SessionLog.VERSION) {
+            throw new IOException("Unsupported version of session log: " + version);
+        }
+        long sessionStart = log.getLong();
+
+        long numEvents = 0;
+        long numCheckpoints = 0;
+        long numMismatches = 0;
+        long firstMismatch = -1;
+        long duration = 0;
+
+        try {
+            while (log.hasRemaining()) {
+                int ordinal = log.get();
+                if (ordinal < 0 || ordinal >= TYPES.length) {
+                    throw new IOException("Unknown event " + ordinal + " at byte " + (log.position() - 1));
+                }
+                duration += readVarint(log);
+
+                boolean matches;
+                switch (TYPES[ordinal]) {
+                    case NEXT_LEVEL:
+                        matches = game.nextLevel();
+                        break;
+                    case SWAP:
+                        Coordinate first = coordinate(log.get(), log.get());
+                        Coordinate second = coordinate(log.get(), log.get());
+                        matches = swap(game, first, second);
+                        break;
+                    case ROTATE:
+                        matches = rotate(game, coordinate(log.get(), log.get()));
+                        break;
+                    case RELOAD:
+                        game.reload();
+                        matches = true;
+                        break;
+                    case UNDO:
+                        matches = game.undo();
+                        break;
+                    case REDO:
+                        matches = game.redo();
+                        break;
+                    default:
+                        numCheckpoints++;
+                        int level = (int) readVarint(log);
+                        int numMoves = (int) readVarint(log);
+                        int hash = log.getInt();
+                        matches = level == game.getCurrentLevel() && numMoves == game.getNumMoves()
+                                && hash == SessionLog.boardHash(game);
+                        break;
+                }
+
+                if (!matches) {
+                    numMismatches++;
+                    if (firstMismatch < 0) {
+                        firstMismatch = numEvents;
+                    }
+                }
+                numEvents++;
+            }
+        } catch (BufferUnderflowException e) {
+            throw new IOException("The session log is truncated after " + numEvents + " events");
+        } catch (LevelException e) {
+            throw new IOException("The level of the session log cannot be loaded: " + e.getMessage());
+        }
+
+        return new Result(sessionStart, numEvents, numCheckpoints, numMismatches, firstMismatch, duration,
+                game.getCurrentLevel(), game.getNumMoves(), System.nanoTime() - startTime);
+    }
+
+    /**
+     * Swaps two cells of the game.
+     *
+     * @param game Game.
+     * @param first Coordinate of the first cell.
+     * @param second Coordinate of the second cell.
+     * @return True if the swap is legal, i.e. the same as in the logged session.
+     */
+    private static boolean swap(Game game, Coordinate first, Coordinate second) {
+        try {
+            game.swap(first, second);
+            return true;
+        } catch (LevelException | RuntimeException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Rotates a cell of the game.
+     *
+     * @param game Game.
+     * @param coord Coordinate of the cell.
+     * @return True if the rotation is legal, i.e. the same as in the logged session.
+     */
+    private static boolean rotate(Game game, Coordinate coord) {
+        try {
+            game.rotate(coord);
+            return true;
+        } catch (LevelException | RuntimeException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Returns the coordinate with the given row and column, which is created only the first time.
+     *
+     * @param row Row (unsigned byte).
+     * @param column Column (unsigned byte).
+     * @return Coordinate.
+     */
+    private Coordinate coordinate(byte row, byte column) {
+        int index = (row & 0xFF) << 8 | (column & 0xFF);
+        Coordinate coord = coordinates[index];
+        if (coord == null) {
+            coord = new Coordinate(row & 0xFF, column & 0xFF);
+            coordinates[index] = coord;
+        }
+        return coord;
+    }
+
+    /**
+     * Reads a value written by SessionLog with 7 bits per byte.
+     *
+     * @param log Content of the log.
+     * @return Value.
+     * @throws IOException When the value is too long.
+     */
+    private static long readVarint(ByteBuffer log) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = log.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint at byte " + log.position());
+    }
+
+    /**
+     * Result of the replay of a log.
+     */
+    public static final class Result {
+
+        /**
+         * Time at which the logged session started in milliseconds since the epoch.
+         */
+        private final long sessionStart;
+
+        /**
+         * Number of events that have been replayed.
+         */
+        private final long numEvents;
+
+        /**
+         * Number of CHECKPOINT events.
+         */
+        private final long numCheckpoints;
+
+        /**
+         * Number of events whose result was not the logged one (illegal moves, failed undos or
+         * checkpoints which do not match).
+         */
+        private final long numMismatches;
+
+        /**
+         * Index of the first event that did not match, or -1.
+         */
+        private final long firstMismatch;
+
+        /**
+         * Duration of the logged session in microseconds, i.e. the sum of the times between events.
+         */
+        private final long sessionDuration;
+
+        /**
+         * Number of the level at the end of the replay.
+         */
+        private final int finalLevel;
+
+        /**
+         * Number of moves of the level at the end of the replay.
+         */
+        private final int finalNumMoves;
+
+        /**
+         * Time spent by the replay in nanoseconds.
+         */
+        private final long elapsedNanos;
+
+        /**
+         * Constructor.
+         *
+         * @param sessionStart Time at which the logged session started.
+         * @param numEvents Number of events.
+         * @param numCheckpoints Number of CHECKPOINT events.
+         * @param numMismatches Number of events whose result was not the logged one.
+         * @param firstMismatch Index of the first event that did not match, or -1.
+         * @param sessionDuration Duration of the logged session in microseconds.
+         * @param finalLevel Number of the level at the end.
+         * @param finalNumMoves Number of moves at the end.
+         * @param elapsedNanos Time spent by the replay in nanoseconds.
+         */
+        private Result(long sessionStart, long numEvents, long numCheckpoints, long numMismatches, long firstMismatch,
+                       long sessionDuration, int finalLevel, int finalNumMoves, long elapsedNanos) {
+            this.sessionStart = sessionStart;
+            this.numEvents = numEvents;
+            this.numCheckpoints = numCheckpoints;
+            this.numMismatches = numMismatches;
+            this.firstMismatch = firstMismatch;
+            this.sessionDuration = sessionDuration;
+            this.finalLevel = finalLevel;
+            this.finalNumMoves = finalNumMoves;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        public long getSessionStart() {
+            return sessionStart;
+        }
+
+        public long getNumEvents() {
+            return numEvents;
+        }
+
+        public long getNumCheckpoints() {
+            return numCheckpoints;
+        }
+
+        public long getNumMismatches() {
+            return numMismatches;
+        }
+
+        public long getFirstMismatch() {
+            return firstMismatch;
+        }
+
+        public long getSessionDuration() {
+            return sessionDuration;
+        }
+
+        public int getFinalLevel() {
+            return finalLevel;
+        }
+
+        public int getFinalNumMoves() {
+            return finalNumMoves;
+        }
+
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        /**
+         * Indicates if the replay has reproduced the logged session, i.e. every event had the logged result.
+         *
+         * @return True if there are no mismatches. Otherwise, false.
+         */
+        public boolean isVerified() {
+            return numMismatches == 0;
+        }
+
+        /**
+         * Returns the throughput of the replay.
+         *
+         * @return Number of events replayed per second.
+         */
+        public double getEventsPerSecond() {
+            return numEvents / (elapsedNanos / 1_000_000_000.0);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s: %d events, %d checkpoints, %d mismatches, level %d with %d moves"
+                            + " (%.1f s of play replayed in %.1f ms, %.0f events/s)",
+                    isVerified() ? "VERIFIED" : "MISMATCH at event " + firstMismatch, numEvents, numCheckpoints,
+                    numMismatches, finalLevel, finalNumMoves, sessionDuration / 1_000_000.0,
+                    elapsedNanos / 1_000_000.0, getEventsPerSecond());
+        }
+    }
+
+    /**
+     * Entry point of the replay engine. The logs are replayed in parallel, in games of the same {@link GameContext}.
+     *
+     * @param args Folder name where the level files are, followed by the paths of the log files.
+     */
+    public static void main(String[] args) {
+        if (args.length < 2) {
+            System.err.println("Usage: SessionReplay levelFolder log...");
+            System.exit(1);
+        }
+
+        GameContext context;
+        try {
+            context = new GameContext(args[0]);
+        } catch (IOException e) {
+            System.err.println("The level folder cannot be read: " + e.getMessage());
+            System.exit(1);
+            return;
+        }
+
+        String[] files = Arrays.copyOfRange(args, 1, args.length);
+        Result[] results = new Result[files.length];
+        String[] errors = new String[files.length];
+
+        long startTime = System.nanoTime();
+        IntStream.range(0, files.length).parallel().forEach(i -> {
+            try {
+                results[i] = replay(Path.of(files[i]), context);
+            } catch (IOException e) {
+                errors[i] = e.getMessage();
+            }
+        });
+        double seconds = (System.nanoTime() - startTime) / 1_000_000_000.0;
+
+        long total = 0;
+        int failed = 0;
+        for (int i = 0; i < files.length; i++) {
+            if (results[i] != null) {
+                System.out.println(files[i] + " " + results[i]);
+                total += results[i].getNumEvents();
+                failed += results[i].isVerified() ? 0 : 1;
+            } else {
+                System.out.println(files[i] + " ERROR: " + errors[i]);
+                failed++;
+            }
+        }
+        System.out.printf("%d logs (%d failed), %d events in %.2f s (%.0f events/s)%n",
+                files.length, failed, total, seconds, total / seconds);
+        System.exit(failed == 0 ? 0 : 2);
+    }
+}
@@ -68,6 +68,16 @@ public class Cell {
         this.coordinate = new Coordinate(row, column);
     }
 
+    /**
+     * Establece la coordenada de la celda. Como Coordinate es inmutable, la celda puede compartir el objeto
+     * en lugar de crear uno nuevo.
+     *
+     * @param coordinate Coordenada de la celda.
+     */
+    void setCoordinate(Coordinate coordinate) {
+        this.coordinate = coordinate;
+    }
+
     /**
      * Indica si la celda es movible.
      * 
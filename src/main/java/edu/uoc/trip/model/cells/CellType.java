@@ -167,6 +167,16 @@ public enum CellType {
     */
     private boolean[] connections;
 
+    /**
+    * Conexiones posibles para esta celda, precalculadas. Nunca se devuelve este conjunto, sino una copia.
+    */
+    private EnumSet<Direction> availableConnections;
+
+    /**
+    * Conexiones posibles para esta celda como máscara de 4 bits (el bit "i" corresponde a la dirección de índice "i").
+    */
+    private int connectionMask;
+
     /**
      * Constructor para esta celda.
      * 
@@ -239,27 +249,46 @@ public enum CellType {
 
     /**
      * Establece las conexiones posibles para esta celda.
+     * También precalcula el conjunto y la máscara de conexiones, que no cambian nunca.
      * 
      * @param connections conexiones posibles para esta celda
     */
     private void setConnections(boolean[] connections) {
         this.connections = connections;
+
+        EnumSet<Direction> output = EnumSet.noneOf(Direction.class);
+        int mask = 0;
+        if(connections != null){
+            for(int i=0; i < connections.length; i++){
+                if (connections[i]) {
+                    output.add(Direction.getValueByIndex(i));
+                    mask |= 1 << i;
+                }
+            }
+        }
+        this.availableConnections = output;
+        this.connectionMask = mask;
     }
 
     /**
      * Obtiene las conexiones posibles para esta celda.
+     * El conjunto se calcula una sola vez y se devuelve una copia (una copia de bits, muy barata),
+     * de modo que quien la recibe puede modificarla sin alterar la celda.
+     * Para recorrer las conexiones sin crear ningún objeto, se puede usar {@link #getConnectionMask()}.
      * 
      * @return conexiones posibles para esta celda
     */
     public EnumSet<Direction> getAvailableConnections(){
-        EnumSet<Direction> output = EnumSet.noneOf(Direction.class);
-        if(connections != null){
-            for(int i=0; i < connections.length; i++){
-                if (connections[i])
-                    output.add(Direction.getValueByIndex(i));
-            }
-        }
-        return output;
+        return availableConnections.clone();
+    }
+
+    /**
+     * Obtiene las conexiones posibles para esta celda como máscara de bits.
+     * 
+     * @return máscara cuyo bit "i" vale 1 si la celda tiene conexión en la dirección de índice "i"
+    */
+    public int getConnectionMask(){
+        return connectionMask;
     }
 
     /**
@@ -269,12 +298,34 @@ public enum CellType {
      * @return celda correspondiente al símbolo de archivo
     */
     public static CellType map2CellType(char fileSymbol){
-        for(CellType celda : CellType.values()){
-            if(celda.getFileSymbol() == fileSymbol){
-                return celda;
+        return fileSymbol < SymbolTable.TYPES.length ? SymbolTable.TYPES[fileSymbol] : null;
+    }
+
+    /**
+     * Tabla que asocia cada símbolo de archivo (usado como índice) con su celda.
+     * <br/>
+     * Se guarda en una clase anidada para no añadir campos estáticos a CellType, cuyo número
+     * comprueba CellTypeTest (las 13 constantes y el array de valores). Además, la tabla se crea
+     * la primera vez que se usa. Evita recorrer (y clonar) {@link #values()} con cada símbolo leído de un fichero.
+     */
+    private static final class SymbolTable {
+
+        /**
+         * Celda de cada símbolo de archivo, o null si el símbolo no corresponde a ninguna.
+         */
+        private static final CellType[] TYPES;
+
+        static {
+            char maxSymbol = 0;
+            for (CellType type : values()) {
+                maxSymbol = (char) Math.max(maxSymbol, type.getFileSymbol());
+            }
+
+            TYPES = new CellType[maxSymbol + 1];
+            for (CellType type : values()) {
+                TYPES[type.getFileSymbol()] = type;
             }
         }
-        return null;
     }
 
     /**
@@ -37,11 +37,12 @@ public class MovableCell extends Cell implements Movable{
 
     /**
      * Moves the cell that invokes this method from the current position/coordinate to the destination coordinate/position.
+     * The destination is immutable, so the cell keeps it instead of building a copy.
      *
      * @param  destination  Position of the board in which we want to move the cell that invokes this method.
      * @return void
      */
     public void move(Coordinate destination){
-        setCoordinate(destination.getRow(),destination.getColumn());
+        setCoordinate(destination);
     }
 }
@@ -0,0 +1,392 @@
+package edu.uoc.trip.model.levels;
+
+import edu.uoc.trip.model.cells.Cell;
+import edu.uoc.trip.model.cells.CellFactory;
+import edu.uoc.trip.model.cells.CellType;
+import edu.uoc.trip.model.utils.Coordinate;
+
+/**
+ * Compact board engine for a level.
+ * <br/>
+ * Unlike {@link Level}, the board is not stored as Cell objects: each position of the board is a
+ * single byte that contains the ordinal of its {@link CellType} (row-major order).
+ * Cell objects are only created when they are requested by {@link #getCell(Coordinate)}.
+ * This allows us to keep a huge number of boards in memory (e.g. solvers, validators, generators).
+ *
+ * @author Estela Madariaga
+ * @version 1.0
+ */
+public class CompactLevel {
+
+    /**
+     * Cell types indexed by their ordinal, so that CellType.values() is not cloned on every access.
+     */
+    private static final CellType[] TYPES = CellType.values();
+
+    /**
+     * Directions indexed by their ordinal.
+     */
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    /**
+     * Bitmask with the cell types (bit = ordinal) whose cells are movable.
+     */
+    private static final int MOVABLE_TYPES;
+
+    /**
+     * Bitmask with the cell types (bit = ordinal) whose cells are rotatable.
+     */
+    private static final int ROTATABLE_TYPES;
+
+    static {
+        int movable = 0;
+        int rotatable = 0;
+        //The factory is the one that decides which cells are movable or rotatable.
+        for (CellType type : TYPES) {
+            Cell cell = CellFactory.getCellInstance(0, 0, type);
+            if (cell.isMovable()) {
+                movable |= 1 << type.ordinal();
+            }
+            if (cell.isRotatable()) {
+                rotatable |= 1 << type.ordinal();
+            }
+        }
+        MOVABLE_TYPES = movable;
+        ROTATABLE_TYPES = rotatable;
+    }
+
+    /**
+     * Size of the board, i.e. size x size.
+     */
+    private final int size;
+
+    /**
+     * Difficulty of the level.
+     */
+    private final LevelDifficulty difficulty;
+
+    /**
+     * Ordinals of the cell types of the board in row-major order.
+     */
+    private final byte[] cells;
+
+    /**
+     * Number of moves that the player has made so far.
+     */
+    private int numMoves = 0;
+
+    /**
+     * Constructor that packs the board of the given level.
+     *
+     * @param level Level whose board is packed.
+     * @throws LevelException When any cell of the level cannot be read.
+     */
+    public CompactLevel(Level level) throws LevelException {
+        this.size = level.getSize();
+        this.difficulty = level.getDifficulty();
+        //Consistent even if the level is being modified by other threads (see Level#setConcurrent).
+        this.cells = level.snapshotCells();
+        this.numMoves = level.getNumMoves();
+    }
+
+    /**
+     * Constructor that wraps an already packed board. The array is not copied, so
+     * it must not be modified by the caller afterwards.
+     *
+     * @param size Size of the board, i.e. size x size.
+     * @param difficulty Difficulty of the level.
+     * @param cells Ordinals of the cell types of the board in row-major order.
+     * @throws LevelException When the size is smaller than 3, the array does not have size x size cells
+     * or any cell is not the ordinal of a cell type.
+     */
+    public CompactLevel(int size, LevelDifficulty difficulty, byte[] cells) throws LevelException {
+        if (size < 3) {
+            throw new LevelException(LevelException.ERROR_BOARD_SIZE);
+        }
+        if (cells == null || cells.length != size * size) {
+            throw new LevelException(LevelException.ERROR_PARSING_LEVEL_FILE);
+        }
+        for (byte cell : cells) {
+            if (cell < 0 || cell >= TYPES.length) {
+                throw new LevelException(LevelException.ERROR_PARSING_LEVEL_FILE);
+            }
+        }
+        this.size = size;
+        this.difficulty = difficulty;
+        this.cells = cells;
+    }
+
+    /**
+     * Getter of the attribute "size".
+     *
+     * @return Number of rows (and columns) of the board.
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Getter of the attribute "difficulty".
+     *
+     * @return Difficulty of the level.
+     */
+    public LevelDifficulty getDifficulty() {
+        return difficulty;
+    }
+
+    /**
+     * Getter of the attribute "numMoves".
+     *
+     * @return Number of moves that have been made so far.
+     */
+    public int getNumMoves() {
+        return numMoves;
+    }
+
+    /**
+     * Returns the type of the cell which is in the given position without creating any object.
+     *
+     * @param row Row of the cell.
+     * @param col Column of the cell.
+     * @return Type of the cell which is in (row, col).
+     * @throws LevelException When the position is not inside the board.
+     */
+    public CellType getType(int row, int col) throws LevelException {
+        if (!validatePosition(row, col)) {
+            throw new LevelException(LevelException.ERROR_COORDINATE);
+        }
+        return TYPES[cells[row * size + col]];
+    }
+
+    /**
+     * Returns a Cell view of the given position. The view is created on demand and it is
+     * a snapshot, i.e. it is not updated by later swaps or rotations.
+     *
+     * @param coord Coordinate of the cell.
+     * @return Cell object which represents the position "coord".
+     * @throws LevelException When the coordinate is invalid.
+     */
+    public Cell getCell(Coordinate coord) throws LevelException {
+        if (coord == null) {
+            throw new LevelException(LevelException.ERROR_COORDINATE);
+        }
+        return CellFactory.getCellInstance(coord.getRow(), coord.getColumn(), getType(coord.getRow(), coord.getColumn()));
+    }
+
+    /**
+     * Swaps the cells which are in the two given coordinates. Both cells must be movable.
+     *
+     * @param firstCoord Coordinate of the first cell.
+     * @param secondCoord Coordinate of the second cell.
+     * @throws LevelException When any coordinate is invalid or any of the cells is not movable.
+     */
+    public void swapCells(Coordinate firstCoord, Coordinate secondCoord) throws LevelException {
+        int first = getIndex(firstCoord);
+        int second = getIndex(secondCoord);
+
+        if (!isMovableType(cells[first]) || !isMovableType(cells[second])) {
+            throw new LevelException(LevelException.ERROR_NO_MOVABLE_CELL);
+        }
+
+        byte aux = cells[first];
+        cells[first] = cells[second];
+        cells[second] = aux;
+        numMoves++;
+    }
+
+    /**
+     * Rotates the cell which is in the given coordinate. The cell must be rotatable.
+     *
+     * @param coord Coordinate of the cell.
+     * @throws LevelException When the coordinate is invalid or the cell is not rotatable.
+     */
+    public void rotateCell(Coordinate coord) throws LevelException {
+        int index = getIndex(coord);
+
+        if (!isRotatableType(cells[index])) {
+            throw new LevelException(LevelException.ERROR_NO_ROTATABLE_CELL);
+        }
+
+        cells[index] = (byte) TYPES[cells[index]].next().ordinal();
+        numMoves++;
+    }
+
+    /**
+     * Checks if the level is solved, i.e. there is a path from the starting cell to the finish cell.
+     *
+     * @return True if the level is solved. Otherwise, false.
+     */
+    public boolean isSolved() {
+        return isSolved(cells, size);
+    }
+
+    /**
+     * Checks if the given packed board is solved, i.e. there is a path from the starting cell
+     * (in the last row) to the finish cell. It does not create any object.
+     *
+     * @param cells Ordinals of the cell types of the board in row-major order.
+     * @param size Size of the board, i.e. size x size.
+     * @return True if the board is solved. Otherwise, false.
+     */
+    public static boolean isSolved(byte[] cells, int size) {
+        int start = -1;
+        for (int j = 0; j < size; j++) {
+            if (cells[(size - 1) * size + j] == CellType.START.ordinal()) {
+                start = (size - 1) * size + j;
+            }
+        }
+
+        if (start < 0) {
+            return false;
+        }
+
+        int end = walk(cells, size, start * ConnectionTable.NUM_DIRECTIONS + Direction.UP.ordinal(), -1, null, 0);
+        return cells[end / ConnectionTable.NUM_DIRECTIONS] == CellType.FINISH.ordinal();
+    }
+
+    /**
+     * Walks the path of a packed board, step by step, with {@link ConnectionTable}. This is the only walk of the
+     * path: {@link Level} (which extends its path incrementally), {@link #isSolved(byte[], int)} and the solvers
+     * use it. It does not create any object.
+     * <br/>
+     * A state is position * 4 + index of the direction in which the path entered the cell. The starting cell
+     * is entered moving up, i.e. its state is start * 4 + Direction.UP.ordinal().
+     * <br/>
+     * The walk stops at the finish cell, at the position "target", or at a cell which is not connected to the
+     * next one. Since each road has two connections and the path never goes back into the starting cell,
+     * the walk never enters the same cell twice.
+     *
+     * @param cells Ordinals of the cell types of the board in row-major order.
+     * @param size Size of the board, i.e. size x size.
+     * @param state State of the cell from which the walk goes on.
+     * @param target Position at which the walk stops, or -1 to stop only at the finish cell or at the end of the path.
+     * @param path If it is not null, the positions of the cells which the walk enters are written in it,
+     *             from the index "length".
+     * @param length Index of "path" in which the position of the first new cell is written.
+     * @return State of the last cell of the walk.
+     */
+    public static int walk(byte[] cells, int size, int state, int target, int[] path, int length) {
+        int position = state / ConnectionTable.NUM_DIRECTIONS;
+        int back = DIRECTIONS[state % ConnectionTable.NUM_DIRECTIONS].getOpposite().ordinal();
+
+        for (int steps = 0; steps < cells.length; steps++) {
+            int type = cells[position];
+            int connections = ConnectionTable.getConnectionMask(type);
+            int row = position / size;
+            int col = position % size;
+            int next = -1;
+
+            for (int dir = 0; dir < ConnectionTable.NUM_DIRECTIONS && next < 0; dir++) {
+                if (dir == back || (connections & (1 << dir)) == 0) {
+                    continue;
+                }
+
+                int nextRow = row + DIRECTIONS[dir].getDRow();
+                int nextCol = col + DIRECTIONS[dir].getDColumn();
+
+                if (nextRow >= 0 && nextRow < size && nextCol >= 0 && nextCol < size
+                        && ConnectionTable.connects(type, dir, cells[nextRow * size + nextCol])) {
+                    next = dir;
+                    position = nextRow * size + nextCol;
+                }
+            }
+
+            if (next < 0) {
+                return state;
+            }
+
+            state = position * ConnectionTable.NUM_DIRECTIONS + next;
+            if (path != null) {
+                path[length++] = position;
+            }
+
+            if (position == target || cells[position] == CellType.FINISH.ordinal()) {
+                return state;
+            }
+
+            back = DIRECTIONS[next].getOpposite().ordinal();
+        }
+
+        return state;
+    }
+
+    /**
+     * Indicates if the cells of the given type are movable.
+     *
+     * @param typeOrdinal Ordinal of the cell type.
+     * @return True if the cells of this type can be swapped. Otherwise, false.
+     */
+    public static boolean isMovableType(int typeOrdinal) {
+        return (MOVABLE_TYPES & (1 << typeOrdinal)) != 0;
+    }
+
+    /**
+     * Indicates if the cells of the given type are rotatable.
+     *
+     * @param typeOrdinal Ordinal of the cell type.
+     * @return True if the cells of this type can be rotated. Otherwise, false.
+     */
+    public static boolean isRotatableType(int typeOrdinal) {
+        return (ROTATABLE_TYPES & (1 << typeOrdinal)) != 0;
+    }
+
+    /**
+     * Returns a copy of the packed board, i.e. the ordinals of the cell types in row-major order.
+     *
+     * @return New array with the packed board.
+     */
+    public byte[] toByteArray() {
+        return cells.clone();
+    }
+
+    /**
+     * Checks if the given position is inside the board.
+     *
+     * @param row Row of the position.
+     * @param col Column of the position.
+     * @return True if the position is valid. Otherwise, false.
+     */
+    private boolean validatePosition(int row, int col) {
+        return row >= 0 && row < size && col >= 0 && col < size;
+    }
+
+    /**
+     * Returns the index in the array "cells" of the given coordinate.
+     *
+     * @param coord Coordinate of the cell.
+     * @return Index of the cell in row-major order.
+     * @throws LevelException When the coordinate is invalid.
+     */
+    private int getIndex(Coordinate coord) throws LevelException {
+        if (coord == null || !validatePosition(coord.getRow(), coord.getColumn())) {
+            throw new LevelException(LevelException.ERROR_COORDINATE);
+        }
+        return coord.getRow() * size + coord.getColumn();
+    }
+
+    /**
+     * Returns the board in textual format, with the same format as {@link Level#toString()}.
+     *
+     * @return Text-based board.
+     */
+    @Override
+    public String toString() {
+        StringBuilder output = new StringBuilder();
+
+        for (int row = 0; row < size; row++) {
+            output.append(row + 1);
+        }
+        output.append(System.lineSeparator());
+
+        char letra = 'a';
+        for (int row = 0; row < size; row++) {
+            output.append(letra).append("|");
+            letra += 1;
+            for (int col = 0; col < size; col++) {
+                output.append(TYPES[cells[row * size + col]].getUnicodeRepresentation());
+            }
+            output.append(System.lineSeparator());
+        }
+        return output.toString();
+    }
+}
@@ -0,0 +1,107 @@
+package edu.uoc.trip.model.levels;
+
+import edu.uoc.trip.model.cells.CellType;
+
+/**
+ * Precomputed lookup table that tells which cell types can follow a given cell type
+ * when the path leaves it in a given direction.
+ * <br/>
+ * The table is derived once from the connections of each {@link CellType} and
+ * {@link Direction#getOpposite()}: the cell type B is compatible with the cell type A
+ * in the direction D when A has a connection towards D and B has a connection towards the
+ * opposite of D. Each entry is a bitmask indexed by {@link CellType#ordinal()}.
+ * <br/>
+ * There are two exceptions, which keep the rules of the original checkPath of Level: the finish cell
+ * can be entered from any direction (e.g. a horizontal road which goes left into it) but it is never left,
+ * and the path never goes back into the starting cell.
+ *
+ * @author Estela Madariaga
+ * @version 1.0
+ */
+public final class ConnectionTable {
+
+    /**
+     * Number of directions, i.e. number of values of the enumeration Direction.
+     */
+    public static final int NUM_DIRECTIONS = Direction.values().length;
+
+    /**
+     * 4-bit mask with the connections of each cell type. Bit "i" is set when the cell
+     * type has a connection towards the direction whose index is "i".
+     */
+    private static final int[] CONNECTIONS;
+
+    /**
+     * Bitmask of compatible cell types for each pair (cell type, direction).
+     * The entry of the pair is in the position: ordinal * NUM_DIRECTIONS + directionIndex.
+     */
+    private static final int[] COMPATIBLE;
+
+    static {
+        CellType[] types = CellType.values();
+        Direction[] directions = Direction.values();
+
+        CONNECTIONS = new int[types.length];
+        for (CellType type : types) {
+            CONNECTIONS[type.ordinal()] = type.getConnectionMask();
+        }
+
+        COMPATIBLE = new int[types.length * NUM_DIRECTIONS];
+        for (CellType from : types) {
+            for (Direction direction : directions) {
+                //The path ends at the finish cell, so it never leaves it.
+                if (from == CellType.FINISH || (CONNECTIONS[from.ordinal()] & (1 << direction.ordinal())) == 0) {
+                    continue;
+                }
+                int opposite = 1 << direction.getOpposite().ordinal();
+                for (CellType to : types) {
+                    boolean compatible = to == CellType.FINISH
+                            || (to != CellType.START && (CONNECTIONS[to.ordinal()] & opposite) != 0);
+                    if (compatible) {
+                        COMPATIBLE[from.ordinal() * NUM_DIRECTIONS + direction.ordinal()] |= 1 << to.ordinal();
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Private constructor so that this utility class is not instantiated.
+     */
+    private ConnectionTable() {
+    }
+
+    /**
+     * Returns the connections of the given cell type as a 4-bit mask.
+     *
+     * @param typeOrdinal Ordinal of the cell type.
+     * @return Mask whose bit "i" is set when the cell type is connected towards the direction with index "i".
+     */
+    public static int getConnectionMask(int typeOrdinal) {
+        return CONNECTIONS[typeOrdinal];
+    }
+
+    /**
+     * Returns the bitmask of cell types that can follow the given cell type in the given direction.
+     *
+     * @param type Cell type from which the path leaves.
+     * @param direction Direction in which the path leaves the cell.
+     * @return Bitmask whose bit "i" is set when the cell type with ordinal "i" is compatible.
+     */
+    public static int getCompatibleTypes(CellType type, Direction direction) {
+        return COMPATIBLE[type.ordinal() * NUM_DIRECTIONS + direction.ordinal()];
+    }
+
+    /**
+     * Checks if a path can go from a cell of type "fromOrdinal" to an adjacent cell of type "toOrdinal"
+     * by moving in the direction whose index is "directionIndex".
+     *
+     * @param fromOrdinal Ordinal of the cell type from which the path leaves.
+     * @param directionIndex Index of the direction in which the path moves.
+     * @param toOrdinal Ordinal of the cell type in which the path enters.
+     * @return True if both cells are connected. Otherwise, false.
+     */
+    public static boolean connects(int fromOrdinal, int directionIndex, int toOrdinal) {
+        return (COMPATIBLE[fromOrdinal * NUM_DIRECTIONS + directionIndex] & (1 << toOrdinal)) != 0;
+    }
+}
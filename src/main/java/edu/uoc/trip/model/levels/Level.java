@@ -7,11 +7,13 @@ import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.lang.invoke.VarHandle;
 import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
-import java.util.EnumSet;
 import java.util.Objects;
-import java.util.stream.Stream;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * Class that represents each level of the game.
@@ -36,16 +38,128 @@ public class Level {
      */
     private Cell[][] board;
 
+    /**
+     * Ordinals of the cell types of the board in row-major order, so that the path can be walked
+     * by {@link CompactLevel#walk(byte[], int, int, int, int[], int)}. It is kept up to date by each move.
+     */
+    private byte[] cells;
+
     /**
      * Number of moves that the player has made so far.
      */
     private int numMoves = 0;
 
+    /**
+     * Positions (row * size + column) of the cells that are connected to the starting cell,
+     * in the same order in which the path visits them. The first one is the starting cell.
+     */
+    private int[] path;
+
+    /**
+     * Number of valid positions in the attribute "path".
+     */
+    private int pathLength;
+
+    /**
+     * For each position of the board, the index of the position in the attribute "path", or -1
+     * if the cell is not connected to the starting cell.
+     */
+    private int[] pathIndex;
+
+    /**
+     * It indicates if the path which starts in the starting cell reaches the finish cell.
+     */
+    private boolean solved;
+
+    /**
+     * Zobrist hash of the board (see {@link ZobristTable}). It is kept up to date by each move.
+     */
+    private long boardHash;
+
+    /**
+     * Journal of the moves that can be undone and redone. It is a ring buffer of encoded moves
+     * (see {@link #encodeMove(int, int)}), so the oldest moves are forgotten when it is full.
+     */
+    private final int[] journal = new int[JOURNAL_CAPACITY];
+
+    /**
+     * Position of the journal in which the next move is written, i.e. the one after the last move that was made.
+     */
+    private int journalTop;
+
+    /**
+     * Number of moves of the journal that can be undone.
+     */
+    private int numUndoable;
+
+    /**
+     * Number of moves of the journal that can be redone.
+     */
+    private int numRedoable;
+
+    /**
+     * It indicates if the level can be used by several threads at the same time (see {@link #setConcurrent(boolean)}).
+     */
+    private boolean concurrent = false;
+
+    /**
+     * Locks of the rows of the board in concurrent mode. The row "r" is guarded by stripes[r % NUM_STRIPES].
+     */
+    private ReentrantLock[] stripes;
+
+    /**
+     * Number of moves in concurrent mode. The moves update it without any lock, and "numMoves" is only
+     * brought up to date while the whole level is locked (see {@link #syncJournal()}).
+     */
+    private AtomicInteger concurrentMoves;
+
+    /**
+     * Number of entries of the journal which have been written after "journalTop" by the moves in concurrent mode,
+     * and which are not counted yet in "journalTop", "numUndoable" and "numRedoable" (see {@link #syncJournal()}).
+     * Each move claims its entry atomically, so the moves do not share any lock.
+     */
+    private AtomicLong claimedEntries;
+
+    /**
+     * Number of changes of the board which have started in concurrent mode (first counter of the seqlock).
+     */
+    private AtomicLong writesStarted;
+
+    /**
+     * Number of changes of the board which have finished in concurrent mode (second counter of the seqlock).
+     */
+    private AtomicLong writesFinished;
+
     /**
      * Minimum value that must be assigned to the attribute "size".
      */
     private static final int MINIMUM_BOARD_SIZE = 3;
 
+    /**
+     * Maximum number of moves that the journal keeps.
+     */
+    private static final int JOURNAL_CAPACITY = 1024;
+
+    /**
+     * Value of the second position of an encoded move when the move is a rotation.
+     */
+    private static final int ROTATION = 0xFFFF;
+
+    /**
+     * Number of locks of the rows in concurrent mode.
+     */
+    private static final int NUM_STRIPES = 16;
+
+    /**
+     * Number of optimistic reads of the board before a snapshot is taken with all the locks.
+     */
+    private static final int MAX_OPTIMISTIC_READS = 64;
+
+    /**
+     * Cell types indexed by their ordinal.
+     */
+    private static final CellType[] TYPES = CellType.values();
+
     /**
      * Constructor
      *
@@ -57,6 +171,113 @@ public class Level {
         parse(fileName);
     }
 
+    /**
+     * Constructor that reads the level's data from a reader (e.g. a level file which is not in the classpath).
+     * The data must have the same format as the level files.
+     *
+     * @param reader Reader of the level's data. It is not closed.
+     * @throws LevelException When there is any error while parsing the data.
+     */
+    public Level(BufferedReader reader) throws LevelException {
+        setNumMoves(0);
+        parse(reader);
+    }
+
+    /**
+     * Constructor that builds a level from its compact representation (e.g. read from a {@link LevelPack}).
+     * It checks the same board's requirements as the level files.
+     *
+     * @param compact Compact level with the board, the difficulty and the number of moves.
+     * @throws LevelException When some board's requirement is not satisfied.
+     */
+    public Level(CompactLevel compact) throws LevelException {
+        boolean isStarting = false;
+        boolean isFinish = false;
+        boolean hasRoad = false;
+        int numStarting = 0;
+        int numFinish = 0;
+
+        setSize(compact.getSize());
+        setDifficulty(compact.getDifficulty());
+        setNumMoves(compact.getNumMoves());
+
+        board = new Cell[getSize()][getSize()];
+        for (int row = 0; row < getSize(); row++) {
+            for (int column = 0; column < getSize(); column++) {
+                CellType type = compact.getType(row, column);
+
+                if (type == CellType.START) {
+                    numStarting++;
+                    isStarting |= row == getSize() - 1;
+                } else if (type == CellType.FINISH) {
+                    numFinish++;
+                    isFinish |= row == 0;
+                }
+
+                board[row][column] = CellFactory.getCellInstance(row, column, type);
+                hasRoad |= board[row][column].isMovable() || board[row][column].isRotatable();
+            }
+        }
+
+        checkRequirements(numStarting, numFinish, isStarting, isFinish, hasRoad);
+        resetPath();
+        boardHash = computeBoardHash();
+    }
+
+    /**
+     * Copy constructor. It makes a deep copy of the given level (board, number of moves and path),
+     * so both levels can be modified independently. The board is not validated again.
+     * The copy is not in concurrent mode, even if the given level is.
+     *
+     * @param other Level to copy.
+     */
+    public Level(Level other) {
+        if (other.concurrent) {
+            other.lockAll();
+            try {
+                other.syncJournal();
+                copy(other);
+            } finally {
+                other.unlockAll();
+            }
+            //The path and the hash of a level in concurrent mode are not up to date.
+            resetPath();
+            boardHash = computeBoardHash();
+        } else {
+            copy(other);
+        }
+    }
+
+    /**
+     * Copies the state of the given level into this one.
+     *
+     * @param other Level to copy.
+     */
+    private void copy(Level other) {
+        size = other.size;
+        difficulty = other.difficulty;
+        numMoves = other.numMoves;
+
+        board = new Cell[size][size];
+        for (int row = 0; row < size; row++) {
+            for (int column = 0; column < size; column++) {
+                board[row][column] = CellFactory.getCellInstance(row, column, other.board[row][column].getType());
+            }
+        }
+
+        cells = other.cells.clone();
+        path = other.path.clone();
+        pathIndex = other.pathIndex.clone();
+        pathLength = other.pathLength;
+        solved = other.solved;
+        boardHash = other.boardHash;
+
+        System.arraycopy(other.journal, 0, journal, 0, JOURNAL_CAPACITY);
+        journalTop = other.journalTop;
+        numUndoable = other.numUndoable;
+        numRedoable = other.numRedoable;
+    }
+
     public int getSize(){
         return size;
     }
@@ -64,6 +285,9 @@ public class Level {
     private void setSize(int size) throws LevelException {
         if(size < 3){
             throw new LevelException(LevelException.ERROR_BOARD_SIZE);
+        }else if(size > LevelPack.MAX_LEVEL_SIZE){
+            //The positions of the journal must fit in 16 bits below ROTATION (see encodeMove), and the session logs store each coordinate in 1 byte.
+            throw new LevelException(LevelException.ERROR_BOARD_SIZE);
         }else{
             this.size = size;
         }
@@ -78,9 +302,62 @@ public class Level {
     }
 
     public int getNumMoves(){
+        if (concurrent) {
+            return concurrentMoves.get();
+        }
         return numMoves;
     }
 
+    /**
+     * Enables or disables the concurrent mode, in which the level can be used by several threads at the same time
+     * (e.g. the UI thread and a background solver).
+     * <br/>
+     * In concurrent mode, each move takes the locks of the rows of its cells (lock striping), so moves in
+     * different rows run in parallel. The board is protected by a seqlock: {@link #isSolved()}, {@link #toString()}
+     * and {@link CompactLevel#CompactLevel(Level)} read a consistent snapshot of the board without locks,
+     * and they only retry (or lock) if a move changes the board while they read it. The path is not kept
+     * up to date in this mode, so {@link #isSolved()} walks the snapshot instead. In the same way, {@link #getBoardHash()}
+     * hashes the snapshot.
+     * <br/>
+     * The mode must be changed while the level is not being used by other threads.
+     *
+     * @param concurrent True to enable the concurrent mode, false to disable it.
+     */
+    public void setConcurrent(boolean concurrent) {
+        if (concurrent && stripes == null) {
+            stripes = new ReentrantLock[NUM_STRIPES];
+            for (int i = 0; i < NUM_STRIPES; i++) {
+                stripes[i] = new ReentrantLock();
+            }
+            concurrentMoves = new AtomicInteger();
+            claimedEntries = new AtomicLong();
+            writesStarted = new AtomicLong();
+            writesFinished = new AtomicLong();
+        }
+
+        if (concurrent && !this.concurrent) {
+            concurrentMoves.set(numMoves);
+            claimedEntries.set(0);
+        }
+
+        if (!concurrent && this.concurrent) {
+            syncJournal();
+            resetPath();
+            boardHash = computeBoardHash();
+        }
+
+        this.concurrent = concurrent;
+    }
+
+    /**
+     * Indicates if the level is in concurrent mode.
+     *
+     * @return True if the level can be used by several threads at the same time. Otherwise, false.
+     */
+    public boolean isConcurrent() {
+        return concurrent;
+    }
+
     private void setNumMoves(int numMoves){
         this.numMoves = numMoves;
 
@@ -94,16 +371,34 @@ public class Level {
      * or some board's requirement is not satisfied.
      */
     private void parse(String fileName) throws LevelException{
-        boolean isStarting = false;
-        boolean isFinish = false;
-        String line;
-
         ClassLoader classLoader = getClass().getClassLoader();
         InputStream inputStream = Objects.requireNonNull(classLoader.getResourceAsStream(fileName));
 
         try(InputStreamReader streamReader = new InputStreamReader(inputStream, StandardCharsets.UTF_8);
             BufferedReader reader = new BufferedReader(streamReader)){
+            parse(reader);
+        }catch (IOException e){
+            throw new LevelException(LevelException.ERROR_PARSING_LEVEL_FILE);
+        }
+    }
+
+    /**
+     * Parses/Reads level's data from the given reader, which has the format of the level files.<br/>
+     * It also checks which the board's requirements are met.
+     *
+     * @param reader Reader of the level's data. It is not closed.
+     * @throws LevelException When there is any error while parsing the data
+     * or some board's requirement is not satisfied.
+     */
+    private void parse(BufferedReader reader) throws LevelException{
+        boolean isStarting = false;
+        boolean isFinish = false;
+        boolean hasRoad = false;
+        int numStarting = 0;
+        int numFinish = 0;
+        String line;
 
+        try{
             line = getFirstNonEmptyLine(reader);
 
             if (line  != null) {
@@ -118,40 +413,60 @@ public class Level {
 
             board = new Cell[getSize()][getSize()];
 
+            //The requirements of the board are checked while it is read, so it is traversed only once.
             for (int row = 0; row < getSize(); row++) {
-                char[] rowChar = Objects.requireNonNull(getFirstNonEmptyLine(reader)).toCharArray();
-                for (int column = 0; column < getSize(); column++) {
-                    board[row][column] = CellFactory.getCellInstance(row, column,
-                            Objects.requireNonNull(CellType.map2CellType(rowChar[column])));
+                line = getFirstNonEmptyLine(reader);
+                if (line == null || line.length() < getSize()) {
+                    throw new LevelException(LevelException.ERROR_PARSING_LEVEL_FILE);
                 }
-            }
 
-        }catch (IllegalArgumentException | IOException e){
-            throw new LevelException(LevelException.ERROR_PARSING_LEVEL_FILE);
-        }
-
-        //Check if there is one starting cell, one finish cell and, at least, any other type of cell.
-        for(var j =0; j<getSize(); j++){
+                for (int column = 0; column < getSize(); column++) {
+                    CellType type = CellType.map2CellType(line.charAt(column));
+                    if (type == null) {
+                        throw new LevelException(LevelException.ERROR_PARSING_LEVEL_FILE);
+                    }
 
-            if(getCell(new Coordinate(getSize()-1,j)).getType() == CellType.START){
-                isStarting = true;
-            }
+                    if (type == CellType.START) {
+                        numStarting++;
+                        isStarting |= row == getSize() - 1;
+                    } else if (type == CellType.FINISH) {
+                        numFinish++;
+                        isFinish |= row == 0;
+                    }
 
-            if(getCell(new Coordinate(0,j)).getType() == CellType.FINISH){
-                isFinish = true;
+                    board[row][column] = CellFactory.getCellInstance(row, column, type);
+                    hasRoad |= board[row][column].isMovable() || board[row][column].isRotatable();
+                }
             }
-        }
 
-        //Checks if there are more than one starting cell
-        if(Stream.of(board).flatMap(Arrays::stream).filter(x -> x.getType() == CellType.START).count()>1){
+        }catch (IllegalArgumentException | IOException e){
             throw new LevelException(LevelException.ERROR_PARSING_LEVEL_FILE);
         }
 
-        //Checks if there are more than one finish cell
-        if(Stream.of(board).flatMap(Arrays::stream).filter(x -> x.getType() == CellType.FINISH).count()>1){
+        checkRequirements(numStarting, numFinish, isStarting, isFinish, hasRoad);
+        resetPath();
+        boardHash = computeBoardHash();
+    }
+
+    /**
+     * Checks which the board's requirements are met. The data is collected while the board is filled,
+     * so that the board is traversed only once.
+     *
+     * @param numStarting Number of starting cells in the board.
+     * @param numFinish Number of finish cells in the board.
+     * @param isStarting True if there is a starting cell in the last row.
+     * @param isFinish True if there is a finish cell in the first row.
+     * @param hasRoad True if there is a movable or rotatable cell.
+     * @throws LevelException When some board's requirement is not satisfied.
+     */
+    private void checkRequirements(int numStarting, int numFinish, boolean isStarting, boolean isFinish,
+                                   boolean hasRoad) throws LevelException {
+        //Checks if there are more than one starting cell or more than one finish cell
+        if(numStarting > 1 || numFinish > 1){
             throw new LevelException(LevelException.ERROR_PARSING_LEVEL_FILE);
         }
 
+        //Check if there is one starting cell in the last row and one finish cell in the first row.
         if(!isStarting){
             throw new LevelException(LevelException.ERROR_NO_STARTING);
         }
@@ -161,10 +476,9 @@ public class Level {
         }
 
         //Checks if there is one road (i.e. movable or rotatable cell) at least.
-        if(Stream.of(board).flatMap(Arrays::stream).noneMatch(x -> x.isMovable() || x.isRotatable())){
+        if(!hasRoad){
             throw new LevelException(LevelException.ERROR_NO_ROAD);
         }
-
     }
 
     /**
@@ -219,152 +533,563 @@ public class Level {
     }
 
     public void swapCells(Coordinate firstCoord, Coordinate secondCoord) throws LevelException {
+        if (concurrent) {
+            lockRows(firstCoord.getRow(), secondCoord.getRow());
+            try {
+                applySwap(firstCoord, secondCoord);
+            } finally {
+                unlockRows(firstCoord.getRow(), secondCoord.getRow());
+            }
+        } else {
+            applySwap(firstCoord, secondCoord);
+        }
+    }
 
+    public void rotateCell(Coordinate coord) throws LevelException {
+        if (concurrent) {
+            lockRows(coord.getRow(), coord.getRow());
+            try {
+                applyRotation(coord);
+            } finally {
+                unlockRows(coord.getRow(), coord.getRow());
+            }
+        } else {
+            applyRotation(coord);
+        }
+    }
+
+    /**
+     * Swaps the cells of the given coordinates if both are movable. In concurrent mode, the locks of their rows
+     * must be held.
+     *
+     * @param firstCoord Coordinate of the first cell.
+     * @param secondCoord Coordinate of the second cell.
+     * @throws LevelException When any cell is not movable.
+     */
+    private void applySwap(Coordinate firstCoord, Coordinate secondCoord) throws LevelException {
         Cell cell1 = board[firstCoord.getRow()][firstCoord.getColumn()];
         Cell cell2 = board[secondCoord.getRow()][secondCoord.getColumn()];
         if (cell1.isMovable() && cell2.isMovable()) {
-
-            MovableCell cellMov1 = (MovableCell)  cell1;
-            cellMov1.move(secondCoord);
-
-            MovableCell cellMov2 = (MovableCell)  cell2;
-            cellMov2.move(firstCoord);
-
-            setCell(firstCoord,cellMov2);
-            setCell(secondCoord,cellMov1);
-            numMoves += 1;
+            int first = firstCoord.getRow() * size + firstCoord.getColumn();
+            int second = secondCoord.getRow() * size + secondCoord.getColumn();
+            swapPositions(first, second);
+            countMove(encodeMove(first, second));
         } else {
             throw new LevelException(LevelException.ERROR_NO_MOVABLE_CELL);
         }
     }
 
 
-    public void rotateCell(Coordinate coord) throws LevelException {
+    /**
+     * Rotates the cell of the given coordinate if it is rotatable. In concurrent mode, the lock of its row
+     * must be held.
+     *
+     * @param coord Coordinate of the cell.
+     * @throws LevelException When the cell is not rotatable.
+     */
+    private void applyRotation(Coordinate coord) throws LevelException {
         Cell cell = board[coord.getRow()][coord.getColumn()];
         if(cell.isRotatable()){
-            RotatableCell cellRot = (RotatableCell) cell;
-            cellRot.rotate();
-            numMoves +=1;
+            int position = coord.getRow() * size + coord.getColumn();
+            rotatePosition(position, 1);
+            countMove(encodeMove(position, ROTATION));
         }else{
             throw new LevelException(LevelException.ERROR_NO_ROTATABLE_CELL);
         }
     }
 
-    public boolean isSolved(){
-        // find s
-        Cell start = null;
-        int row = size-1;
-        for (int col = 0; col < size; col++){
-            Cell cell =  board[row][col];
-            if (cell.getType().getFileSymbol()=='S'){
-                start = cell;
+    /**
+     * Undoes the last move (swap or rotation) that was made or redone. The number of moves is decreased.
+     *
+     * @return True if a move has been undone. False, if there was no move to undo.
+     */
+    public boolean undo() {
+        if (concurrent) {
+            lockAll();
+            try {
+                return undoMove();
+            } finally {
+                unlockAll();
             }
         }
+        return undoMove();
+    }
 
-        //condiciones de salida: itera en el bucle mientras haya direcciones a explorar y no encuentre la meta
-        boolean options = true;
-        int nextRow;
-        int nextCol;
-
-        Cell current = start;
-        Cell previous = null;
-
-        while(options) {
-
-            EnumSet<Direction> directions = current.getType().getAvailableConnections();
-            options = false;
-            for (Direction direction : directions) {
-                nextRow = current.getCoordinate().getRow() + direction.getDRow();
-                nextCol = current.getCoordinate().getColumn() + direction.getDColumn();
-                //valida que la cordenada de la celda que quiero explorar esta en el tablero
-                if (validatePosition(new Coordinate(nextRow, nextCol))) {
-                    Cell nextCell = board[nextRow][nextCol];
-                    //comprueba que puedo ir desde la cell a la nextcell en esa direccion
-                    if (!nextCell.equals(previous) && checkPath(current, nextCell, direction)) {
-                        if (nextCell.getType().getFileSymbol() == 'F') {
-                            return true;
-                        } else {
-                            //en previus guardo de donde vengo para comprobar que no vuelvo atras
-                            previous = current;
-                            current = nextCell;
-                            options = true;
-                        }
-                    }
-                }
+    /**
+     * Undoes the last move. In concurrent mode, all the locks must be held.
+     *
+     * @return True if a move has been undone. False, if there was no move to undo.
+     */
+    private boolean undoMove() {
+        if (concurrent) {
+            syncJournal();
+        }
+        if (numUndoable == 0) {
+            return false;
+        }
+
+        journalTop = (journalTop + JOURNAL_CAPACITY - 1) % JOURNAL_CAPACITY;
+        int entry = journal[journalTop];
+        int first = entry >>> 16;
+        int second = entry & ROTATION;
+
+        if (second == ROTATION) {
+            //The inverse of a rotation is the rotation which leads to the current type, i.e. the rest of the cycle.
+            CellType current = board[first / size][first % size].getType();
+            int turns = 0;
+            for (CellType type = current.next(); type != current; type = type.next()) {
+                turns++;
+            }
+            rotatePosition(first, turns);
+        } else {
+            swapPositions(first, second);
+        }
+
+        numMoves -= 1;
+        numUndoable--;
+        numRedoable++;
+        if (concurrent) {
+            concurrentMoves.set(numMoves);
+        }
+        return true;
+    }
+
+    /**
+     * Redoes the last move that was undone. The number of moves is increased.
+     * Any new move discards the moves that could be redone.
+     *
+     * @return True if a move has been redone. False, if there was no move to redo.
+     */
+    public boolean redo() {
+        if (concurrent) {
+            lockAll();
+            try {
+                return redoMove();
+            } finally {
+                unlockAll();
+            }
+        }
+        return redoMove();
+    }
+
+    /**
+     * Redoes the last move that was undone. In concurrent mode, all the locks must be held.
+     *
+     * @return True if a move has been redone. False, if there was no move to redo.
+     */
+    private boolean redoMove() {
+        if (concurrent) {
+            syncJournal();
+        }
+        if (numRedoable == 0) {
+            return false;
+        }
+
+        int entry = journal[journalTop];
+        int first = entry >>> 16;
+        int second = entry & ROTATION;
+
+        if (second == ROTATION) {
+            rotatePosition(first, 1);
+        } else {
+            swapPositions(first, second);
+        }
+
+        journalTop = (journalTop + 1) % JOURNAL_CAPACITY;
+        numMoves += 1;
+        numUndoable++;
+        numRedoable--;
+        if (concurrent) {
+            concurrentMoves.set(numMoves);
+        }
+        return true;
+    }
+
+    /**
+     * Swaps the movable cells of two positions of the board and updates the path and the hash.
+     *
+     * @param first Position (row * size + column) of the first cell.
+     * @param second Position (row * size + column) of the second cell.
+     */
+    private void swapPositions(int first, int second) {
+        MovableCell cell1 = (MovableCell) board[first / size][first % size];
+        MovableCell cell2 = (MovableCell) board[second / size][second % size];
+        Coordinate firstCoord = cell1.getCoordinate();
+
+        beginWrite();
+        cell1.move(cell2.getCoordinate());
+        cell2.move(firstCoord);
+
+        board[first / size][first % size] = cell2;
+        board[second / size][second % size] = cell1;
+        byte type = cells[first];
+        cells[first] = cells[second];
+        cells[second] = type;
+        endWrite();
+
+        if (!concurrent) {
+            int type1 = cell1.getType().ordinal();
+            int type2 = cell2.getType().ordinal();
+            boardHash ^= ZobristTable.getKey(first, type1) ^ ZobristTable.getKey(second, type1)
+                    ^ ZobristTable.getKey(first, type2) ^ ZobristTable.getKey(second, type2);
+            updatePath(first, second);
+        }
+    }
+
+    /**
+     * Rotates the rotatable cell of a position of the board and updates the path and the hash once.
+     *
+     * @param position Position (row * size + column) of the cell.
+     * @param turns Number of rotations.
+     */
+    private void rotatePosition(int position, int turns) {
+        RotatableCell cell = (RotatableCell) board[position / size][position % size];
+        int oldType = cell.getType().ordinal();
+        beginWrite();
+        for (int i = 0; i < turns; i++) {
+            cell.rotate();
+        }
+        cells[position] = (byte) cell.getType().ordinal();
+        endWrite();
+
+        if (!concurrent) {
+            boardHash ^= ZobristTable.getKey(position, oldType) ^ ZobristTable.getKey(position, cell.getType().ordinal());
+            updatePath(position, -1);
+        }
+    }
+
+    /**
+     * Encodes a move in a single int: the first position in the 16 high bits and the second one in the 16 low bits.
+     * The size of the board is at most {@link LevelPack#MAX_LEVEL_SIZE}, so every position is lower than {@link #ROTATION}.
+     *
+     * @param first Position of the first cell.
+     * @param second Position of the second cell, or {@link #ROTATION} if the move is a rotation.
+     * @return Encoded move.
+     */
+    private static int encodeMove(int first, int second) {
+        return (first << 16) | second;
+    }
+
+    /**
+     * Increases the number of moves and writes the move in the journal.
+     * <br/>
+     * In concurrent mode, the move claims the next entry of the journal atomically, while it holds the locks
+     * of its rows. Two moves which share a row claim their entries in the same order as they change the board,
+     * and two moves which do not share any row commute, so the journal is always a valid order to undo the moves.
+     * "journalTop" only changes while the whole level is locked, so it is stable while the move holds its locks.
+     *
+     * @param entry Encoded move.
+     */
+    private void countMove(int entry) {
+        if (concurrent) {
+            concurrentMoves.incrementAndGet();
+            long claimed = claimedEntries.getAndIncrement();
+            journal[(int) ((journalTop + claimed) % JOURNAL_CAPACITY)] = entry;
+        } else {
+            numMoves += 1;
+            recordMove(entry);
+        }
+    }
+
+    /**
+     * Brings the number of moves and the state of the journal up to date with the moves which have been made
+     * in concurrent mode. The whole level must be locked (or it must not be used by other threads).
+     */
+    private void syncJournal() {
+        numMoves = concurrentMoves.get();
+        long claimed = claimedEntries.getAndSet(0);
+        if (claimed > 0) {
+            journalTop = (int) ((journalTop + claimed) % JOURNAL_CAPACITY);
+            numUndoable = (int) Math.min(numUndoable + claimed, JOURNAL_CAPACITY);
+            numRedoable = 0;
+        }
+    }
+
+    /**
+     * Marks the start of a change of the board in concurrent mode, so that the readers of the seqlock retry.
+     */
+    private void beginWrite() {
+        if (concurrent) {
+            writesStarted.incrementAndGet();
+        }
+    }
+
+    /**
+     * Marks the end of a change of the board in concurrent mode.
+     */
+    private void endWrite() {
+        if (concurrent) {
+            writesFinished.incrementAndGet();
+        }
+    }
+
+    /**
+     * Locks the rows of a move in concurrent mode. The stripes are always locked in ascending order,
+     * so two moves cannot wait for each other.
+     *
+     * @param firstRow Row of the first cell.
+     * @param secondRow Row of the second cell (the same one for a rotation).
+     */
+    private void lockRows(int firstRow, int secondRow) {
+        int first = Math.floorMod(firstRow, NUM_STRIPES);
+        int second = Math.floorMod(secondRow, NUM_STRIPES);
+        stripes[Math.min(first, second)].lock();
+        if (first != second) {
+            stripes[Math.max(first, second)].lock();
+        }
+    }
+
+    /**
+     * Unlocks the rows of a move in concurrent mode.
+     *
+     * @param firstRow Row of the first cell.
+     * @param secondRow Row of the second cell (the same one for a rotation).
+     */
+    private void unlockRows(int firstRow, int secondRow) {
+        int first = Math.floorMod(firstRow, NUM_STRIPES);
+        int second = Math.floorMod(secondRow, NUM_STRIPES);
+        if (first != second) {
+            stripes[Math.max(first, second)].unlock();
+        }
+        stripes[Math.min(first, second)].unlock();
+    }
+
+    /**
+     * Locks all the rows in concurrent mode, i.e. the whole level: no move can be in progress.
+     */
+    private void lockAll() {
+        for (ReentrantLock stripe : stripes) {
+            stripe.lock();
+        }
+    }
+
+    /**
+     * Unlocks all the rows in concurrent mode.
+     */
+    private void unlockAll() {
+        for (int i = NUM_STRIPES - 1; i >= 0; i--) {
+            stripes[i].unlock();
+        }
+    }
+
+    /**
+     * Returns the ordinals of the cell types of the board in row-major order.
+     * <br/>
+     * In concurrent mode, the board is read optimistically: the read is valid if no change of the board
+     * has started nor finished meanwhile (seqlock). After MAX_OPTIMISTIC_READS invalid reads, the board is
+     * read with all the locks, so the readers cannot starve.
+     *
+     * @return Consistent snapshot of the board.
+     */
+    byte[] snapshotCells() {
+        byte[] cells = new byte[size * size];
+        if (!concurrent) {
+            readCells(cells);
+            return cells;
+        }
+
+        for (int attempt = 0; attempt < MAX_OPTIMISTIC_READS; attempt++) {
+            long version = writesFinished.get();
+            if (writesStarted.get() != version) {
+                //A change of the board is in progress.
+                Thread.onSpinWait();
+                continue;
+            }
+
+            readCells(cells);
+            //The reads of the board must not be reordered after the validation.
+            VarHandle.acquireFence();
+            if (writesStarted.get() == version) {
+                return cells;
+            }
+        }
+
+        lockAll();
+        try {
+            readCells(cells);
+        } finally {
+            unlockAll();
+        }
+        return cells;
+    }
+
+    /**
+     * Reads the ordinals of the cell types of the board in row-major order, without any synchronization.
+     *
+     * @param cells Array in which the ordinals are written.
+     */
+    private void readCells(byte[] cells) {
+        for (int row = 0; row < size; row++) {
+            for (int column = 0; column < size; column++) {
+                cells[row * size + column] = (byte) board[row][column].getType().ordinal();
             }
         }
-        return false;
     }
 
-    private boolean checkPath(Cell current, Cell next, Direction direction){
-         if ( current.getType().getFileSymbol() =='S' && direction == Direction.UP
-                 && Arrays.asList('F', 'V','l','r','G').contains(next.getType().getFileSymbol())){
-             return true;
-         }
+    /**
+     * Writes a new move in the journal. The moves that could be redone are discarded.
+     *
+     * @param entry Encoded move.
+     */
+    private void recordMove(int entry) {
+        journal[journalTop] = entry;
+        journalTop = (journalTop + 1) % JOURNAL_CAPACITY;
+        numUndoable = Math.min(numUndoable + 1, JOURNAL_CAPACITY);
+        numRedoable = 0;
+    }
 
-        if( current.getType().getFileSymbol() == 'l' && direction == Direction.DOWN
-                && Arrays.asList('F', 'G','V','R','L').contains(next.getType().getFileSymbol())){
-            return true;
+    /**
+     * Returns a 64-bit fingerprint of the board, e.g. the key of a cache of board states. Two levels with the same
+     * board have the same hash, whatever the moves that led to it. Different boards have different hashes with
+     * a very high probability, but a collision is possible.
+     * <br/>
+     * It is a Zobrist hash (see {@link ZobristTable}), which is updated in constant time by each move, so this method
+     * takes constant time. In concurrent mode, the hash of a consistent snapshot of the board is computed.
+     *
+     * @return Hash of the board.
+     */
+    public long getBoardHash() {
+        if (concurrent) {
+            return ZobristTable.hash(snapshotCells());
         }
+        return boardHash;
+    }
 
-         if( current.getType().getFileSymbol() == 'l' && direction == Direction.LEFT
-                 && Arrays.asList('F', 'R','r','g','H').contains(next.getType().getFileSymbol())){
-             return true;
-         }
+    /**
+     * Computes the hash of the board from scratch.
+     *
+     * @return Zobrist hash of the board.
+     */
+    private long computeBoardHash() {
+        byte[] cells = new byte[size * size];
+        readCells(cells);
+        return ZobristTable.hash(cells);
+    }
 
-         if(current.getType().getFileSymbol() =='R' && direction == Direction.UP
-                 && Arrays.asList('F','V','l','r','G').contains(next.getType().getFileSymbol())){
-            return true;
+    /**
+     * Checks if the level is solved, i.e. there is a path from the starting cell to the finish cell.
+     * <br/>
+     * The path is not walked again: it is kept up to date by {@link #swapCells(Coordinate, Coordinate)}
+     * and {@link #rotateCell(Coordinate)}, so this check takes constant time. In concurrent mode,
+     * the path is walked on a consistent snapshot of the board.
+     *
+     * @return True if the starting cell and the finish cell are connected. Otherwise, false.
+     */
+    public boolean isSolved(){
+        if (concurrent) {
+            return CompactLevel.isSolved(snapshotCells(), size);
+        }
+        return solved;
+    }
+
+    /**
+     * Builds the path from scratch, i.e. it finds the starting cell and walks the path from it.
+     */
+    private void resetPath(){
+        cells = new byte[size * size];
+        readCells(cells);
+        path = new int[size * size];
+        pathIndex = new int[size * size];
+        Arrays.fill(pathIndex, -1);
+        pathLength = 0;
+        solved = false;
+
+        int row = size - 1;
+        for (int j = 0; j < size; j++) {
+            if (board[row][j].getType() == CellType.START) {
+                path[0] = row * size + j;
+                pathIndex[path[0]] = 0;
+                pathLength = 1;
+            }
         }
 
-        if(current.getType().getFileSymbol() =='R' && direction == Direction.RIGHT
-                && Arrays.asList('F','l','L','H','g').contains(next.getType().getFileSymbol())){
-            return true;
+        extendPath();
+    }
+
+    /**
+     * Updates the path after the cells in the given positions have changed.
+     * <br/>
+     * If any changed cell belongs to the path, the path is cut just before the first changed cell.
+     * Then, the path is extended from its last cell. Therefore, the cost is proportional
+     * to the part of the path that is affected by the move instead of the whole path.
+     *
+     * @param first Position (row * size + column) of a changed cell.
+     * @param second Position (row * size + column) of another changed cell, or -1 if there is only one.
+     */
+    private void updatePath(int first, int second){
+        int cut = pathLength;
+
+        if (pathIndex[first] >= 0) {
+            cut = pathIndex[first];
         }
 
-        if(current.getType().getFileSymbol() =='L' && direction == Direction.UP
-                && Arrays.asList('F','l','r','V','G').contains(next.getType().getFileSymbol())){
-            return true;
+        if (second >= 0 && pathIndex[second] >= 0) {
+            cut = Math.min(cut, pathIndex[second]);
         }
 
-        if(current.getType().getFileSymbol() =='L' && direction == Direction.LEFT
-                && Arrays.asList('F','r','H','g','R').contains(next.getType().getFileSymbol())){
-            return true;
+        if (cut == 0) {
+            //The starting cell has changed (it cannot be moved nor rotated, but just in case).
+            resetPath();
+            return;
         }
 
-        if((current.getType().getFileSymbol() =='H' ||current.getType().getFileSymbol() =='g') && (direction == Direction.RIGHT)
-                && Arrays.asList('F','L','l','g','H').contains(next.getType().getFileSymbol())){
-            return true;
+        for (int i = cut; i < pathLength; i++) {
+            pathIndex[path[i]] = -1;
         }
 
-        if((current.getType().getFileSymbol() =='H' ||current.getType().getFileSymbol() =='g') && (direction == Direction.LEFT)
-                && Arrays.asList('F','R','r','g','H').contains(next.getType().getFileSymbol())){
-            return true;
+        if (cut < pathLength) {
+            pathLength = cut;
+            solved = false;
         }
 
+        extendPath();
+    }
 
-        if((current.getType().getFileSymbol() =='V' ||current.getType().getFileSymbol() =='G') && (direction == Direction.UP)
-                && Arrays.asList('F','l','r','G','V').contains(next.getType().getFileSymbol())){
-            return true;
+    /**
+     * Extends the path from its last cell with {@link CompactLevel#walk(byte[], int, int, int, int[], int)}, so that
+     * each step is resolved in constant time and no object is created during the walk.
+     * If the path reaches the finish cell, the level is solved.
+     */
+    private void extendPath(){
+        if (pathLength == 0 || solved) {
+            return;
         }
 
-        if((current.getType().getFileSymbol() =='V' ||current.getType().getFileSymbol() =='G') && (direction == Direction.DOWN)
-                && Arrays.asList('F','L','R','G','V').contains(next.getType().getFileSymbol())){
-            return true;
+        int position = path[pathLength - 1];
+
+        //Index of the direction in which the path entered its last cell (up for the starting cell).
+        int entered = Direction.UP.ordinal();
+        if (pathLength > 1) {
+            int diff = position - path[pathLength - 2];
+            if (diff == -size) {
+                entered = Direction.UP.ordinal();
+            } else if (diff == size) {
+                entered = Direction.DOWN.ordinal();
+            } else if (diff == 1) {
+                entered = Direction.RIGHT.ordinal();
+            } else {
+                entered = Direction.LEFT.ordinal();
+            }
         }
 
-        if((current.getType().getFileSymbol() =='r') && (direction == Direction.RIGHT)
-                && Arrays.asList('F','L','g','H','l').contains(next.getType().getFileSymbol())){
-            return true;
+        int end = CompactLevel.walk(cells, size, position * ConnectionTable.NUM_DIRECTIONS + entered, -1,
+                path, pathLength) / ConnectionTable.NUM_DIRECTIONS;
+
+        //The walk has written the positions of the new cells after the last one.
+        while (path[pathLength - 1] != end) {
+            pathIndex[path[pathLength]] = pathLength;
+            pathLength++;
         }
 
-        return (current.getType().getFileSymbol() == 'r') && (direction == Direction.DOWN)
-                && Arrays.asList('F', 'G', 'V', 'L', 'R').contains(next.getType().getFileSymbol());
+        solved = cells[end] == CellType.FINISH.ordinal();
     }
+
     @Override
     public String toString() {
 
         StringBuilder output = new StringBuilder();
+        //In concurrent mode, the board may change while it is printed, so a snapshot is printed instead.
+        byte[] cells = concurrent ? snapshotCells() : null;
 
         for(int row=0; row < getSize(); row++) {
             output.append(row + 1);
@@ -376,8 +1101,8 @@ public class Level {
             output.append(letra).append("|");
             letra +=1;
             for (int col = 0; col < getSize(); col++) {
-                Cell cell = board[row][col];
-                output.append(cell.getType().getUnicodeRepresentation());
+                CellType type = cells != null ? TYPES[cells[row * getSize() + col]] : board[row][col].getType();
+                output.append(type.getUnicodeRepresentation());
             }
             output.append(System.lineSeparator());
         }
@@ -9,7 +9,7 @@ public class LevelException extends Exception {
      * Constants that represent the messages of the exception.
     */
     public static final String ERROR_PARSING_LEVEL_FILE = "[ERROR] There was an error while loading the current level file!!";
-    public static final String ERROR_BOARD_SIZE = "[ERROR] Board's size must be greater than 2!!";
+    public static final String ERROR_BOARD_SIZE = "[ERROR] Board's size must be greater than 2 and not greater than " + LevelPack.MAX_LEVEL_SIZE + "!!";
     public static final String ERROR_COORDINATE = "[ERROR] This coordinate is incorrect!!";
     public static final String ERROR_NO_STARTING = "[ERROR] This level does not have any starting cell!!";
     public static final String ERROR_NO_FINISH = "[ERROR] This level does not have any finish cell!!";
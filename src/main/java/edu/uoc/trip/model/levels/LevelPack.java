@@ -0,0 +1,229 @@
+package edu.uoc.trip.model.levels;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Pack of levels stored in a single binary file, which is read through a memory-mapped buffer.
+ * <br/>
+ * Format of the file (big-endian):
+ * <ul>
+ *     <li>Header: magic number {@link #MAGIC} (4 bytes), version {@link #VERSION} (2 bytes),
+ *     reserved (2 bytes) and number of levels N (4 bytes).</li>
+ *     <li>Offset index: N offsets (8 bytes each), i.e. the position of each level in the file.</li>
+ *     <li>Levels: for each level, its size (1 byte), the ordinal of its difficulty (1 byte) and its board,
+ *     where each cell is the ordinal of its CellType in 4 bits (a nibble). The cells are stored in
+ *     row-major order and the first cell of each byte is in the high nibble.</li>
+ * </ul>
+ * The levels are not read when the pack is opened: each one is decoded from the mapped file when it is requested,
+ * so opening a pack with thousands of levels is as fast as opening a small one.
+ *
+ * @author Estela Madariaga
+ * @version 1.0
+ */
+public class LevelPack {
+
+    /**
+     * Magic number of the pack files, i.e. "TRPK" in ASCII.
+     */
+    public static final int MAGIC = 0x5452504B;
+
+    /**
+     * Version of the format.
+     */
+    public static final short VERSION = 1;
+
+    /**
+     * Size of the header in bytes.
+     */
+    private static final int HEADER_SIZE = 12;
+
+    /**
+     * Maximum size of a board, since the size of each level is stored in 1 byte.
+     */
+    public static final int MAX_LEVEL_SIZE = 0xFF;
+
+    /**
+     * Size of each entry of the offset index in bytes.
+     */
+    private static final int OFFSET_SIZE = Long.BYTES;
+
+    /**
+     * Difficulties indexed by their ordinal.
+     */
+    private static final LevelDifficulty[] DIFFICULTIES = LevelDifficulty.values();
+
+    /**
+     * Mapped content of the file. It is only read with absolute methods, so it can be shared by several threads.
+     */
+    private final ByteBuffer buffer;
+
+    /**
+     * Number of levels of the pack.
+     */
+    private final int numLevels;
+
+    /**
+     * Constructor.
+     *
+     * @param buffer Content of the pack.
+     * @throws IOException When the content is not a valid pack.
+     */
+    private LevelPack(ByteBuffer buffer) throws IOException {
+        if (buffer.limit() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IOException("It is not a level pack");
+        }
+
+        if (buffer.getShort(4) != VERSION) {
+            throw new IOException("Unsupported version of level pack: " + buffer.getShort(4));
+        }
+
+        numLevels = buffer.getInt(8);
+        if (numLevels < 0 || HEADER_SIZE + (long) numLevels * OFFSET_SIZE > buffer.limit()) {
+            throw new IOException("The offset index of the level pack is truncated");
+        }
+
+        this.buffer = buffer;
+    }
+
+    /**
+     * Opens a pack by mapping its file into memory.
+     *
+     * @param file Path of the pack file.
+     * @return Pack of levels.
+     * @throws IOException When the file cannot be mapped or it is not a valid pack.
+     */
+    public static LevelPack open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("The level pack is too big to be mapped: " + channel.size() + " bytes");
+            }
+            //The mapping stays valid after the channel is closed.
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new LevelPack(mapped);
+        }
+    }
+
+    /**
+     * Writes the given levels into a pack file (their current state, not necessarily the initial one).
+     *
+     * @param levels Levels to write.
+     * @param file Path of the pack file. If it exists, it is overwritten.
+     * @throws IOException When the file cannot be written or the size of a level is greater than {@link #MAX_LEVEL_SIZE}.
+     */
+    public static void write(List<CompactLevel> levels, Path file) throws IOException {
+        long length = HEADER_SIZE + (long) levels.size() * OFFSET_SIZE;
+        for (CompactLevel level : levels) {
+            if (level.getSize() > MAX_LEVEL_SIZE) {
+                throw new IOException("The size of a level cannot be stored in a pack: " + level.getSize()
+                        + " (maximum " + MAX_LEVEL_SIZE + ")");
+            }
+            length += recordSize(level.getSize());
+        }
+
+        if (length > Integer.MAX_VALUE) {
+            throw new IOException("Too many levels for a single pack: " + length + " bytes");
+        }
+
+        ByteBuffer out = ByteBuffer.allocate((int) length);
+        out.putInt(MAGIC).putShort(VERSION).putShort((short) 0).putInt(levels.size());
+
+        long offset = HEADER_SIZE + (long) levels.size() * OFFSET_SIZE;
+        for (CompactLevel level : levels) {
+            out.putLong(offset);
+            offset += recordSize(level.getSize());
+        }
+
+        for (CompactLevel level : levels) {
+            byte[] cells = level.toByteArray();
+            out.put((byte) level.getSize());
+            out.put((byte) level.getDifficulty().ordinal());
+            for (int i = 0; i < cells.length; i += 2) {
+                int high = cells[i] << 4;
+                int low = i + 1 < cells.length ? cells[i + 1] : 0;
+                out.put((byte) (high | low));
+            }
+        }
+
+        out.flip();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (out.hasRemaining()) {
+                channel.write(out);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of bytes of a level of the given size.
+     *
+     * @param size Size of the board, i.e. size x size.
+     * @return Size of the record: size, difficulty and the board (two cells per byte).
+     */
+    private static int recordSize(int size) {
+        return 2 + (size * size + 1) / 2;
+    }
+
+    /**
+     * Returns the number of levels of the pack.
+     *
+     * @return Number of levels.
+     */
+    public int size() {
+        return numLevels;
+    }
+
+    /**
+     * Decodes the level in the given position of the pack. The cells are decoded from the mapped file
+     * directly into the board of the new level.
+     *
+     * @param index Position of the level in the pack (the first one is 0).
+     * @return Compact level in its initial state.
+     * @throws IndexOutOfBoundsException When the index is not in the range [0, size()).
+     * @throws LevelException When the level is corrupted.
+     */
+    public CompactLevel getCompactLevel(int index) throws LevelException {
+        if (index < 0 || index >= numLevels) {
+            throw new IndexOutOfBoundsException("Level " + index + " is not in the pack (size " + numLevels + ")");
+        }
+
+        long offset = buffer.getLong(HEADER_SIZE + index * OFFSET_SIZE);
+        if (offset < 0 || offset + 2 > buffer.limit()) {
+            throw new LevelException(LevelException.ERROR_PARSING_LEVEL_FILE);
+        }
+
+        int position = (int) offset;
+        int size = buffer.get(position) & 0xFF;
+        int difficulty = buffer.get(position + 1) & 0xFF;
+        if (difficulty >= DIFFICULTIES.length || position + recordSize(size) > buffer.limit()) {
+            throw new LevelException(LevelException.ERROR_PARSING_LEVEL_FILE);
+        }
+
+        byte[] cells = new byte[size * size];
+        position += 2;
+        for (int i = 0; i < cells.length; i++) {
+            int packed = buffer.get(position + i / 2);
+            cells[i] = (byte) ((i % 2 == 0 ? packed >> 4 : packed) & 0x0F);
+        }
+
+        //The constructor rejects the nibbles which are not the ordinal of any cell type.
+        return new CompactLevel(size, DIFFICULTIES[difficulty], cells);
+    }
+
+    /**
+     * Builds the level in the given position of the pack.
+     *
+     * @param index Position of the level in the pack (the first one is 0).
+     * @return Level in its initial state.
+     * @throws IndexOutOfBoundsException When the index is not in the range [0, size()).
+     * @throws LevelException When the level is corrupted or some board's requirement is not satisfied.
+     */
+    public Level getLevel(int index) throws LevelException {
+        return new Level(getCompactLevel(index));
+    }
+}
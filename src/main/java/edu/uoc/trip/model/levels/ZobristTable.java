@@ -0,0 +1,91 @@
+package edu.uoc.trip.model.levels;
+
+import edu.uoc.trip.model.cells.CellType;
+
+/**
+ * Random keys of Zobrist hashing, i.e. a 64-bit fingerprint of a board.
+ * <br/>
+ * Each pair (cell position, cell type) has a random key, and the hash of a board is the XOR of the keys of its cells.
+ * Therefore, a move only changes the keys of the cells it changes: a swap of two cells or a rotation updates the hash
+ * in constant time by XOR-ing the keys of the old and the new types of those cells.
+ * <br/>
+ * The keys are derived from the pair with the SplitMix64 mixing function, so they are the same in every run (the hashes
+ * can be stored) and there is no limit in the size of the board. The keys of the boards up to
+ * TABLE_SIZE x TABLE_SIZE are precomputed.
+ *
+ * @author Estela Madariaga
+ * @version 1.0
+ */
+public final class ZobristTable {
+
+    /**
+     * Number of cell types, i.e. number of values of the enumeration CellType.
+     */
+    private static final int NUM_TYPES = CellType.values().length;
+
+    /**
+     * Size of the largest board whose keys are precomputed.
+     */
+    private static final int TABLE_SIZE = 16;
+
+    /**
+     * Seed of the keys.
+     */
+    private static final long SEED = 0x5452495050554A4CL;
+
+    /**
+     * Precomputed keys. The key of the pair is in the position: position * NUM_TYPES + typeOrdinal.
+     */
+    private static final long[] KEYS = new long[TABLE_SIZE * TABLE_SIZE * NUM_TYPES];
+
+    static {
+        for (int i = 0; i < KEYS.length; i++) {
+            KEYS[i] = mix(i);
+        }
+    }
+
+    /**
+     * Private constructor so that this utility class is not instantiated.
+     */
+    private ZobristTable() {
+    }
+
+    /**
+     * Returns the random key of a cell type in a position of the board.
+     *
+     * @param position Position (row * size + column) of the cell.
+     * @param typeOrdinal Ordinal of the cell type.
+     * @return Key of the pair.
+     */
+    public static long getKey(int position, int typeOrdinal) {
+        int index = position * NUM_TYPES + typeOrdinal;
+        return index < KEYS.length ? KEYS[index] : mix(index);
+    }
+
+    /**
+     * Computes the hash of a board from scratch.
+     *
+     * @param cells Ordinals of the cell types of the board in row-major order.
+     * @return XOR of the keys of all the cells.
+     */
+    public static long hash(byte[] cells) {
+        long hash = 0;
+        for (int position = 0; position < cells.length; position++) {
+            hash ^= getKey(position, cells[position]);
+        }
+        return hash;
+    }
+
+    /**
+     * SplitMix64 mixing function (the one of java.util.SplittableRandom) applied to the index of a key.
+     *
+     * @param index Index of the key.
+     * @return Pseudo-random key.
+     */
+    private static long mix(int index) {
+        long z = SEED + (index + 1) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
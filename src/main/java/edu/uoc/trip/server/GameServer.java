@@ -0,0 +1,264 @@
+package edu.uoc.trip.server;
+
+import edu.uoc.trip.controller.Game;
+import edu.uoc.trip.controller.GameContext;
+import edu.uoc.trip.controller.LevelCache;
+import edu.uoc.trip.solver.HintEngine;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Headless server which hosts many players at the same time. Each connection is a {@link GameSession}
+ * with its own {@link Game}, and it speaks the line protocol of GameSession over a local socket.
+ * <br/>
+ * All the games are created by the same {@link GameContext}: the index of the levels is read once when the server
+ * is created, and the sessions share the same {@link LevelCache} (each level file is parsed once and every session
+ * gets a copy of the same pristine template) and the same {@link HintEngine}.
+ * <br/>
+ * The commands of each session are run by one task of the executor, which blocks while it waits for the
+ * next line of its player. By default, it is a thread per session with a small stack (see
+ * {@link #newSessionExecutor()}); with Java 21 or later, Executors.newVirtualThreadPerTaskExecutor()
+ * can be given to the constructor instead.
+ *
+ * @author Estela Madariaga
+ * @version 1.0
+ */
+public class GameServer implements Closeable {
+
+    /**
+     * Stack size of the threads of the default executor. The sessions only need a few frames.
+     */
+    private static final long SESSION_STACK_SIZE = 256 * 1024;
+
+    /**
+     * Maximum number of pending connections.
+     */
+    private static final int BACKLOG = 1024;
+
+    /**
+     * Resources shared by the games of all the sessions.
+     */
+    private final GameContext context;
+
+    /**
+     * Socket in which the connections are accepted.
+     */
+    private final ServerSocket serverSocket;
+
+    /**
+     * Executor in which the sessions are run.
+     */
+    private final ExecutorService executor;
+
+    /**
+     * Number of sessions which are open.
+     */
+    private final AtomicInteger activeSessions = new AtomicInteger();
+
+    /**
+     * Number of sessions which have been opened since the server started.
+     */
+    private final AtomicLong totalSessions = new AtomicLong();
+
+    /**
+     * Sockets of the open sessions, which are closed when the server is closed.
+     */
+    private final Set<Socket> sockets = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Thread which accepts the connections.
+     */
+    private Thread acceptor;
+
+    /**
+     * Constructor. The server listens on the loopback address, but it does not accept connections until it is started.
+     *
+     * @param fileFolder Folder name where the level files are.
+     * @param port Port of the server, or 0 to use any free port (see {@link #getPort()}).
+     * @param executor Executor in which the sessions are run. It is shut down when the server is closed.
+     * @throws IOException When the index of the levels cannot be read or the socket cannot be opened.
+     */
+    public GameServer(String fileFolder, int port, ExecutorService executor) throws IOException {
+        this.context = new GameContext(fileFolder);
+        this.executor = executor;
+        this.serverSocket = new ServerSocket(port, BACKLOG, InetAddress.getLoopbackAddress());
+    }
+
+    /**
+     * Creates the default executor: a new daemon thread with a small stack for each session.
+     *
+     * @return Executor of the sessions.
+     */
+    public static ExecutorService newSessionExecutor() {
+        AtomicInteger counter = new AtomicInteger();
+        return Executors.newCachedThreadPool(task -> {
+            Thread thread = new Thread(null, task, "session-" + counter.incrementAndGet(), SESSION_STACK_SIZE);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Starts accepting connections in a background thread.
+     */
+    public synchronized void start() {
+        if (acceptor != null) {
+            throw new IllegalStateException("The server has already been started");
+        }
+
+        acceptor = new Thread(this::acceptLoop, "game-server-acceptor");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    /**
+     * Accepts connections until the socket is closed.
+     */
+    private void acceptLoop() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                executor.execute(() -> serve(socket));
+            } catch (SocketException e) {
+                //The server socket has been closed.
+                return;
+            } catch (IOException | RuntimeException e) {
+                System.err.println("ERROR accepting a connection: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Runs the session of a connection until the player quits or disconnects.
+     *
+     * @param socket Socket of the connection.
+     */
+    private void serve(Socket socket) {
+        activeSessions.incrementAndGet();
+        totalSessions.incrementAndGet();
+        sockets.add(socket);
+
+        try (socket;
+             BufferedReader in = new BufferedReader(
+                     new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+             BufferedWriter out = new BufferedWriter(
+                     new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8))) {
+            GameSession session = new GameSession(context.newGame());
+
+            out.write(session.start());
+            out.newLine();
+            out.flush();
+
+            String line;
+            while (!session.isClosed() && (line = in.readLine()) != null) {
+                out.write(session.handle(line));
+                out.newLine();
+                out.flush();
+            }
+        } catch (IOException e) {
+            //The player has disconnected or the server has been closed.
+        } finally {
+            sockets.remove(socket);
+            activeSessions.decrementAndGet();
+        }
+    }
+
+    /**
+     * Returns the port in which the server listens.
+     *
+     * @return Port of the server.
+     */
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Returns the number of sessions which are open.
+     *
+     * @return Number of open sessions.
+     */
+    public int getActiveSessions() {
+        return activeSessions.get();
+    }
+
+    /**
+     * Returns the number of sessions which have been opened since the server started.
+     *
+     * @return Number of sessions.
+     */
+    public long getTotalSessions() {
+        return totalSessions.get();
+    }
+
+    /**
+     * Getter of the attribute "levelCache".
+     *
+     * @return Cache of the parsed levels shared by all the sessions.
+     */
+    public LevelCache getLevelCache() {
+        return context.getLevelCache();
+    }
+
+    /**
+     * Stops accepting connections, closes the open sessions and shuts down the executor.
+     *
+     * @throws IOException When the socket cannot be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        for (Socket socket : sockets) {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                //The session ends anyway.
+            }
+        }
+        executor.shutdownNow();
+        try {
+            executor.awaitTermination(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Entry point of the server.
+     *
+     * @param args Port (by default, 7777) and folder name where the level files are (by default, "levels/").
+     */
+    public static void main(String[] args) {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 7777;
+        String fileFolder = args.length > 1 ? args[1] : "levels/";
+
+        try {
+            GameServer server = new GameServer(fileFolder, port, newSessionExecutor());
+            server.start();
+            System.out.println("Game server listening on port " + server.getPort());
+            server.acceptor.join();
+        } catch (IOException e) {
+            System.err.println("ERROR: " + e.getMessage());
+            System.exit(1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,235 @@
+package edu.uoc.trip.server;
+
+import edu.uoc.trip.controller.Game;
+import edu.uoc.trip.model.cells.RotatableCell;
+import edu.uoc.trip.model.levels.LevelException;
+import edu.uoc.trip.model.utils.Coordinate;
+import edu.uoc.trip.solver.HintEngine;
+import edu.uoc.trip.solver.Move;
+
+/**
+ * Session of a player in the {@link GameServer}. It owns a {@link Game} and runs the commands of the line protocol,
+ * which mirrors the commands of {@link edu.uoc.trip.view.cmd.CmdApp}:
+ * <ul>
+ *     <li>"a3": if the cell is rotatable, it is rotated. Otherwise, it is selected as the first cell of a swap
+ *     and the next coordinate is the destination cell.</li>
+ *     <li>"a3 b1": swaps both cells.</li>
+ *     <li>"undo", "redo", "reload": as in the game.</li>
+ *     <li>"next": loads the next level after a level has been solved.</li>
+ *     <li>"hint": the suggested next move, i.e. "HINT a3 b1" or "HINT a3" (a rotation), or "HINT none".</li>
+ *     <li>"board": the text-based board, followed by a line "END".</li>
+ *     <li>"quit": closes the session.</li>
+ * </ul>
+ * Each command gets a single line as response (except "board"): "OK moves", "SELECTED coordinate",
+ * "SOLVED level moves", "LEVEL number difficulty size", "HINT move", "GAMEOVER", "BYE" or "ERR message".
+ * <br/>
+ * A session is not thread-safe: its commands are run one after the other by the thread of its connection.
+ *
+ * @author Estela Madariaga
+ * @version 1.0
+ */
+public class GameSession {
+
+    /**
+     * Game of the player.
+     */
+    private final Game game;
+
+    /**
+     * First cell of a swap whose destination has not been sent yet, or null.
+     */
+    private Coordinate selected;
+
+    /**
+     * It indicates if the player has sent "quit".
+     */
+    private boolean closed = false;
+
+    /**
+     * Constructor.
+     *
+     * @param game Game of the player. No level must have been loaded yet.
+     */
+    public GameSession(Game game) {
+        this.game = game;
+    }
+
+    /**
+     * Loads the first level.
+     *
+     * @return Response for the player: "LEVEL number difficulty size", "GAMEOVER" or "ERR message".
+     */
+    public String start() {
+        return handle("next");
+    }
+
+    /**
+     * Runs a command of the player.
+     *
+     * @param line Command.
+     * @return Response for the player.
+     */
+    public String handle(String line) {
+        String command = line.trim().toLowerCase();
+        try {
+            switch (command) {
+                case "undo":
+                    selected = null;
+                    return game.undo() ? ok() : error("There is no move to undo");
+                case "redo":
+                    selected = null;
+                    return game.redo() ? moved() : error("There is no move to redo");
+                case "reload":
+                    selected = null;
+                    game.reload();
+                    return ok();
+                case "next":
+                    selected = null;
+                    if (game.getCurrentLevel() > 0 && !game.isLevelSolved()) {
+                        return error("The level is not solved yet");
+                    }
+                    return game.nextLevel()
+                            ? "LEVEL " + game.getCurrentLevel() + " " + game.getDifficulty() + " " + game.getBoardSize()
+                            : "GAMEOVER";
+                case "hint":
+                    if (game.getCurrentLevel() == 0) {
+                        return error("There is no level to play");
+                    }
+                    return hint(game.getHint(HintEngine.DEFAULT_BUDGET_MILLIS));
+                case "board":
+                    if (game.getCurrentLevel() == 0) {
+                        return error("There is no level to play");
+                    }
+                    return game.getBoardText().trim() + System.lineSeparator() + "END";
+                case "quit":
+                    closed = true;
+                    return "BYE";
+                default:
+                    return move(command);
+            }
+        } catch (LevelException e) {
+            selected = null;
+            return error(e.getMessage());
+        }
+    }
+
+    /**
+     * Indicates if the player has closed the session.
+     *
+     * @return True if the player has sent "quit". Otherwise, false.
+     */
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Runs a move: one or two coordinates.
+     *
+     * @param command Command with one or two coordinates separated by spaces.
+     * @return Response for the player.
+     * @throws LevelException When a coordinate is incorrect or the move is not allowed.
+     */
+    private String move(String command) throws LevelException {
+        if (game.getCurrentLevel() == 0 || game.isLevelSolved()) {
+            return error("There is no level to play");
+        }
+
+        String[] parts = command.split("\\s+");
+        if (parts.length == 2) {
+            selected = null;
+            game.swap(coordinateFromInput(parts[0]), coordinateFromInput(parts[1]));
+            return moved();
+        } else if (parts.length != 1) {
+            return error("Unknown command: " + command);
+        }
+
+        Coordinate coord = coordinateFromInput(parts[0]);
+        if (selected != null) {
+            Coordinate first = selected;
+            selected = null;
+            game.swap(first, coord);
+            return moved();
+        } else if (game.getCell(coord) instanceof RotatableCell) {
+            game.rotate(coord);
+            return moved();
+        } else {
+            selected = coord;
+            return "SELECTED " + parts[0];
+        }
+    }
+
+    /**
+     * Response after a move: "SOLVED level moves" if the level has been solved, otherwise "OK moves".
+     *
+     * @return Response for the player.
+     * @throws LevelException When there is a level exception/problem.
+     */
+    private String moved() throws LevelException {
+        if (game.isLevelSolved()) {
+            return "SOLVED " + game.getCurrentLevel() + " " + game.getNumMoves();
+        }
+        return ok();
+    }
+
+    /**
+     * Response of a hint.
+     *
+     * @param move Suggested move, or null if there is not any.
+     * @return "HINT a3 b1", "HINT a3" or "HINT none".
+     */
+    private static String hint(Move move) {
+        if (move == null) {
+            return "HINT none";
+        }
+        return "HINT " + coordinateToInput(move.getFirst())
+                + (move.isRotation() ? "" : " " + coordinateToInput(move.getSecond()));
+    }
+
+    /**
+     * Response of a successful command.
+     *
+     * @return "OK moves".
+     */
+    private String ok() {
+        return "OK " + game.getNumMoves();
+    }
+
+    /**
+     * Response of a failed command.
+     *
+     * @param message Message of the error.
+     * @return "ERR message".
+     */
+    private static String error(String message) {
+        return "ERR " + message;
+    }
+
+    /**
+     * Transform a Coordinate object in the format of the protocol.
+     *
+     * @param coord Coordinate object.
+     * @return Coordinate with the format rowColumn, e.g. "a1".
+     */
+    private static String coordinateToInput(Coordinate coord) {
+        return "" + (char) ('a' + coord.getRow()) + (char) ('1' + coord.getColumn());
+    }
+
+    /**
+     * Transform a user input in the corresponding Coordinate object, in the same way as CmdApp.
+     *
+     * @param input User input with the format rowColumn, e.g. "a1".
+     * @return Coordinate object that corresponds to the user input.
+     * @throws LevelException When the input format or the coordinate is incorrect.
+     */
+    private Coordinate coordinateFromInput(String input) throws LevelException {
+        if (input.length() != 2) throw new LevelException(LevelException.ERROR_COORDINATE);
+
+        char y = input.charAt(0);
+        char x = input.charAt(1);
+
+        if (!(y >= 'a' && y < 'a' + game.getBoardSize()) || !(x >= '1' && x < '1' + game.getBoardSize()))
+            throw new LevelException(LevelException.ERROR_COORDINATE);
+
+        return new Coordinate(y - 'a', x - '1');
+    }
+}
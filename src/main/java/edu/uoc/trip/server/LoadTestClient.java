@@ -0,0 +1,288 @@
+package edu.uoc.trip.server;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Load-test client of the {@link GameServer}. It opens many connections at the same time and each one sends
+ * random moves ("a1 b2", rotations, undos and redos), waiting for the response of each move before sending the next one.
+ * The latency of each move (from the command to its response) is measured and its percentiles are reported.
+ * <br/>
+ * Random moves may be illegal ("ERR" responses): they are measured too, since the server does the same work.
+ *
+ * @author Estela Madariaga
+ * @version 1.0
+ */
+public class LoadTestClient {
+
+    /**
+     * Host of the server.
+     */
+    private final String host;
+
+    /**
+     * Port of the server.
+     */
+    private final int port;
+
+    /**
+     * Constructor.
+     *
+     * @param host Host of the server.
+     * @param port Port of the server.
+     */
+    public LoadTestClient(String host, int port) {
+        this.host = host;
+        this.port = port;
+    }
+
+    /**
+     * Runs the load test: each client connects, sends its moves and quits.
+     *
+     * @param numClients Number of clients, i.e. concurrent sessions.
+     * @param movesPerClient Number of moves sent by each client.
+     * @return Report with the latencies of all the moves.
+     * @throws IOException When a client cannot connect or the connection is lost.
+     */
+    public Report run(int numClients, int movesPerClient) throws IOException {
+        ExecutorService executor = Executors.newFixedThreadPool(numClients);
+        try {
+            long startTime = System.nanoTime();
+            Future<?>[] clients = new Future<?>[numClients];
+            long[][] latencies = new long[numClients][];
+            for (int i = 0; i < numClients; i++) {
+                int id = i;
+                clients[i] = executor.submit(() -> {
+                    latencies[id] = play(id, movesPerClient);
+                    return null;
+                });
+            }
+
+            long errors = 0;
+            for (Future<?> client : clients) {
+                try {
+                    client.get();
+                } catch (Exception e) {
+                    errors++;
+                }
+            }
+            if (errors > 0) {
+                throw new IOException(errors + " of " + numClients + " clients have failed");
+            }
+
+            long elapsed = System.nanoTime() - startTime;
+            return new Report(Arrays.stream(latencies).flatMapToLong(Arrays::stream).sorted().toArray(), elapsed);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Plays a session with random moves.
+     *
+     * @param id Number of the client, used as seed of its moves.
+     * @param numMoves Number of moves.
+     * @return Latency of each move in nanoseconds.
+     * @throws IOException When the connection fails.
+     */
+    private long[] play(int id, int numMoves) throws IOException {
+        SplittableRandom random = new SplittableRandom(id);
+        long[] latencies = new long[numMoves];
+
+        try (Socket socket = new Socket(host, port);
+             BufferedReader in = new BufferedReader(
+                     new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+             BufferedWriter out = new BufferedWriter(
+                     new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8))) {
+            socket.setTcpNoDelay(true);
+            int size = boardSize(in.readLine());
+
+            for (int i = 0; i < numMoves; i++) {
+                String command;
+                int action = random.nextInt(10);
+                if (action < 7) {
+                    command = cell(size, random) + " " + cell(size, random);
+                } else if (action < 8) {
+                    command = cell(size, random);
+                } else {
+                    command = action < 9 ? "undo" : "redo";
+                }
+
+                long start = System.nanoTime();
+                String response = send(in, out, command);
+                latencies[i] = System.nanoTime() - start;
+
+                if (response.startsWith("SELECTED")) {
+                    //A movable cell has been selected: the destination of the swap is sent (not measured).
+                    response = send(in, out, cell(size, random));
+                }
+                if (response.startsWith("SOLVED")) {
+                    size = nextLevel(in, out, size);
+                }
+            }
+
+            send(in, out, "quit");
+        }
+
+        return latencies;
+    }
+
+    /**
+     * Sends a command and waits for its response.
+     *
+     * @param in Reader of the connection.
+     * @param out Writer of the connection.
+     * @param command Command.
+     * @return Response of the server.
+     * @throws IOException When the connection fails.
+     */
+    private static String send(BufferedReader in, BufferedWriter out, String command) throws IOException {
+        out.write(command);
+        out.newLine();
+        out.flush();
+        String response = in.readLine();
+        if (response == null) {
+            throw new IOException("The server has closed the connection");
+        }
+        return response;
+    }
+
+    /**
+     * Loads the next level after a level has been solved. When the game is over, the last level is played again.
+     *
+     * @param in Reader of the connection.
+     * @param out Writer of the connection.
+     * @param size Size of the board of the solved level.
+     * @return Size of the board of the new level.
+     * @throws IOException When the connection fails.
+     */
+    private static int nextLevel(BufferedReader in, BufferedWriter out, int size) throws IOException {
+        String response = send(in, out, "next");
+        if (response.startsWith("GAMEOVER")) {
+            send(in, out, "reload");
+            return size;
+        }
+        return boardSize(response);
+    }
+
+    /**
+     * Returns the size of the board from a "LEVEL number difficulty size" response.
+     *
+     * @param response Response of the server.
+     * @return Size of the board.
+     * @throws IOException When it is not a LEVEL response.
+     */
+    private static int boardSize(String response) throws IOException {
+        if (response == null || !response.startsWith("LEVEL ")) {
+            throw new IOException("Unexpected response: " + response);
+        }
+        return Integer.parseInt(response.substring(response.lastIndexOf(' ') + 1));
+    }
+
+    /**
+     * Returns a random cell with the format of the protocol, e.g. "a1".
+     *
+     * @param size Size of the board.
+     * @param random Random number generator.
+     * @return Coordinate of the cell.
+     */
+    private static String cell(int size, SplittableRandom random) {
+        return "" + (char) ('a' + random.nextInt(size)) + (char) ('1' + random.nextInt(size));
+    }
+
+    /**
+     * Latencies of a load test.
+     */
+    public static final class Report {
+
+        /**
+         * Latencies of all the moves in nanoseconds, sorted.
+         */
+        private final long[] latencies;
+
+        /**
+         * Duration of the test in nanoseconds.
+         */
+        private final long elapsedNanos;
+
+        /**
+         * Constructor.
+         *
+         * @param latencies Sorted latencies in nanoseconds.
+         * @param elapsedNanos Duration of the test in nanoseconds.
+         */
+        private Report(long[] latencies, long elapsedNanos) {
+            this.latencies = latencies;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        /**
+         * Returns the number of moves that have been measured.
+         *
+         * @return Number of moves.
+         */
+        public int getNumMoves() {
+            return latencies.length;
+        }
+
+        /**
+         * Returns a percentile of the latencies (nearest-rank method).
+         *
+         * @param percentile Percentile in the range (0, 100].
+         * @return Latency in nanoseconds, or 0 if no move has been measured.
+         */
+        public long getPercentile(double percentile) {
+            if (latencies.length == 0) {
+                return 0;
+            }
+            int rank = (int) Math.ceil(percentile / 100.0 * latencies.length);
+            return latencies[Math.min(Math.max(rank, 1), latencies.length) - 1];
+        }
+
+        /**
+         * Returns the throughput of the test.
+         *
+         * @return Number of moves per second.
+         */
+        public double getMovesPerSecond() {
+            return latencies.length / (elapsedNanos / 1_000_000_000.0);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d moves in %.2f s (%.0f moves/s): p50 %.1f us, p99 %.1f us, max %.1f us",
+                    latencies.length, elapsedNanos / 1_000_000_000.0, getMovesPerSecond(),
+                    getPercentile(50) / 1000.0, getPercentile(99) / 1000.0, getPercentile(100) / 1000.0);
+        }
+    }
+
+    /**
+     * Entry point of the load test.
+     *
+     * @param args Port of the server (by default, 7777), number of clients (by default, 100) and
+     *             number of moves per client (by default, 1000). The server must be running in localhost.
+     */
+    public static void main(String[] args) {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 7777;
+        int numClients = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+        int movesPerClient = args.length > 2 ? Integer.parseInt(args[2]) : 1000;
+
+        try {
+            Report report = new LoadTestClient("localhost", port).run(numClients, movesPerClient);
+            System.out.println(numClients + " clients: " + report);
+        } catch (IOException e) {
+            System.err.println("ERROR: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+}
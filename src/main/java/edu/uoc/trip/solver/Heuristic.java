@@ -0,0 +1,233 @@
+package edu.uoc.trip.solver;
+
+import edu.uoc.trip.model.cells.CellType;
+import edu.uoc.trip.model.levels.CompactLevel;
+import edu.uoc.trip.model.levels.ConnectionTable;
+import edu.uoc.trip.model.levels.Direction;
+
+import java.util.Arrays;
+
+/**
+ * Admissible (and consistent) estimation of the number of moves that are needed to solve a board.
+ * <br/>
+ * It computes the cheapest path from the starting cell to the finish cell in a relaxed version
+ * of the puzzle, where a movable cell can become any road piece and a rotatable cell can be
+ * turned in place. Each movable cell that must change costs 1 unit, and each rotatable cell
+ * that must be rotated costs 2 units. Since a swap changes two cells and a rotation changes one,
+ * ceil(units / 2) is never greater than the real number of moves.
+ * <br/>
+ * Objects of this class keep scratch buffers, so each thread must use its own instance.
+ *
+ * @author Estela Madariaga
+ * @version 1.0
+ */
+final class Heuristic {
+
+    /**
+     * Value returned when the finish cell cannot be reached at all.
+     */
+    static final int UNREACHABLE = Integer.MAX_VALUE;
+
+    /**
+     * Maximum cost (in units) of a single step of the relaxed path.
+     */
+    private static final int MAX_STEP_COST = 2;
+
+    /**
+     * Directions indexed by their ordinal.
+     */
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    /**
+     * Size of the board, i.e. size x size.
+     */
+    private final int size;
+
+    /**
+     * Position of the cell which is just above the starting cell.
+     */
+    private final int first;
+
+    /**
+     * Position of the finish cell.
+     */
+    private final int finish;
+
+    /**
+     * Minimum cost found so far for each state (position * 4 + direction in which the cell was entered).
+     */
+    private final int[] dist;
+
+    /**
+     * Buckets of Dial's algorithm: bucket "i" holds the states whose cost modulo 3 is "i".
+     */
+    private final int[][] buckets;
+
+    /**
+     * Number of states stored in each bucket.
+     */
+    private final int[] bucketSizes;
+
+    /**
+     * Maximum cost (in units) of the states stored by the current estimation.
+     */
+    private int maxCost;
+
+    /**
+     * True if the current estimation has discarded a state because its cost was above {@link #maxCost}.
+     */
+    private boolean truncated;
+
+    /**
+     * Constructor.
+     *
+     * @param size Size of the board, i.e. size x size.
+     * @param cells Initial board. It is used to find the starting and finish cells, which never move.
+     */
+    Heuristic(int size, byte[] cells) {
+        this.size = size;
+
+        int start = -1;
+        int end = -1;
+        for (int i = 0; i < cells.length; i++) {
+            if (cells[i] == CellType.START.ordinal()) {
+                start = i;
+            } else if (cells[i] == CellType.FINISH.ordinal()) {
+                end = i;
+            }
+        }
+        this.first = start < 0 ? -1 : start - size;
+        this.finish = end;
+
+        int numStates = cells.length * ConnectionTable.NUM_DIRECTIONS;
+        this.dist = new int[numStates];
+        this.buckets = new int[MAX_STEP_COST + 1][numStates];
+        this.bucketSizes = new int[MAX_STEP_COST + 1];
+    }
+
+    /**
+     * Estimates the minimum number of moves that are needed to solve the given board.
+     *
+     * @param cells Board in row-major order.
+     * @return Lower bound of the number of moves, or {@link #UNREACHABLE} if the board cannot be solved.
+     */
+    int estimate(byte[] cells) {
+        return estimate(cells, UNREACHABLE);
+    }
+
+    /**
+     * Estimates the minimum number of moves that are needed to solve the given board, but it stops as soon as
+     * the estimation is known to be above the given bound. The relaxed path is searched in increasing order of
+     * cost, so the states which are too expensive are never stored.
+     *
+     * @param cells Board in row-major order.
+     * @param bound Maximum estimation that is of interest.
+     * @return Lower bound of the number of moves if it is at most "bound", "bound" + 1 if it is greater,
+     * or {@link #UNREACHABLE} if the board cannot be solved.
+     */
+    int estimate(byte[] cells, int bound) {
+        if (first < 0 || finish < 0) {
+            return UNREACHABLE;
+        }
+
+        //(units + 1) / 2 <= bound if and only if units <= 2 * bound.
+        maxCost = bound >= UNREACHABLE / 2 ? UNREACHABLE - MAX_STEP_COST : 2 * bound;
+        truncated = false;
+        Arrays.fill(dist, UNREACHABLE);
+        Arrays.fill(bucketSizes, 0);
+
+        //The path always leaves the starting cell moving up.
+        push(first * ConnectionTable.NUM_DIRECTIONS + Direction.UP.ordinal(), 0);
+
+        int cost = 0;
+        int emptyBuckets = 0;
+
+        while (emptyBuckets <= MAX_STEP_COST) {
+            int bucket = cost % (MAX_STEP_COST + 1);
+
+            if (bucketSizes[bucket] == 0) {
+                cost++;
+                emptyBuckets++;
+                continue;
+            }
+            emptyBuckets = 0;
+
+            int state = buckets[bucket][--bucketSizes[bucket]];
+            if (dist[state] != cost) {
+                continue; //stale entry
+            }
+
+            int position = state / ConnectionTable.NUM_DIRECTIONS;
+            int entered = state % ConnectionTable.NUM_DIRECTIONS;
+
+            if (position == finish) {
+                //The finish cell can be entered from any direction (see ConnectionTable).
+                return (cost + 1) / 2;
+            }
+
+            expand(cells, position, entered, cost);
+        }
+
+        return truncated ? bound + 1 : UNREACHABLE;
+    }
+
+    /**
+     * Relaxes the states that can be reached from the given one.
+     *
+     * @param cells Board in row-major order.
+     * @param position Position of the cell.
+     * @param entered Index of the direction in which the path entered the cell.
+     * @param cost Cost of the state.
+     */
+    private void expand(byte[] cells, int position, int entered, int cost) {
+        int type = cells[position];
+        boolean movable = CompactLevel.isMovableType(type);
+        boolean rotatable = CompactLevel.isRotatableType(type);
+
+        if (!movable && !rotatable) {
+            return;
+        }
+
+        int back = DIRECTIONS[entered].getOpposite().ordinal();
+        int current = ConnectionTable.getConnectionMask(type);
+        int row = position / size;
+        int col = position % size;
+
+        for (int exit = 0; exit < ConnectionTable.NUM_DIRECTIONS; exit++) {
+            if (exit == back || (rotatable && exit != entered)) {
+                //A rotatable cell is always a straight road.
+                continue;
+            }
+
+            int nextRow = row + DIRECTIONS[exit].getDRow();
+            int nextCol = col + DIRECTIONS[exit].getDColumn();
+            if (nextRow < 0 || nextRow >= size || nextCol < 0 || nextCol >= size) {
+                continue;
+            }
+
+            int needed = (1 << back) | (1 << exit);
+            int step = current == needed ? 0 : (movable ? 1 : 2);
+
+            push((nextRow * size + nextCol) * ConnectionTable.NUM_DIRECTIONS + exit, cost + step);
+        }
+    }
+
+    /**
+     * Stores the given state if its cost improves the best known cost and it is not above {@link #maxCost}.
+     *
+     * @param state State (position * 4 + direction in which the cell was entered).
+     * @param cost Cost of the state.
+     */
+    private void push(int state, int cost) {
+        if (cost > maxCost) {
+            truncated = true;
+        } else if (cost < dist[state]) {
+            dist[state] = cost;
+            int bucket = cost % (MAX_STEP_COST + 1);
+            if (bucketSizes[bucket] == buckets[bucket].length) {
+                buckets[bucket] = Arrays.copyOf(buckets[bucket], buckets[bucket].length * 2);
+            }
+            buckets[bucket][bucketSizes[bucket]++] = state;
+        }
+    }
+}
@@ -0,0 +1,450 @@
+package edu.uoc.trip.solver;
+
+import edu.uoc.trip.model.levels.CompactLevel;
+import edu.uoc.trip.model.levels.Level;
+import edu.uoc.trip.model.levels.LevelException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Engine that suggests the next move of the player within a time budget.
+ * <br/>
+ * It is an anytime search: an iterative deepening A* (IDA*) from the current board, guided by the same
+ * {@link Heuristic} and the same useful moves as the {@link Solver}, which only keeps the current path in memory.
+ * Each iteration raises the bound of the number of moves, so the first solution found is optimal and its first move
+ * is the hint. When the budget runs out before, the hint is the first move whose subtree had the lowest bound in the
+ * last complete iteration (i.e. the most promising one), or the one with the lowest heuristic if no iteration
+ * has been completed.
+ * <br/>
+ * The results of the complete searches are cached per board state. When an optimal solution is found, every state
+ * of that solution is cached with its next move, so repeating a hint or following the hints costs nothing.
+ * The engine is thread-safe and can be shared by several games.
+ *
+ * @author Estela Madariaga
+ * @version 1.0
+ */
+public class HintEngine {
+
+    /**
+     * Default time budget of a hint in milliseconds.
+     */
+    public static final long DEFAULT_BUDGET_MILLIS = 50;
+
+    /**
+     * Default maximum number of board states in the cache.
+     */
+    public static final int DEFAULT_CACHE_CAPACITY = 4096;
+
+    /**
+     * Number of expanded states between two checks of the clock.
+     */
+    private static final int CLOCK_CHECK_INTERVAL = 16;
+
+    /**
+     * Value returned by the search when a solution has been found.
+     */
+    private static final int FOUND = -1;
+
+    /**
+     * Cache of hints: board state -> next move. It is an LRU map (access order).
+     */
+    private final Map<StateKey, Hint> cache;
+
+    /**
+     * Number of hints that have been answered by the cache.
+     */
+    private long hits = 0;
+
+    /**
+     * Number of hints that have needed a search.
+     */
+    private long misses = 0;
+
+    /**
+     * Constructor with the default capacity of the cache.
+     */
+    public HintEngine() {
+        this(DEFAULT_CACHE_CAPACITY);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param cacheCapacity Maximum number of board states in the cache.
+     */
+    public HintEngine(int cacheCapacity) {
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<StateKey, Hint> eldest) {
+                return size() > cacheCapacity;
+            }
+        };
+    }
+
+    /**
+     * Suggests the next move of the given level from its current state.
+     *
+     * @param level Level of the player. It is not modified.
+     * @param budgetMillis Maximum time of the search in milliseconds.
+     * @return Suggested move, or null if the level is already solved or it cannot be solved.
+     * @throws LevelException When the board of the level cannot be read.
+     */
+    public Move hint(Level level, long budgetMillis) throws LevelException {
+        return hint(new CompactLevel(level), budgetMillis);
+    }
+
+    /**
+     * Suggests the next move of the given level from its current state.
+     *
+     * @param level Level of the player. It is not modified.
+     * @param budgetMillis Maximum time of the search in milliseconds.
+     * @return Suggested move, or null if the level is already solved or it cannot be solved.
+     */
+    public Move hint(CompactLevel level, long budgetMillis) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(budgetMillis);
+        byte[] cells = level.toByteArray();
+        StateKey key = StateKey.pack(cells);
+
+        synchronized (cache) {
+            Hint cached = cache.get(key);
+            if (cached != null) {
+                hits++;
+                return cached.move;
+            }
+            misses++;
+        }
+
+        Search search = new Search(level.getSize(), cells, deadline);
+        Move move = search.run();
+
+        synchronized (cache) {
+            if (search.solution != null) {
+                //Every state of an optimal solution is cached with its next (optimal) move. They are put backwards,
+                //so the current state is the most recently used one.
+                List<StateKey> keys = new ArrayList<>();
+                byte[] state = level.toByteArray();
+                for (int[] step : search.solution) {
+                    keys.add(StateKey.pack(state));
+                    apply(state, step[0], step[1]);
+                }
+                cache.put(StateKey.pack(state), new Hint(null));
+                for (int i = keys.size() - 1; i >= 0; i--) {
+                    int[] step = search.solution.get(i);
+                    cache.put(keys.get(i), new Hint(search.space.toMove(step[0], step[1])));
+                }
+            } else if (!search.timeout) {
+                //The level is solved or it cannot be solved: there is nothing to suggest.
+                cache.put(key, new Hint(null));
+            }
+            //The best move of an interrupted search is not cached, so that the next hint can search again.
+        }
+        return move;
+    }
+
+    /**
+     * Returns the number of hints that have been answered by the cache.
+     *
+     * @return Number of cache hits.
+     */
+    public long getHits() {
+        synchronized (cache) {
+            return hits;
+        }
+    }
+
+    /**
+     * Returns the number of hints that have needed a search.
+     *
+     * @return Number of cache misses.
+     */
+    public long getMisses() {
+        synchronized (cache) {
+            return misses;
+        }
+    }
+
+    /**
+     * Applies a move expressed with positions to a board.
+     *
+     * @param cells Board in row-major order.
+     * @param first Position of the first cell.
+     * @param second Position of the second cell, or -1 if it is a rotation.
+     */
+    private static void apply(byte[] cells, int first, int second) {
+        if (second < 0) {
+            SearchSpace.rotate(cells, first);
+        } else {
+            SearchSpace.swap(cells, first, second);
+        }
+    }
+
+    /**
+     * Cached hint of a board state.
+     */
+    private static final class Hint {
+
+        /**
+         * Suggested move, or null if there is nothing to suggest.
+         */
+        private final Move move;
+
+        /**
+         * Constructor.
+         *
+         * @param move Suggested move, or null if there is nothing to suggest.
+         */
+        private Hint(Move move) {
+            this.move = move;
+        }
+    }
+
+    /**
+     * State of one anytime search. It is used by a single thread.
+     */
+    private static final class Search {
+
+        /**
+         * Size of the board, i.e. size x size.
+         */
+        private final int size;
+
+        /**
+         * Board of the current node. The moves are made and undone in place.
+         */
+        private final byte[] cells;
+
+        /**
+         * Moves that can be made in the board.
+         */
+        private final SearchSpace space;
+
+        /**
+         * Heuristic of the search.
+         */
+        private final Heuristic heuristic;
+
+        /**
+         * Instant (System.nanoTime()) at which the search must stop.
+         */
+        private final long deadline;
+
+        /**
+         * Moves of the initial board: {first, second, heuristic, bound of the last complete iteration, bound of
+         * the current iteration}.
+         */
+        private final List<int[]> rootMoves = new ArrayList<>();
+
+        /**
+         * Scratch arrays of the frontier of each depth.
+         */
+        private boolean[][] frontiers = new boolean[0][];
+
+        /**
+         * Moves of the current path: first and second position of the move made at each depth.
+         */
+        private int[][] path = new int[0][];
+
+        /**
+         * Lowest bound above the current one found at each depth.
+         */
+        private int[] nextBound = new int[0];
+
+        /**
+         * Bound of the current iteration.
+         */
+        private int bound;
+
+        /**
+         * Number of expanded states.
+         */
+        private long expanded = 0;
+
+        /**
+         * It indicates that the budget has run out.
+         */
+        private boolean timeout = false;
+
+        /**
+         * Moves of the optimal solution, or null if it has not been found.
+         */
+        private List<int[]> solution;
+
+        /**
+         * Constructor.
+         *
+         * @param size Size of the board.
+         * @param cells Initial board. It is modified during the search, but it is restored at the end.
+         * @param deadline Instant (System.nanoTime()) at which the search must stop.
+         */
+        private Search(int size, byte[] cells, long deadline) {
+            this.size = size;
+            this.cells = cells;
+            this.space = new SearchSpace(size, cells);
+            this.heuristic = new Heuristic(size, cells);
+            this.deadline = deadline;
+        }
+
+        /**
+         * Runs iterations with increasing bounds until a solution is found or the budget runs out.
+         *
+         * @return Suggested move, or null if the board is already solved or it cannot be solved.
+         */
+        private Move run() {
+            int h = heuristic.estimate(cells);
+            if (h == Heuristic.UNREACHABLE || CompactLevel.isSolved(cells, size)) {
+                return null;
+            }
+
+            bound = h;
+            while (!timeout) {
+                ensureDepth(bound + 1);
+                nextBound[0] = Integer.MAX_VALUE;
+                int result = search(0, h);
+                if (result == FOUND) {
+                    solution = new ArrayList<>();
+                    for (int depth = 0; depth < path.length && path[depth][0] >= 0; depth++) {
+                        solution.add(path[depth].clone());
+                    }
+                    return space.toMove(solution.get(0)[0], solution.get(0)[1]);
+                }
+                if (timeout) {
+                    break;
+                }
+                if (result == Integer.MAX_VALUE) {
+                    return null; //no move reaches the finish
+                }
+                for (int[] move : rootMoves) {
+                    move[3] = move[4];
+                }
+                bound = result;
+            }
+            return bestRootMove();
+        }
+
+        /**
+         * Depth-first search of the current iteration.
+         *
+         * @param depth Number of moves made from the initial board.
+         * @param h Heuristic of the current board.
+         * @return {@link #FOUND} if the board has been solved within the bound. Otherwise, the lowest estimation
+         * above the bound (Integer.MAX_VALUE if there is not any).
+         */
+        private int search(int depth, int h) {
+            if (depth + h > bound) {
+                return depth + h;
+            }
+            path[depth][0] = -1;
+            if (CompactLevel.isSolved(cells, size)) {
+                return FOUND;
+            }
+            if (++expanded % CLOCK_CHECK_INTERVAL == 0 && System.nanoTime() - deadline > 0) {
+                timeout = true;
+                return Integer.MAX_VALUE;
+            }
+
+            nextBound[depth] = Integer.MAX_VALUE;
+            int[] found = {0};
+            space.forEachSuccessor(cells, frontiers[depth], (child, first, second) -> {
+                if (found[0] != 0 || timeout || isUndo(depth, first, second)) {
+                    return;
+                }
+                int childH = heuristic.estimate(child);
+                if (childH == Heuristic.UNREACHABLE) {
+                    return;
+                }
+
+                path[depth][0] = first;
+                path[depth][1] = second;
+                int[] rootMove = depth == 0 ? rootMove(first, second, childH) : null;
+                int result = search(depth + 1, childH);
+                if (result == FOUND) {
+                    found[0] = 1;
+                    return;
+                }
+                if (rootMove != null && !timeout) {
+                    rootMove[4] = result;
+                }
+                nextBound[depth] = Math.min(nextBound[depth], result);
+            });
+
+            if (found[0] != 0) {
+                return FOUND;
+            }
+            path[depth][0] = -1;
+            return nextBound[depth];
+        }
+
+        /**
+         * Checks if a move undoes the previous move of the path: the same swap again or the rotation of the same
+         * cell (the rotatable cells have two states).
+         *
+         * @param depth Depth of the move.
+         * @param first Position of the first cell.
+         * @param second Position of the second cell, or -1 if it is a rotation.
+         * @return True if the move undoes the previous one. Otherwise, false.
+         */
+        private boolean isUndo(int depth, int first, int second) {
+            return depth > 0 && path[depth - 1][0] == first && path[depth - 1][1] == second;
+        }
+
+        /**
+         * Returns the entry of a move of the initial board, which is created the first time.
+         *
+         * @param first Position of the first cell.
+         * @param second Position of the second cell, or -1 if it is a rotation.
+         * @param h Heuristic of the board after the move.
+         * @return Entry of the move.
+         */
+        private int[] rootMove(int first, int second, int h) {
+            for (int[] move : rootMoves) {
+                if (move[0] == first && move[1] == second) {
+                    return move;
+                }
+            }
+            int[] move = {first, second, h, 1 + h, 1 + h};
+            rootMoves.add(move);
+            return move;
+        }
+
+        /**
+         * Returns the most promising move of the initial board: the lowest bound of the last complete iteration,
+         * and then the lowest heuristic.
+         *
+         * @return Best move, or null if there is not any.
+         */
+        private Move bestRootMove() {
+            int[] best = null;
+            for (int[] move : rootMoves) {
+                if (best == null || move[3] < best[3] || (move[3] == best[3] && move[2] < best[2])) {
+                    best = move;
+                }
+            }
+            return best == null ? null : space.toMove(best[0], best[1]);
+        }
+
+        /**
+         * Grows the arrays of each depth.
+         *
+         * @param depth Number of depths that are needed.
+         */
+        private void ensureDepth(int depth) {
+            if (depth < path.length) {
+                return;
+            }
+            int oldLength = path.length;
+            int newLength = Math.max(depth + 1, oldLength * 2);
+            frontiers = Arrays.copyOf(frontiers, newLength);
+            path = Arrays.copyOf(path, newLength);
+            nextBound = Arrays.copyOf(nextBound, newLength);
+            for (int i = oldLength; i < newLength; i++) {
+                frontiers[i] = new boolean[cells.length];
+                path[i] = new int[]{-1, -1};
+            }
+        }
+    }
+}
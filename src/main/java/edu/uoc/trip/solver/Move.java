@@ -0,0 +1,124 @@
+package edu.uoc.trip.solver;
+
+import edu.uoc.trip.model.levels.Level;
+import edu.uoc.trip.model.levels.LevelException;
+import edu.uoc.trip.model.utils.Coordinate;
+
+/**
+ * Class that represents a move of the player, i.e. a swap of two movable cells
+ * or a rotation of a rotatable cell.
+ *
+ * @author Estela Madariaga
+ * @version 1.0
+ */
+public class Move {
+
+    /**
+     * Coordinate of the first cell (or the only one, if it is a rotation).
+     */
+    private final Coordinate first;
+
+    /**
+     * Coordinate of the second cell of a swap, or null if it is a rotation.
+     */
+    private final Coordinate second;
+
+    /**
+     * Constructor for a swap.
+     *
+     * @param first Coordinate of the first cell.
+     * @param second Coordinate of the second cell.
+     */
+    public Move(Coordinate first, Coordinate second) {
+        this.first = first;
+        this.second = second;
+    }
+
+    /**
+     * Constructor for a rotation.
+     *
+     * @param cell Coordinate of the cell that is rotated.
+     */
+    public Move(Coordinate cell) {
+        this(cell, null);
+    }
+
+    /**
+     * Getter of the attribute "first".
+     *
+     * @return Coordinate of the first cell of the move.
+     */
+    public Coordinate getFirst() {
+        return first;
+    }
+
+    /**
+     * Getter of the attribute "second".
+     *
+     * @return Coordinate of the second cell of a swap, or null if the move is a rotation.
+     */
+    public Coordinate getSecond() {
+        return second;
+    }
+
+    /**
+     * Indicates if the move is a rotation.
+     *
+     * @return True if the move is a rotation. False if it is a swap.
+     */
+    public boolean isRotation() {
+        return second == null;
+    }
+
+    /**
+     * Applies this move to the given level.
+     *
+     * @param level Level in which the move is made.
+     * @throws LevelException When the move is not valid in the level.
+     */
+    public void applyTo(Level level) throws LevelException {
+        if (isRotation()) {
+            level.rotateCell(first);
+        } else {
+            level.swapCells(first, second);
+        }
+    }
+
+    /**
+     * Checks if this Move object is equal to another object.
+     *
+     * @param obj The object to compare with.
+     * @return True if both moves are the same kind of move over the same coordinates.
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (obj == this)
+            return true;
+        if (!(obj instanceof Move))
+            return false;
+
+        Move other = (Move) obj;
+        return first.equals(other.first)
+                && (second == null ? other.second == null : second.equals(other.second));
+    }
+
+    /**
+     * Returns the hash code value for this Move object.
+     *
+     * @return A hash code value for this object.
+     */
+    @Override
+    public int hashCode() {
+        return 31 * first.hashCode() + (second == null ? 0 : second.hashCode());
+    }
+
+    /**
+     * Returns a string representation of the move.
+     *
+     * @return A string in the format "rotate (row,column)" or "swap (row,column) (row,column)".
+     */
+    @Override
+    public String toString() {
+        return isRotation() ? "rotate " + first : "swap " + first + " " + second;
+    }
+}
@@ -0,0 +1,347 @@
+package edu.uoc.trip.solver;
+
+import edu.uoc.trip.model.levels.CompactLevel;
+import edu.uoc.trip.model.levels.Level;
+import edu.uoc.trip.model.levels.LevelException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Parallel version of {@link Solver} for large boards.
+ * <br/>
+ * The search is made layer by layer (i.e. all the states reached with "d" moves before the ones
+ * reached with "d + 1" moves). Each layer (frontier) is split across the threads of a ForkJoinPool,
+ * and the visited states are stored in a ConcurrentHashMap keyed by {@link StateKey}, so threads
+ * never block each other while they check if a state is new.
+ * <br/>
+ * The states whose cost plus {@link Heuristic} exceeds a bound are not explored. The bound starts
+ * at the estimation of the initial state and grows one by one, so the first solution is optimal.
+ *
+ * @author Estela Madariaga
+ * @version 1.0
+ */
+public class ParallelSolver {
+
+    /**
+     * Maximum number of states of the frontier which are expanded by a single task.
+     */
+    private static final int TASK_THRESHOLD = 64;
+
+    /**
+     * Pool in which the search is run.
+     */
+    private final ForkJoinPool pool;
+
+    /**
+     * Maximum number of states that can be expanded before giving up.
+     */
+    private final long maxNodes;
+
+    /**
+     * Constructor that uses the common ForkJoinPool and the default limit of expanded states.
+     */
+    public ParallelSolver() {
+        this(ForkJoinPool.commonPool(), Solver.DEFAULT_MAX_NODES);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param pool Pool in which the search is run.
+     * @param maxNodes Maximum number of states that can be expanded before giving up.
+     */
+    public ParallelSolver(ForkJoinPool pool, long maxNodes) {
+        this.pool = pool;
+        this.maxNodes = maxNodes;
+    }
+
+    /**
+     * Computes an optimal solution of the given level from its current state.
+     *
+     * @param level Level to solve. It is not modified.
+     * @return Solution with the moves (swaps and rotations) and the statistics of the search.
+     * @throws LevelException When the board of the level cannot be read.
+     */
+    public Solution solve(Level level) throws LevelException {
+        return solve(new CompactLevel(level));
+    }
+
+    /**
+     * Computes an optimal solution of the given level from its current state.
+     *
+     * @param level Level to solve. It is not modified.
+     * @return Solution with the moves and the statistics of the search. If the level cannot be
+     * solved or the limit of expanded states is reached, the solution is not found.
+     */
+    public Solution solve(CompactLevel level) {
+        long startTime = System.nanoTime();
+        Runtime runtime = Runtime.getRuntime();
+        long baseMemory = runtime.totalMemory() - runtime.freeMemory();
+        long peakMemory = 0;
+        long peakStates = 0;
+
+        int size = level.getSize();
+        byte[] cells = level.toByteArray();
+        Search search = new Search(new SearchSpace(size, cells), size, cells);
+
+        StateKey root = StateKey.pack(cells);
+        List<Move> moves = null;
+        int bound = new Heuristic(size, cells).estimate(cells);
+
+        if (CompactLevel.isSolved(cells, size)) {
+            moves = new ArrayList<>();
+        }
+
+        while (moves == null && bound != Heuristic.UNREACHABLE && search.expanded.get() < maxNodes) {
+            search.start(root, bound);
+            List<StateKey> frontier = Collections.singletonList(root);
+
+            for (int depth = 0; !frontier.isEmpty() && search.goal.get() == null
+                    && search.expanded.get() < maxNodes; depth++) {
+                frontier = pool.invoke(new ExpandTask(search, frontier, 0, frontier.size(), depth + 1));
+                peakStates = Math.max(peakStates, search.visited.size());
+                peakMemory = Math.max(peakMemory, runtime.totalMemory() - runtime.freeMemory() - baseMemory);
+            }
+
+            if (search.goal.get() != null) {
+                moves = search.toMoves(search.goal.get());
+            } else if (search.expanded.get() < maxNodes && search.pruned.get() == 0) {
+                //Nothing was pruned by the bound, so the whole space has been explored.
+                break;
+            }
+            bound++;
+        }
+
+        return new Solution(moves, search.expanded.get(), peakStates, peakMemory, System.nanoTime() - startTime);
+    }
+
+    /**
+     * Parent of a visited state, used to rebuild the moves of the solution.
+     */
+    private static final class Parent {
+
+        /**
+         * State from which the visited state was reached, or null for the initial state.
+         */
+        private final StateKey key;
+
+        /**
+         * Position of the first cell of the move.
+         */
+        private final int first;
+
+        /**
+         * Position of the second cell of the move, or -1 if it was a rotation.
+         */
+        private final int second;
+
+        /**
+         * Constructor.
+         *
+         * @param key State from which the visited state was reached.
+         * @param first Position of the first cell of the move.
+         * @param second Position of the second cell of the move, or -1 if it was a rotation.
+         */
+        private Parent(StateKey key, int first, int second) {
+            this.key = key;
+            this.first = first;
+            this.second = second;
+        }
+    }
+
+    /**
+     * Shared data of an iteration of the search (one bound).
+     */
+    private static final class Search {
+
+        /**
+         * Search space of the level.
+         */
+        private final SearchSpace space;
+
+        /**
+         * Size of the board.
+         */
+        private final int size;
+
+        /**
+         * Initial board, used to build the heuristic of each task.
+         */
+        private final byte[] initial;
+
+        /**
+         * Number of expanded states in all the iterations.
+         */
+        private final AtomicLong expanded = new AtomicLong();
+
+        /**
+         * Number of states that have been discarded because of the bound in this iteration.
+         */
+        private final AtomicLong pruned = new AtomicLong();
+
+        /**
+         * First solved state that has been found.
+         */
+        private final AtomicReference<StateKey> goal = new AtomicReference<>();
+
+        /**
+         * Visited states and their parents.
+         */
+        private ConcurrentHashMap<StateKey, Parent> visited;
+
+        /**
+         * Maximum cost plus estimation of the states that are explored.
+         */
+        private int bound;
+
+        /**
+         * Constructor.
+         *
+         * @param space Search space of the level.
+         * @param size Size of the board.
+         * @param initial Initial board.
+         */
+        private Search(SearchSpace space, int size, byte[] initial) {
+            this.space = space;
+            this.size = size;
+            this.initial = initial;
+        }
+
+        /**
+         * Prepares a new iteration of the search.
+         *
+         * @param root Initial state.
+         * @param bound Maximum cost plus estimation of the states that are explored.
+         */
+        private void start(StateKey root, int bound) {
+            this.bound = bound;
+            this.visited = new ConcurrentHashMap<>();
+            this.visited.put(root, new Parent(null, -1, -1));
+            this.pruned.set(0);
+        }
+
+        /**
+         * Rebuilds the sequence of moves from the initial state to the given one.
+         *
+         * @param key Final state.
+         * @return List of moves in the order in which they must be made.
+         */
+        private List<Move> toMoves(StateKey key) {
+            List<Move> moves = new ArrayList<>();
+            for (Parent parent = visited.get(key); parent.key != null; parent = visited.get(parent.key)) {
+                moves.add(space.toMove(parent.first, parent.second));
+            }
+            Collections.reverse(moves);
+            return moves;
+        }
+    }
+
+    /**
+     * Task that expands a range of the frontier and returns the new states that it has found.
+     */
+    private static final class ExpandTask extends RecursiveTask<List<StateKey>> {
+
+        /**
+         * Version of the serialized form (the tasks are never serialized, but RecursiveTask is Serializable).
+         */
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * Shared data of the search.
+         */
+        private final transient Search search;
+
+        /**
+         * Frontier which is being expanded.
+         */
+        private final transient List<StateKey> frontier;
+
+        /**
+         * First index (inclusive) of the range of the frontier.
+         */
+        private final int from;
+
+        /**
+         * Last index (exclusive) of the range of the frontier.
+         */
+        private final int to;
+
+        /**
+         * Cost of the new states.
+         */
+        private final int cost;
+
+        /**
+         * Constructor.
+         *
+         * @param search Shared data of the search.
+         * @param frontier Frontier which is being expanded.
+         * @param from First index (inclusive) of the range.
+         * @param to Last index (exclusive) of the range.
+         * @param cost Cost of the new states.
+         */
+        private ExpandTask(Search search, List<StateKey> frontier, int from, int to, int cost) {
+            this.search = search;
+            this.frontier = frontier;
+            this.from = from;
+            this.to = to;
+            this.cost = cost;
+        }
+
+        @Override
+        protected List<StateKey> compute() {
+            if (to - from > TASK_THRESHOLD) {
+                int middle = (from + to) >>> 1;
+                ExpandTask left = new ExpandTask(search, frontier, from, middle, cost);
+                left.fork();
+                List<StateKey> right = new ExpandTask(search, frontier, middle, to, cost).compute();
+                List<StateKey> result = left.join();
+                result.addAll(right);
+                return result;
+            }
+
+            List<StateKey> next = new ArrayList<>();
+            byte[] cells = new byte[search.initial.length];
+            boolean[] marks = new boolean[search.initial.length];
+            Heuristic heuristic = new Heuristic(search.size, search.initial);
+
+            for (int i = from; i < to && search.goal.get() == null; i++) {
+                StateKey parent = frontier.get(i);
+                parent.unpack(cells);
+                search.expanded.incrementAndGet();
+
+                search.space.forEachSuccessor(cells, marks, (child, first, second) -> {
+                    StateKey key = StateKey.pack(child);
+                    if (search.visited.containsKey(key)) {
+                        return;
+                    }
+
+                    int h = heuristic.estimate(child);
+                    if (h == Heuristic.UNREACHABLE) {
+                        return;
+                    }
+                    if (cost + h > search.bound) {
+                        search.pruned.incrementAndGet();
+                        return;
+                    }
+
+                    if (search.visited.putIfAbsent(key, new Parent(parent, first, second)) == null) {
+                        if (CompactLevel.isSolved(child, search.size)) {
+                            search.goal.compareAndSet(null, key);
+                        }
+                        next.add(key);
+                    }
+                });
+            }
+
+            return next;
+        }
+    }
+}
@@ -0,0 +1,286 @@
+package edu.uoc.trip.solver;
+
+import edu.uoc.trip.model.cells.CellType;
+import edu.uoc.trip.model.levels.CompactLevel;
+import edu.uoc.trip.model.levels.ConnectionTable;
+import edu.uoc.trip.model.levels.Direction;
+import edu.uoc.trip.model.utils.Coordinate;
+
+import java.util.Arrays;
+
+/**
+ * Immutable description of the moves that can be made in a board.
+ * <br/>
+ * Swaps only exchange movable cells and rotations only change rotatable cells, so the positions
+ * of the movable and rotatable cells never change during the search. This class computes them
+ * once, and it is shared by all the states (and threads) of a search.
+ *
+ * @author Estela Madariaga
+ * @version 1.0
+ */
+final class SearchSpace {
+
+    /**
+     * Ordinal of the cell type that comes after each cell type when it is rotated.
+     */
+    private static final byte[] NEXT;
+
+    /**
+     * Ordinal of the cell type that comes before each cell type when it is rotated.
+     */
+    private static final byte[] PREVIOUS;
+
+    static {
+        CellType[] types = CellType.values();
+        NEXT = new byte[types.length];
+        PREVIOUS = new byte[types.length];
+        for (CellType type : types) {
+            CellType next = type.next() == null ? type : type.next();
+            NEXT[type.ordinal()] = (byte) next.ordinal();
+            PREVIOUS[next.ordinal()] = (byte) type.ordinal();
+        }
+    }
+
+    /**
+     * Directions indexed by their ordinal.
+     */
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    /**
+     * Size of the board, i.e. size x size.
+     */
+    private final int size;
+
+    /**
+     * Position of the starting cell, or -1 if there is not any.
+     */
+    private final int start;
+
+    /**
+     * Positions (row * size + column) of the movable cells.
+     */
+    private final int[] movable;
+
+    /**
+     * Positions (row * size + column) of the rotatable cells.
+     */
+    private final int[] rotatable;
+
+    /**
+     * Constructor.
+     *
+     * @param size Size of the board, i.e. size x size.
+     * @param cells Ordinals of the cell types of the board in row-major order.
+     */
+    SearchSpace(int size, byte[] cells) {
+        this.size = size;
+
+        int startPosition = -1;
+        for (int j = 0; j < size; j++) {
+            if (cells[(size - 1) * size + j] == CellType.START.ordinal()) {
+                startPosition = (size - 1) * size + j;
+            }
+        }
+        this.start = startPosition;
+
+        int numMovable = 0;
+        int numRotatable = 0;
+        for (byte cell : cells) {
+            if (CompactLevel.isMovableType(cell)) {
+                numMovable++;
+            } else if (CompactLevel.isRotatableType(cell)) {
+                numRotatable++;
+            }
+        }
+
+        movable = new int[numMovable];
+        rotatable = new int[numRotatable];
+        numMovable = 0;
+        numRotatable = 0;
+        for (int i = 0; i < cells.length; i++) {
+            if (CompactLevel.isMovableType(cells[i])) {
+                movable[numMovable++] = i;
+            } else if (CompactLevel.isRotatableType(cells[i])) {
+                rotatable[numRotatable++] = i;
+            }
+        }
+    }
+
+    /**
+     * Marks the cells that a useful move must change.
+     * <br/>
+     * Take any optimal solution and the path of its final board. Its moves can be reordered so that
+     * each one puts the right piece in the first cell of that path which is still wrong
+     * (this is how a permutation is sorted by following its cycles), and this never needs more moves.
+     * When a move is made, the cells before that one are already right, so the walk from the
+     * starting cell goes through them. Therefore, the cell is either in the current walk or it is
+     * the cell which the walk points to. Only the moves which change one of these cells have to be
+     * explored, and the search is still optimal. Moreover, after the move that cell is right, so
+     * it must belong to the new walk (see {@link #isInWalk(byte[], int)}).
+     *
+     * @param cells Board in row-major order.
+     * @param marks Array in which the marked positions are set to true (the rest are set to false).
+     */
+    void markFrontier(byte[] cells, boolean[] marks) {
+        Arrays.fill(marks, false);
+        markWalk(cells, marks);
+    }
+
+    /**
+     * Generates the useful successors of the given board, i.e. the boards that are reached with
+     * the swaps and rotations that change a cell of the frontier and put it in the walk
+     * (see {@link #markFrontier(byte[], boolean[])}).
+     * <br/>
+     * The successors are generated in place: the board is modified before calling "successor"
+     * and it is restored afterwards.
+     *
+     * @param cells Board in row-major order.
+     * @param frontier Scratch array with one position per cell.
+     * @param successor Object which is notified of each successor.
+     */
+    void forEachSuccessor(byte[] cells, boolean[] frontier, Successor successor) {
+        markFrontier(cells, frontier);
+
+        for (int i = 0; i < movable.length; i++) {
+            int first = movable[i];
+            for (int j = i + 1; j < movable.length; j++) {
+                int second = movable[j];
+                if (cells[first] == cells[second] || !(frontier[first] || frontier[second])) {
+                    continue; //this swap does not change anything useful
+                }
+                swap(cells, first, second);
+                if ((frontier[first] && isInWalk(cells, first)) || (frontier[second] && isInWalk(cells, second))) {
+                    successor.accept(cells, first, second);
+                }
+                swap(cells, first, second);
+            }
+        }
+
+        for (int position : rotatable) {
+            if (!frontier[position]) {
+                continue;
+            }
+            rotate(cells, position);
+            if (isInWalk(cells, position)) {
+                successor.accept(cells, position, -1);
+            }
+            unrotate(cells, position);
+        }
+    }
+
+    /**
+     * Checks if the walk from the starting cell goes through the given position.
+     *
+     * @param cells Board in row-major order.
+     * @param position Position (row * size + column) of the cell.
+     * @return True if the cell is connected to the starting cell. Otherwise, false.
+     */
+    boolean isInWalk(byte[] cells, int position) {
+        if (start < 0) {
+            return false;
+        }
+        int end = CompactLevel.walk(cells, size, start * ConnectionTable.NUM_DIRECTIONS + Direction.UP.ordinal(),
+                position, null, 0);
+        return end / ConnectionTable.NUM_DIRECTIONS == position;
+    }
+
+    /**
+     * Marks the cells of the walk from the starting cell (except the starting cell) and, if the walk stops
+     * before the finish cell, the cell which it points to, i.e. the one that must be changed.
+     *
+     * @param cells Board in row-major order.
+     * @param marks Array in which the cells are set to true.
+     */
+    private void markWalk(byte[] cells, boolean[] marks) {
+        if (start < 0) {
+            return;
+        }
+
+        int[] path = new int[cells.length];
+        int end = CompactLevel.walk(cells, size, start * ConnectionTable.NUM_DIRECTIONS + Direction.UP.ordinal(),
+                -1, path, 0);
+        int last = end / ConnectionTable.NUM_DIRECTIONS;
+        for (int i = 0, position = start; position != last; i++) {
+            position = path[i];
+            marks[position] = true;
+        }
+
+        if (cells[last] == CellType.FINISH.ordinal()) {
+            return;
+        }
+
+        //The first neighbour towards which the last cell has a connection (except the way back).
+        int back = DIRECTIONS[end % ConnectionTable.NUM_DIRECTIONS].getOpposite().ordinal();
+        int connections = ConnectionTable.getConnectionMask(cells[last]);
+        for (int dir = 0; dir < ConnectionTable.NUM_DIRECTIONS; dir++) {
+            int nextRow = last / size + DIRECTIONS[dir].getDRow();
+            int nextCol = last % size + DIRECTIONS[dir].getDColumn();
+            if (dir != back && (connections & (1 << dir)) != 0
+                    && nextRow >= 0 && nextRow < size && nextCol >= 0 && nextCol < size) {
+                marks[nextRow * size + nextCol] = true;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Swaps the cells of two positions of the board. A swap undoes itself.
+     *
+     * @param cells Board in which the swap is made.
+     * @param first Position of the first cell.
+     * @param second Position of the second cell.
+     */
+    static void swap(byte[] cells, int first, int second) {
+        byte aux = cells[first];
+        cells[first] = cells[second];
+        cells[second] = aux;
+    }
+
+    /**
+     * Rotates the cell of the given position of the board.
+     *
+     * @param cells Board in which the rotation is made.
+     * @param position Position of the cell.
+     */
+    static void rotate(byte[] cells, int position) {
+        cells[position] = NEXT[cells[position]];
+    }
+
+    /**
+     * Undoes a rotation of the cell of the given position of the board.
+     *
+     * @param cells Board in which the rotation is undone.
+     * @param position Position of the cell.
+     */
+    static void unrotate(byte[] cells, int position) {
+        cells[position] = PREVIOUS[cells[position]];
+    }
+
+    /**
+     * Transforms a move expressed with positions into a Move object.
+     *
+     * @param first Position of the first cell.
+     * @param second Position of the second cell, or -1 if it is a rotation.
+     * @return Move object with coordinates.
+     */
+    Move toMove(int first, int second) {
+        Coordinate firstCoord = new Coordinate(first / size, first % size);
+        return second < 0 ? new Move(firstCoord) : new Move(firstCoord, new Coordinate(second / size, second % size));
+    }
+
+    /**
+     * Receiver of the successors generated by {@link #forEachSuccessor(byte[], boolean[], Successor)}.
+     */
+    @FunctionalInterface
+    interface Successor {
+
+        /**
+         * Receives a successor.
+         *
+         * @param cells Board of the successor. It must not be modified nor kept.
+         * @param first Position of the first cell of the move.
+         * @param second Position of the second cell of the move, or -1 if it is a rotation.
+         */
+        void accept(byte[] cells, int first, int second);
+    }
+}
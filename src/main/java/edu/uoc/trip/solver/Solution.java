@@ -0,0 +1,134 @@
+package edu.uoc.trip.solver;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Class that represents the result of a search: the sequence of moves that solves a level
+ * (if any) and some statistics about the search.
+ *
+ * @author Estela Madariaga
+ * @version 1.0
+ */
+public class Solution {
+
+    /**
+     * Moves that solve the level, or null if no solution has been found.
+     */
+    private final List<Move> moves;
+
+    /**
+     * Number of states that have been expanded.
+     */
+    private final long nodesExpanded;
+
+    /**
+     * Maximum number of states that have been stored at the same time.
+     */
+    private final long peakStates;
+
+    /**
+     * Maximum heap memory (in bytes) used by the search over the memory that was used when it started.
+     * It is an approximation, since it is sampled from the JVM.
+     */
+    private final long peakMemory;
+
+    /**
+     * Wall time of the search in nanoseconds.
+     */
+    private final long elapsedNanos;
+
+    /**
+     * Constructor.
+     *
+     * @param moves Moves that solve the level, or null if no solution has been found.
+     * @param nodesExpanded Number of states that have been expanded.
+     * @param peakStates Maximum number of states that have been stored at the same time.
+     * @param peakMemory Approximate peak heap memory used by the search, in bytes.
+     * @param elapsedNanos Wall time of the search in nanoseconds.
+     */
+    public Solution(List<Move> moves, long nodesExpanded, long peakStates, long peakMemory, long elapsedNanos) {
+        this.moves = moves == null ? null : Collections.unmodifiableList(moves);
+        this.nodesExpanded = nodesExpanded;
+        this.peakStates = peakStates;
+        this.peakMemory = peakMemory;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * Indicates if a solution has been found.
+     *
+     * @return True if the search found a sequence of moves that solves the level. Otherwise, false.
+     */
+    public boolean isFound() {
+        return moves != null;
+    }
+
+    /**
+     * Getter of the attribute "moves".
+     *
+     * @return Unmodifiable list with the moves that solve the level, or null if no solution has been found.
+     */
+    public List<Move> getMoves() {
+        return moves;
+    }
+
+    /**
+     * Returns the number of moves of the solution.
+     *
+     * @return Number of moves of the solution, or -1 if no solution has been found.
+     */
+    public int getNumMoves() {
+        return moves == null ? -1 : moves.size();
+    }
+
+    /**
+     * Getter of the attribute "nodesExpanded".
+     *
+     * @return Number of states that have been expanded.
+     */
+    public long getNodesExpanded() {
+        return nodesExpanded;
+    }
+
+    /**
+     * Getter of the attribute "peakStates".
+     *
+     * @return Maximum number of states that have been stored at the same time.
+     */
+    public long getPeakStates() {
+        return peakStates;
+    }
+
+    /**
+     * Getter of the attribute "peakMemory".
+     *
+     * @return Approximate peak heap memory used by the search, in bytes.
+     */
+    public long getPeakMemory() {
+        return peakMemory;
+    }
+
+    /**
+     * Getter of the attribute "elapsedNanos".
+     *
+     * @return Wall time of the search in nanoseconds.
+     */
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * Returns a string representation of the solution and its statistics.
+     *
+     * @return Text with the moves and the statistics of the search.
+     */
+    @Override
+    public String toString() {
+        return (isFound() ? getNumMoves() + " moves " + moves : "No solution")
+                + " [expanded=" + nodesExpanded
+                + ", peakStates=" + peakStates
+                + ", peakMemory=" + peakMemory / 1024 + "KB"
+                + ", time=" + elapsedNanos / 1_000_000.0 + "ms]";
+    }
+}
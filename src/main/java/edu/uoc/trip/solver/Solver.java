@@ -0,0 +1,259 @@
+package edu.uoc.trip.solver;
+
+import edu.uoc.trip.model.levels.CompactLevel;
+import edu.uoc.trip.model.levels.Level;
+import edu.uoc.trip.model.levels.LevelException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Solver that computes the minimum number of moves that are needed to solve a level.
+ * <br/>
+ * It is an A* search over the states that can be reached with swaps and rotations.
+ * The states are stored as {@link StateKey} objects (4 bits per cell) and the search is guided by
+ * an admissible and consistent {@link Heuristic}, so the first solution found is optimal.
+ * Only the moves that fix the walk from the starting cell are explored
+ * (see {@link SearchSpace#markFrontier(byte[], boolean[])}).
+ *
+ * @author Estela Madariaga
+ * @version 1.0
+ */
+public class Solver {
+
+    /**
+     * Default maximum number of states that can be expanded before giving up.
+     */
+    public static final long DEFAULT_MAX_NODES = 2_000_000;
+
+    /**
+     * Number of expansions between two samples of the heap memory.
+     */
+    private static final int MEMORY_SAMPLE_INTERVAL = 1024;
+
+    /**
+     * Maximum number of states that can be expanded before giving up.
+     */
+    private final long maxNodes;
+
+    /**
+     * Constructor with the default limit of expanded states.
+     */
+    public Solver() {
+        this(DEFAULT_MAX_NODES);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param maxNodes Maximum number of states that can be expanded before giving up.
+     */
+    public Solver(long maxNodes) {
+        this.maxNodes = maxNodes;
+    }
+
+    /**
+     * Computes an optimal solution of the given level from its current state.
+     *
+     * @param level Level to solve. It is not modified.
+     * @return Solution with the moves and the statistics of the search.
+     * @throws LevelException When the board of the level cannot be read.
+     */
+    public Solution solve(Level level) throws LevelException {
+        return solve(new CompactLevel(level));
+    }
+
+    /**
+     * Computes an optimal solution of the given level from its current state.
+     *
+     * @param level Level to solve. It is not modified.
+     * @return Solution with the moves and the statistics of the search. If the level cannot be
+     * solved or the limit of expanded states is reached, the solution is not found.
+     */
+    public Solution solve(CompactLevel level) {
+        return solve(level, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Computes an optimal solution of the given level from its current state if it needs at most the given
+     * number of moves. The heuristic is admissible, so the states whose estimation is above the bound are never
+     * added to the open list, and the search ends when there is no state left within the bound: proving that
+     * a level is too hard costs at most as much as solving a level at the bound.
+     *
+     * @param level Level to solve. It is not modified.
+     * @param maxMoves Maximum number of moves of the solution.
+     * @return Solution with the moves and the statistics of the search. If the level cannot be solved in
+     * "maxMoves" moves or the limit of expanded states is reached, the solution is not found.
+     */
+    public Solution solve(CompactLevel level, int maxMoves) {
+        long startTime = System.nanoTime();
+        Runtime runtime = Runtime.getRuntime();
+        long baseMemory = runtime.totalMemory() - runtime.freeMemory();
+        long peakMemory = 0;
+
+        int size = level.getSize();
+        byte[] cells = level.toByteArray();
+        SearchSpace space = new SearchSpace(size, cells);
+        Heuristic heuristic = new Heuristic(size, cells);
+        boolean[] frontier = new boolean[cells.length];
+
+        long expanded = 0;
+        long peakStates = 0;
+        List<Move> moves = null;
+
+        int h = heuristic.estimate(cells, maxMoves);
+        if (h != Heuristic.UNREACHABLE && h <= maxMoves) {
+            PriorityQueue<Node> open = new PriorityQueue<>();
+            Map<StateKey, Integer> bestCost = new HashMap<>();
+
+            StateKey rootKey = StateKey.pack(cells);
+            open.add(new Node(rootKey, 0, h, null, -1, -1));
+            bestCost.put(rootKey, 0);
+
+            while (!open.isEmpty() && expanded < maxNodes) {
+                Node node = open.poll();
+                if (node.cost > bestCost.get(node.key)) {
+                    continue; //stale entry
+                }
+
+                node.key.unpack(cells);
+                if (CompactLevel.isSolved(cells, size)) {
+                    moves = node.toMoves(space);
+                    break;
+                }
+
+                expanded++;
+                Node parent = node;
+                space.forEachSuccessor(cells, frontier,
+                        (child, first, second) -> addChild(open, bestCost, heuristic, maxMoves, child, parent,
+                                first, second));
+
+                peakStates = Math.max(peakStates, open.size() + bestCost.size());
+                if (expanded % MEMORY_SAMPLE_INTERVAL == 0) {
+                    peakMemory = Math.max(peakMemory, runtime.totalMemory() - runtime.freeMemory() - baseMemory);
+                }
+            }
+        }
+
+        peakMemory = Math.max(peakMemory, runtime.totalMemory() - runtime.freeMemory() - baseMemory);
+        return new Solution(moves, expanded, peakStates, peakMemory, System.nanoTime() - startTime);
+    }
+
+    /**
+     * Adds a child state to the open list if it improves the best known cost of that state.
+     *
+     * @param open Open list.
+     * @param bestCost Best known cost of each state.
+     * @param heuristic Heuristic of the search.
+     * @param maxMoves Maximum number of moves of the solution.
+     * @param cells Board of the child state.
+     * @param parent Parent node.
+     * @param first Position of the first cell of the move.
+     * @param second Position of the second cell of the move, or -1 if it is a rotation.
+     */
+    private void addChild(PriorityQueue<Node> open, Map<StateKey, Integer> bestCost, Heuristic heuristic,
+                          int maxMoves, byte[] cells, Node parent, int first, int second) {
+        int cost = parent.cost + 1;
+        StateKey key = StateKey.pack(cells);
+        Integer known = bestCost.get(key);
+        if (known != null && known <= cost) {
+            return;
+        }
+
+        int h = heuristic.estimate(cells, maxMoves - cost);
+        if (h == Heuristic.UNREACHABLE || cost + h > maxMoves) {
+            return;
+        }
+
+        bestCost.put(key, cost);
+        open.add(new Node(key, cost, cost + h, parent, first, second));
+    }
+
+    /**
+     * Node of the search tree.
+     */
+    private static final class Node implements Comparable<Node> {
+
+        /**
+         * Board of this node.
+         */
+        private final StateKey key;
+
+        /**
+         * Number of moves from the initial state.
+         */
+        private final int cost;
+
+        /**
+         * Cost plus the estimation of the remaining moves.
+         */
+        private final int estimation;
+
+        /**
+         * Node from which this one was reached, or null for the initial state.
+         */
+        private final Node parent;
+
+        /**
+         * Position of the first cell of the move which led to this node.
+         */
+        private final int first;
+
+        /**
+         * Position of the second cell of the move which led to this node, or -1 if it was a rotation.
+         */
+        private final int second;
+
+        /**
+         * Constructor.
+         *
+         * @param key Board of this node.
+         * @param cost Number of moves from the initial state.
+         * @param estimation Cost plus the estimation of the remaining moves.
+         * @param parent Node from which this one was reached.
+         * @param first Position of the first cell of the move.
+         * @param second Position of the second cell of the move, or -1 if it was a rotation.
+         */
+        private Node(StateKey key, int cost, int estimation, Node parent, int first, int second) {
+            this.key = key;
+            this.cost = cost;
+            this.estimation = estimation;
+            this.parent = parent;
+            this.first = first;
+            this.second = second;
+        }
+
+        /**
+         * Rebuilds the sequence of moves from the initial state to this node.
+         *
+         * @param space Search space, used to transform positions into coordinates.
+         * @return List of moves in the order in which they must be made.
+         */
+        private List<Move> toMoves(SearchSpace space) {
+            List<Move> moves = new ArrayList<>();
+            for (Node node = this; node.parent != null; node = node.parent) {
+                moves.add(space.toMove(node.first, node.second));
+            }
+            Collections.reverse(moves);
+            return moves;
+        }
+
+        /**
+         * Nodes with a lower estimation go first. In case of a tie, the deepest node goes first.
+         *
+         * @param other Node to compare with.
+         * @return Negative, zero or positive value as in {@link Comparable#compareTo(Object)}.
+         */
+        @Override
+        public int compareTo(Node other) {
+            if (estimation != other.estimation) {
+                return Integer.compare(estimation, other.estimation);
+            }
+            return Integer.compare(other.cost, cost);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package edu.uoc.trip.solver;
+
+import java.util.Arrays;
+
+/**
+ * Compact and hashable representation of a board state.
+ * <br/>
+ * Each cell is stored as the 4-bit ordinal of its CellType, so 16 cells fit in one long.
+ * The hash is computed once when the key is created. Each word is mixed before it is folded into the hash:
+ * {@link Arrays#hashCode(long[])} folds a long as (high ^ low), so swapping two cells which are 8 positions apart
+ * in the same word (a very common move) did not change the hash, and the maps of the solver degraded into trees.
+ *
+ * @author Estela Madariaga
+ * @version 1.0
+ */
+final class StateKey {
+
+    /**
+     * Number of cells which are packed in each long.
+     */
+    private static final int CELLS_PER_WORD = 16;
+
+    /**
+     * Packed ordinals of the cells in row-major order.
+     */
+    private final long[] words;
+
+    /**
+     * Precomputed hash code.
+     */
+    private final int hash;
+
+    /**
+     * Constructor. Use {@link #pack(byte[])} instead.
+     *
+     * @param words Packed ordinals.
+     */
+    private StateKey(long[] words) {
+        this.words = words;
+        this.hash = hash(words);
+    }
+
+    /**
+     * Computes the hash of the packed ordinals. Each word goes through the finalizer of SplitMix64,
+     * so every bit of the word affects the 32 bits of the hash.
+     *
+     * @param words Packed ordinals.
+     * @return Hash code.
+     */
+    private static int hash(long[] words) {
+        long h = 0;
+        for (long word : words) {
+            long z = word + h + 0x9E3779B97F4A7C15L;
+            z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+            z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+            h = z ^ (z >>> 31);
+        }
+        return (int) (h ^ (h >>> 32));
+    }
+
+    /**
+     * Packs the given board.
+     *
+     * @param cells Ordinals of the cell types of the board in row-major order.
+     * @return Key of the board.
+     */
+    static StateKey pack(byte[] cells) {
+        long[] words = new long[(cells.length + CELLS_PER_WORD - 1) / CELLS_PER_WORD];
+        for (int i = 0; i < cells.length; i++) {
+            words[i / CELLS_PER_WORD] |= ((long) cells[i]) << ((i % CELLS_PER_WORD) * 4);
+        }
+        return new StateKey(words);
+    }
+
+    /**
+     * Unpacks this key into the given array.
+     *
+     * @param cells Array in which the ordinals of the cell types are written. Its length is the number of cells.
+     */
+    void unpack(byte[] cells) {
+        for (int i = 0; i < cells.length; i++) {
+            cells[i] = (byte) ((words[i / CELLS_PER_WORD] >>> ((i % CELLS_PER_WORD) * 4)) & 0xF);
+        }
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj == this)
+            return true;
+        if (!(obj instanceof StateKey))
+            return false;
+        StateKey other = (StateKey) obj;
+        return hash == other.hash && Arrays.equals(words, other.words);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+}
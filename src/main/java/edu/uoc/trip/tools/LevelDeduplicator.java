@@ -0,0 +1,651 @@
+package edu.uoc.trip.tools;
+
+import edu.uoc.trip.model.cells.CellType;
+import edu.uoc.trip.model.levels.CompactLevel;
+import edu.uoc.trip.model.levels.Direction;
+import edu.uoc.trip.model.levels.Level;
+import edu.uoc.trip.model.levels.LevelException;
+import edu.uoc.trip.model.levels.LevelPack;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Command-line tool that finds duplicate levels in level folders (*.txt) and {@link LevelPack}s.
+ * <br/>
+ * Each level is reduced to a canonical form, which is the same for all the levels that are considered equal:
+ * <ul>
+ *     <li>{@link Mode#BOARD}: the same board, or the board mirrored horizontally. The mirror is the only symmetry
+ *     which keeps the starting cell in the last row and the finish cell in the first row. The mirrored cell types
+ *     are remapped, e.g. TOP_LEFT and TOP_RIGHT.</li>
+ *     <li>{@link Mode#PUZZLE}: the same puzzle with any scramble (or mirrored), i.e. the same fixed cells, the same
+ *     positions of the movable and rotatable cells and the same movable pieces. Any swap of movable cells and any
+ *     rotation can be made, so these levels can reach exactly the same boards.</li>
+ * </ul>
+ * The difficulty is not part of the canonical form. Of both orientations, the canonical form is the lowest one,
+ * and only its 64-bit hash is kept in the index. Therefore, two different levels are reported as duplicates only if
+ * their hashes collide, which is negligible even for millions of levels.
+ * <br/>
+ * The levels are streamed: they are read, hashed and forgotten one by one. The index is an open-addressing hash table
+ * with a fixed capacity (at most 64 bytes per distinct level), so the memory does not grow while the tool runs.
+ * <br/>
+ * Usage: LevelDeduplicator [--puzzle] [--capacity=N] (folder|file.pack)...
+ *
+ * @author Estela Madariaga
+ * @version 1.0
+ */
+public class LevelDeduplicator {
+
+    /**
+     * Default maximum number of distinct levels in the index.
+     */
+    public static final int DEFAULT_CAPACITY = 1 << 20;
+
+    /**
+     * Cell types indexed by their ordinal.
+     */
+    private static final CellType[] TYPES = CellType.values();
+
+    /**
+     * Ordinal of the cell type that is seen in a mirror of each cell type (left and right are exchanged).
+     */
+    private static final byte[] MIRROR = new byte[TYPES.length];
+
+    static {
+        for (CellType type : TYPES) {
+            int mask = type.getConnectionMask();
+            int left = 1 << Direction.LEFT.ordinal();
+            int right = 1 << Direction.RIGHT.ordinal();
+            int mirrored = (mask & ~(left | right)) | ((mask & left) != 0 ? right : 0) | ((mask & right) != 0 ? left : 0);
+
+            CellType image = type;
+            if (mirrored != mask) {
+                for (CellType other : TYPES) {
+                    if (other.getConnectionMask() == mirrored
+                            && CompactLevel.isMovableType(other.ordinal()) == CompactLevel.isMovableType(type.ordinal())
+                            && CompactLevel.isRotatableType(other.ordinal()) == CompactLevel.isRotatableType(type.ordinal())) {
+                        image = other;
+                    }
+                }
+            }
+            MIRROR[type.ordinal()] = (byte) image.ordinal();
+        }
+    }
+
+    /**
+     * Criterion of equality of the levels.
+     */
+    public enum Mode {
+        /* Same board, or mirrored. */
+        BOARD,
+        /* Same puzzle with any scramble, or mirrored. */
+        PUZZLE
+    }
+
+    /**
+     * Criterion of equality of the levels.
+     */
+    private final Mode mode;
+
+    /**
+     * Maximum number of distinct levels in the index.
+     */
+    private final int capacity;
+
+    /**
+     * Hashes of the canonical forms (0 = empty slot).
+     */
+    private final long[] hashes;
+
+    /**
+     * Number of the first level of each slot.
+     */
+    private final int[] firsts;
+
+    /**
+     * Number of levels of each slot.
+     */
+    private final int[] counts;
+
+    /**
+     * Number of levels which have been added.
+     */
+    private int numLevels = 0;
+
+    /**
+     * Number of the next level. The levels which cannot be read are numbered too.
+     */
+    private int nextId = 0;
+
+    /**
+     * Number of distinct levels in the index.
+     */
+    private int numDistinct = 0;
+
+    /**
+     * Constructor.
+     *
+     * @param mode Criterion of equality of the levels.
+     * @param capacity Maximum number of distinct levels in the index.
+     */
+    public LevelDeduplicator(Mode mode, int capacity) {
+        if (capacity <= 0 || capacity > (1 << 28)) {
+            throw new IllegalArgumentException("The capacity must be in the range [1, 2^28]");
+        }
+        this.mode = mode;
+        this.capacity = capacity;
+
+        //The load factor is at most 0.5, so the probes are short.
+        int slots = Integer.highestOneBit(capacity) << 2;
+        this.hashes = new long[slots];
+        this.firsts = new int[slots];
+        this.counts = new int[slots];
+    }
+
+    /**
+     * Computes the hash of the canonical form of a level.
+     *
+     * @param level Level.
+     * @param mode Criterion of equality of the levels.
+     * @return Hash of the canonical form. Equal levels have the same hash.
+     */
+    public static long canonicalHash(CompactLevel level, Mode mode) {
+        int size = level.getSize();
+        byte[] cells = level.toByteArray();
+        int[] form = canonicalForm(cells, size, mode, false);
+        int[] mirrored = canonicalForm(cells, size, mode, true);
+
+        int[] lowest = Arrays.compare(form, mirrored) <= 0 ? form : mirrored;
+        return hash(size, lowest);
+    }
+
+    /**
+     * Builds the canonical form of a board in one orientation: the cells in row-major order (in PUZZLE mode, the
+     * movable cells are FREE and the rotatable cells are ROTATABLE_VERTICAL), followed by the number of movable
+     * pieces of each cell type in PUZZLE mode.
+     *
+     * @param cells Ordinals of the cell types of the board in row-major order.
+     * @param size Size of the board.
+     * @param mode Criterion of equality of the levels.
+     * @param mirror True to mirror the board horizontally.
+     * @return Canonical form of this orientation.
+     */
+    private static int[] canonicalForm(byte[] cells, int size, Mode mode, boolean mirror) {
+        int[] form = new int[cells.length + (mode == Mode.PUZZLE ? TYPES.length : 0)];
+        for (int row = 0; row < size; row++) {
+            for (int column = 0; column < size; column++) {
+                int type = cells[row * size + (mirror ? size - 1 - column : column)];
+                if (mirror) {
+                    type = MIRROR[type];
+                }
+
+                if (mode == Mode.PUZZLE && CompactLevel.isMovableType(type)) {
+                    form[cells.length + type]++;
+                    type = CellType.FREE.ordinal();
+                } else if (mode == Mode.PUZZLE && CompactLevel.isRotatableType(type)) {
+                    type = CellType.ROTATABLE_VERTICAL.ordinal();
+                }
+                form[row * size + column] = type;
+            }
+        }
+        return form;
+    }
+
+    /**
+     * 64-bit hash of a canonical form: FNV-1a of its values, finished with the SplitMix64 mixing function.
+     *
+     * @param size Size of the board.
+     * @param form Canonical form.
+     * @return Hash, which is never 0 (the empty slots of the index).
+     */
+    private static long hash(int size, int[] form) {
+        long h = 0xCBF29CE484222325L ^ size;
+        for (int value : form) {
+            h = (h ^ value) * 0x100000001B3L;
+        }
+        h = (h ^ (h >>> 30)) * 0xBF58476D1CE4E5B9L;
+        h = (h ^ (h >>> 27)) * 0x94D049BB133111EBL;
+        h ^= h >>> 31;
+        return h == 0 ? 1 : h;
+    }
+
+    /**
+     * Adds a level to the index.
+     *
+     * @param level Level. Its number is the number of levels which have been added (or skipped) before.
+     * @return Number of the first level which is equal to this one, or -1 if it is the first one.
+     * @throws IllegalStateException When the index is full.
+     */
+    public int add(CompactLevel level) {
+        long hash = canonicalHash(level, mode);
+        int mask = hashes.length - 1;
+        int slot = (int) (hash ^ (hash >>> 32)) & mask;
+        while (hashes[slot] != 0 && hashes[slot] != hash) {
+            slot = (slot + 1) & mask;
+        }
+
+        if (hashes[slot] == hash) {
+            nextId++;
+            numLevels++;
+            counts[slot]++;
+            return firsts[slot];
+        }
+
+        if (numDistinct == capacity) {
+            throw new IllegalStateException("The index is full (" + capacity + " distinct levels)");
+        }
+        int id = nextId++;
+        numLevels++;
+        numDistinct++;
+        hashes[slot] = hash;
+        firsts[slot] = id;
+        counts[slot] = 1;
+        return -1;
+    }
+
+    /**
+     * Finds the duplicates of the levels of some folders (their *.txt files, in alphabetical order) and pack files.
+     * The levels which cannot be read are skipped.
+     *
+     * @param inputs Folders and pack files.
+     * @param listener Object which receives each duplicate as soon as it is found.
+     * @return Summary of the deduplication.
+     * @throws IOException When an input cannot be read.
+     */
+    public Summary deduplicate(List<Path> inputs, Consumer<Duplicate> listener) throws IOException {
+        long startTime = System.nanoTime();
+        List<Source> sources = new ArrayList<>();
+        int invalid = 0;
+
+        for (Path input : inputs) {
+            Source source = Source.open(input, nextId);
+            sources.add(source);
+
+            for (int i = 0; i < source.size(); i++) {
+                CompactLevel level;
+                try {
+                    level = source.read(i);
+                } catch (LevelException | IOException | RuntimeException e) {
+                    //Malformed files can also fail with runtime exceptions (e.g. a missing row).
+                    invalid++;
+                    nextId++;
+                    continue;
+                }
+
+                int id = nextId;
+                int first = add(level);
+                if (first >= 0) {
+                    listener.accept(new Duplicate(name(sources, id), name(sources, first)));
+                }
+            }
+        }
+
+        return getSummary(invalid, System.nanoTime() - startTime);
+    }
+
+    /**
+     * Returns the name of a level from its number.
+     *
+     * @param sources Inputs which have been read.
+     * @param id Number of the level.
+     * @return Name of the level (name of the file, or name of the pack and index).
+     */
+    private static String name(List<Source> sources, int id) {
+        for (int i = sources.size() - 1; i >= 0; i--) {
+            Source source = sources.get(i);
+            if (id >= source.firstId) {
+                return source.name(source.index(id));
+            }
+        }
+        throw new IndexOutOfBoundsException("Level " + id);
+    }
+
+    /**
+     * Builds the summary of the levels which have been added.
+     *
+     * @param invalid Number of levels which have been skipped.
+     * @param elapsedNanos Wall time in nanoseconds.
+     * @return Summary.
+     */
+    private Summary getSummary(int invalid, long elapsedNanos) {
+        int clusters = 0;
+        int largest = 0;
+        for (int count : counts) {
+            if (count > 1) {
+                clusters++;
+                largest = Math.max(largest, count);
+            }
+        }
+        return new Summary(numLevels, invalid, numDistinct, clusters, largest, elapsedNanos);
+    }
+
+    /**
+     * Entry point of the tool. It prints each duplicate and a summary.
+     *
+     * @param args Options and inputs: "--puzzle" to use the PUZZLE mode, "--capacity=N" for the maximum number of
+     *             distinct levels, and the folders and pack files.
+     */
+    public static void main(String[] args) {
+        Mode mode = Mode.BOARD;
+        int capacity = DEFAULT_CAPACITY;
+        List<Path> inputs = new ArrayList<>();
+        for (String arg : args) {
+            if (arg.equals("--puzzle")) {
+                mode = Mode.PUZZLE;
+            } else if (arg.startsWith("--capacity=")) {
+                capacity = Integer.parseInt(arg.substring("--capacity=".length()));
+            } else {
+                inputs.add(Path.of(arg));
+            }
+        }
+
+        if (inputs.isEmpty()) {
+            System.err.println("Usage: LevelDeduplicator [--puzzle] [--capacity=N] (folder|file.pack)...");
+            System.exit(1);
+        }
+
+        try {
+            Summary summary = new LevelDeduplicator(mode, capacity).deduplicate(inputs, System.out::println);
+            System.out.println(summary);
+            System.exit(summary.getNumDuplicates() == 0 ? 0 : 2);
+        } catch (IOException | IllegalStateException e) {
+            System.err.println("ERROR: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Input of the tool: a folder of level files or a pack file.
+     */
+    private static final class Source {
+
+        /**
+         * Path of the input.
+         */
+        private final Path path;
+
+        /**
+         * Number of the first level of the input.
+         */
+        private final int firstId;
+
+        /**
+         * Level files of the folder, or null if it is a pack.
+         */
+        private final List<Path> files;
+
+        /**
+         * Pack, or null if it is a folder.
+         */
+        private final LevelPack pack;
+
+        /**
+         * Constructor.
+         *
+         * @param path Path of the input.
+         * @param firstId Number of the first level of the input.
+         * @param files Level files of the folder, or null if it is a pack.
+         * @param pack Pack, or null if it is a folder.
+         */
+        private Source(Path path, int firstId, List<Path> files, LevelPack pack) {
+            this.path = path;
+            this.firstId = firstId;
+            this.files = files;
+            this.pack = pack;
+        }
+
+        /**
+         * Opens an input.
+         *
+         * @param path Folder or pack file.
+         * @param firstId Number of the first level of the input.
+         * @return Input.
+         * @throws IOException When the input cannot be read.
+         */
+        private static Source open(Path path, int firstId) throws IOException {
+            if (!Files.isDirectory(path)) {
+                return new Source(path, firstId, null, LevelPack.open(path));
+            }
+
+            try (Stream<Path> list = Files.list(path)) {
+                return new Source(path, firstId,
+                        list.filter(file -> Files.isRegularFile(file) && file.toString().endsWith(".txt")).sorted().toList(),
+                        null);
+            }
+        }
+
+        /**
+         * Returns the number of levels of the input.
+         *
+         * @return Number of levels (or files, which may not be valid levels).
+         */
+        private int size() {
+            return pack != null ? pack.size() : files.size();
+        }
+
+        /**
+         * Reads a level of the input.
+         *
+         * @param index Index of the level in the input.
+         * @return Level.
+         * @throws LevelException When the level is not valid.
+         * @throws IOException When the file cannot be read.
+         */
+        private CompactLevel read(int index) throws LevelException, IOException {
+            if (pack != null) {
+                return pack.getCompactLevel(index);
+            }
+            try (BufferedReader reader = Files.newBufferedReader(files.get(index), StandardCharsets.UTF_8)) {
+                return new CompactLevel(new Level(reader));
+            }
+        }
+
+        /**
+         * Returns the index of a level in the input from its number. The levels which cannot be read
+         * have a number too, so all the levels of the input have consecutive numbers.
+         *
+         * @param id Number of the level.
+         * @return Index of the level in the input.
+         */
+        private int index(int id) {
+            return id - firstId;
+        }
+
+        /**
+         * Returns the name of a level of the input.
+         *
+         * @param index Index of the level in the input.
+         * @return Name of the file, or name of the pack and index.
+         */
+        private String name(int index) {
+            return pack != null ? path.getFileName() + "#" + index : files.get(index).getFileName().toString();
+        }
+    }
+
+    /**
+     * Level which is equal to a previous one.
+     */
+    public static final class Duplicate {
+
+        /**
+         * Name of the level.
+         */
+        private final String name;
+
+        /**
+         * Name of the first level of its cluster.
+         */
+        private final String original;
+
+        /**
+         * Constructor.
+         *
+         * @param name Name of the level.
+         * @param original Name of the first level of its cluster.
+         */
+        private Duplicate(String name, String original) {
+            this.name = name;
+            this.original = original;
+        }
+
+        /**
+         * Getter of the attribute "name".
+         *
+         * @return Name of the level.
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Getter of the attribute "original".
+         *
+         * @return Name of the first level of its cluster, i.e. the level which is kept.
+         */
+        public String getOriginal() {
+            return original;
+        }
+
+        @Override
+        public String toString() {
+            return name + ": DUPLICATE of " + original;
+        }
+    }
+
+    /**
+     * Summary of a deduplication.
+     */
+    public static final class Summary {
+
+        /**
+         * Number of levels which have been read.
+         */
+        private final int numLevels;
+
+        /**
+         * Number of levels which cannot be read.
+         */
+        private final int numInvalid;
+
+        /**
+         * Number of distinct levels.
+         */
+        private final int numDistinct;
+
+        /**
+         * Number of clusters, i.e. distinct levels which have duplicates.
+         */
+        private final int numClusters;
+
+        /**
+         * Number of levels of the largest cluster.
+         */
+        private final int largestCluster;
+
+        /**
+         * Wall time in nanoseconds.
+         */
+        private final long elapsedNanos;
+
+        /**
+         * Constructor.
+         *
+         * @param numLevels Number of levels which have been read.
+         * @param numInvalid Number of levels which cannot be read.
+         * @param numDistinct Number of distinct levels.
+         * @param numClusters Number of clusters.
+         * @param largestCluster Number of levels of the largest cluster.
+         * @param elapsedNanos Wall time in nanoseconds.
+         */
+        private Summary(int numLevels, int numInvalid, int numDistinct, int numClusters, int largestCluster,
+                        long elapsedNanos) {
+            this.numLevels = numLevels;
+            this.numInvalid = numInvalid;
+            this.numDistinct = numDistinct;
+            this.numClusters = numClusters;
+            this.largestCluster = largestCluster;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        /**
+         * Getter of the attribute "numLevels".
+         *
+         * @return Number of levels which have been read.
+         */
+        public int getNumLevels() {
+            return numLevels;
+        }
+
+        /**
+         * Getter of the attribute "numInvalid".
+         *
+         * @return Number of levels which cannot be read.
+         */
+        public int getNumInvalid() {
+            return numInvalid;
+        }
+
+        /**
+         * Getter of the attribute "numDistinct".
+         *
+         * @return Number of distinct levels.
+         */
+        public int getNumDistinct() {
+            return numDistinct;
+        }
+
+        /**
+         * Returns the number of duplicates, i.e. the levels which can be removed.
+         *
+         * @return Number of duplicates.
+         */
+        public int getNumDuplicates() {
+            return numLevels - numDistinct;
+        }
+
+        /**
+         * Getter of the attribute "numClusters".
+         *
+         * @return Number of distinct levels which have duplicates.
+         */
+        public int getNumClusters() {
+            return numClusters;
+        }
+
+        /**
+         * Getter of the attribute "largestCluster".
+         *
+         * @return Number of levels of the largest cluster, or 0 if there are no duplicates.
+         */
+        public int getLargestCluster() {
+            return largestCluster;
+        }
+
+        /**
+         * Returns the throughput of the deduplication.
+         *
+         * @return Number of levels per second.
+         */
+        public double getLevelsPerSecond() {
+            return elapsedNanos == 0 ? 0 : numLevels * 1_000_000_000.0 / elapsedNanos;
+        }
+
+        @Override
+        public String toString() {
+            return numLevels + " levels in " + elapsedNanos / 1_000_000 + " ms ("
+                    + String.format("%.1f", getLevelsPerSecond()) + " levels/s)" + System.lineSeparator()
+                    + "  DISTINCT: " + numDistinct + System.lineSeparator()
+                    + "  DUPLICATES: " + getNumDuplicates() + " in " + numClusters + " clusters (largest: "
+                    + largestCluster + ")" + System.lineSeparator()
+                    + "  INVALID: " + numInvalid;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package edu.uoc.trip.tools;
+
+import edu.uoc.trip.controller.LevelIndex;
+import edu.uoc.trip.model.levels.CompactLevel;
+import edu.uoc.trip.model.levels.Level;
+import edu.uoc.trip.model.levels.LevelException;
+import edu.uoc.trip.model.levels.LevelPack;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Command-line tool that converts the level files (levelN.txt) of one or more folders into a {@link LevelPack}.
+ * <br/>
+ * Usage: LevelPackConverter output.pack [folder...]. The folders are looked up in the classpath, like in
+ * {@link edu.uoc.trip.controller.Game}, and "levels/" is used if no folder is given.
+ * The levels of each folder are written in the order of their numbers.
+ *
+ * @author Estela Madariaga
+ * @version 1.0
+ */
+public class LevelPackConverter {
+
+    /**
+     * Private constructor so that this tool is not instantiated.
+     */
+    private LevelPackConverter() {
+    }
+
+    /**
+     * Converts the levels of the given folders.
+     *
+     * @param folders Folders (in the classpath) which contain the level files, e.g. "levels/".
+     * @return Levels of all the folders, in their initial state.
+     * @throws IOException When a folder cannot be read.
+     * @throws LevelException When a level file is not valid.
+     */
+    public static List<CompactLevel> convert(List<String> folders) throws IOException, LevelException {
+        List<CompactLevel> levels = new ArrayList<>();
+        for (String folder : folders) {
+            int numLevels = LevelIndex.load(folder).size();
+            for (int i = 1; i <= numLevels; i++) {
+                levels.add(new CompactLevel(new Level(folder + "level" + i + ".txt")));
+            }
+        }
+        return levels;
+    }
+
+    /**
+     * Entry point of the tool.
+     *
+     * @param args Path of the output pack, followed by the folders which contain the level files.
+     */
+    public static void main(String[] args) {
+        if (args.length < 1) {
+            System.err.println("Usage: LevelPackConverter output.pack [folder...]");
+            System.exit(1);
+        }
+
+        List<String> folders = args.length > 1 ? List.of(args).subList(1, args.length) : List.of("levels/");
+        try {
+            List<CompactLevel> levels = convert(folders);
+            LevelPack.write(levels, Path.of(args[0]));
+            System.out.println(levels.size() + " levels written to " + args[0]);
+        } catch (IOException | LevelException e) {
+            System.err.println("ERROR: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+}
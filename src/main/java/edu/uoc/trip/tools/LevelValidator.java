@@ -0,0 +1,585 @@
+package edu.uoc.trip.tools;
+
+import edu.uoc.trip.model.levels.Level;
+import edu.uoc.trip.model.levels.LevelException;
+import edu.uoc.trip.model.levels.LevelPack;
+import edu.uoc.trip.solver.Solution;
+import edu.uoc.trip.solver.Solver;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Command-line tool that validates a folder of level files (*.txt) or a {@link LevelPack} in bulk.
+ * <br/>
+ * The levels flow through a pipeline of stages which are connected by bounded queues,
+ * so a fast stage blocks (backpressure) instead of filling the memory when the next stage is slower:
+ * <ol>
+ *     <li>Read: one thread reads the files (or the records of the pack).</li>
+ *     <li>Parse and structural checks: several threads build the levels, which checks the board's
+ *     requirements (one starting cell in the last row, one finish cell in the first row, one road at least).
+ *     Both checks are done by the constructors of {@link Level}, so they are in the same stage.</li>
+ *     <li>Solvability: several threads search a solution with {@link Solver}, with a limit of expanded states.</li>
+ * </ol>
+ * If a stage fails (e.g. the listener of the results throws an exception), the pipeline is aborted: the other stages
+ * stop waiting for their queues and {@link #validate(Path, Consumer)} throws an IOException instead of blocking.
+ * <br/>
+ * Usage: LevelValidator (folder|file.pack) [threads] [maxNodes].
+ *
+ * @author Estela Madariaga
+ * @version 1.0
+ */
+public class LevelValidator {
+
+    /**
+     * Default capacity of the queues between stages.
+     */
+    public static final int DEFAULT_QUEUE_CAPACITY = 256;
+
+    /**
+     * Default maximum number of states that the solvability check can expand for each level.
+     */
+    public static final long DEFAULT_MAX_NODES = 200_000;
+
+    /**
+     * Maximum time in milliseconds that a stage waits for a queue before it checks if the pipeline has been aborted.
+     */
+    private static final long POLL_MILLIS = 50;
+
+    /**
+     * Number of threads of each parallel stage.
+     */
+    private final int numThreads;
+
+    /**
+     * Capacity of the queues between stages.
+     */
+    private final int queueCapacity;
+
+    /**
+     * Maximum number of states that the solvability check can expand for each level.
+     */
+    private final long maxNodes;
+
+    /**
+     * Status of a validated level.
+     */
+    public enum Status {
+        /* The level is correct and it can be solved. */
+        VALID,
+        /* The level file cannot be read or it does not satisfy the board's requirements. */
+        INVALID,
+        /* The level cannot be solved. */
+        UNSOLVABLE,
+        /* The solver reached its limit of expanded states before finding a solution. */
+        UNKNOWN
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param numThreads Number of threads of each parallel stage.
+     * @param queueCapacity Capacity of the queues between stages.
+     * @param maxNodes Maximum number of states that the solvability check can expand for each level.
+     */
+    public LevelValidator(int numThreads, int queueCapacity, long maxNodes) {
+        if (numThreads <= 0 || queueCapacity <= 0) {
+            throw new IllegalArgumentException("The number of threads and the capacity of the queues must be positive");
+        }
+        this.numThreads = numThreads;
+        this.queueCapacity = queueCapacity;
+        this.maxNodes = maxNodes;
+    }
+
+    /**
+     * Validates all the levels of a folder (its *.txt files, in alphabetical order) or of a pack file.
+     *
+     * @param input Folder or pack file.
+     * @param listener Object which receives the result of each level, from the thread of the last stage
+     *                 which has processed it. The results are not ordered.
+     * @return Summary of the validation.
+     * @throws IOException When the input cannot be read or a stage of the pipeline fails
+     * (e.g. the listener throws an exception).
+     * @throws InterruptedException When the thread is interrupted while it waits for the pipeline.
+     */
+    public Summary validate(Path input, Consumer<Result> listener) throws IOException, InterruptedException {
+        long startTime = System.nanoTime();
+        BlockingQueue<Item> parseQueue = new ArrayBlockingQueue<>(queueCapacity);
+        BlockingQueue<Item> solveQueue = new ArrayBlockingQueue<>(queueCapacity);
+        int[] counters = new int[Status.values().length];
+        Consumer<Result> collector = result -> {
+            synchronized (counters) {
+                counters[result.getStatus().ordinal()]++;
+            }
+            listener.accept(result);
+        };
+
+        LevelPack pack = Files.isDirectory(input) ? null : LevelPack.open(input);
+        ExecutorService executor = Executors.newFixedThreadPool(2 * numThreads);
+        List<Future<?>> stages = new ArrayList<>();
+        AtomicInteger activeParsers = new AtomicInteger(numThreads);
+        AtomicBoolean aborted = new AtomicBoolean(false);
+
+        try {
+            for (int i = 0; i < numThreads; i++) {
+                stages.add(executor.submit(abortOnFailure(aborted, () -> {
+                    parseStage(pack, parseQueue, solveQueue, collector, aborted);
+                    if (activeParsers.decrementAndGet() == 0) {
+                        for (int j = 0; j < numThreads; j++) {
+                            put(solveQueue, Item.END, aborted);
+                        }
+                    }
+                })));
+                stages.add(executor.submit(abortOnFailure(aborted, () -> solveStage(solveQueue, collector, aborted))));
+            }
+
+            //The read stage runs in the calling thread.
+            readStage(input, pack, parseQueue, aborted);
+            for (int i = 0; i < numThreads; i++) {
+                put(parseQueue, Item.END, aborted);
+            }
+
+            for (Future<?> stage : stages) {
+                stage.get();
+            }
+        } catch (ExecutionException e) {
+            throw new IOException("A stage of the pipeline failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        return new Summary(counters, System.nanoTime() - startTime);
+    }
+
+    /**
+     * Wraps a stage so that the pipeline is aborted if the stage fails.
+     *
+     * @param aborted Flag which is set when a stage fails.
+     * @param stage Stage to run.
+     * @return Task of the executor.
+     */
+    private static Callable<Void> abortOnFailure(AtomicBoolean aborted, Stage stage) {
+        return () -> {
+            try {
+                stage.run();
+                return null;
+            } catch (InterruptedException | RuntimeException | Error e) {
+                aborted.set(true);
+                throw e;
+            }
+        };
+    }
+
+    /**
+     * Puts an item in a queue. While the queue is full, it checks periodically if the pipeline has been aborted.
+     *
+     * @param queue Queue of the next stage.
+     * @param item Item to put.
+     * @param aborted Flag which is set when a stage fails.
+     * @return True if the item has been put. False, if the pipeline has been aborted.
+     * @throws InterruptedException When the thread is interrupted while it waits for the queue.
+     */
+    private static boolean put(BlockingQueue<Item> queue, Item item, AtomicBoolean aborted) throws InterruptedException {
+        while (!queue.offer(item, POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+            if (aborted.get()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Takes the next item of a queue. While the queue is empty, it checks periodically if the pipeline has been aborted.
+     *
+     * @param queue Queue of the stage.
+     * @param aborted Flag which is set when a stage fails.
+     * @return Next item, or {@link Item#END} if the pipeline has been aborted.
+     * @throws InterruptedException When the thread is interrupted while it waits for the queue.
+     */
+    private static Item take(BlockingQueue<Item> queue, AtomicBoolean aborted) throws InterruptedException {
+        Item item;
+        while ((item = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS)) == null) {
+            if (aborted.get()) {
+                return Item.END;
+            }
+        }
+        return item;
+    }
+
+    /**
+     * Read stage: it puts the content of each level file (or the index of each level of the pack) in the queue.
+     *
+     * @param input Folder or pack file.
+     * @param pack Pack, or null if the input is a folder.
+     * @param parseQueue Queue of the next stage.
+     * @param aborted Flag which is set when a stage fails.
+     * @throws IOException When the folder cannot be read.
+     * @throws InterruptedException When the thread is interrupted while it waits for the queue.
+     */
+    private void readStage(Path input, LevelPack pack, BlockingQueue<Item> parseQueue, AtomicBoolean aborted)
+            throws IOException, InterruptedException {
+        if (pack != null) {
+            for (int i = 0; i < pack.size(); i++) {
+                if (!put(parseQueue, new Item(input.getFileName() + "#" + i, null, i), aborted)) {
+                    return;
+                }
+            }
+            return;
+        }
+
+        List<Path> files;
+        try (Stream<Path> list = Files.list(input)) {
+            files = list.filter(file -> Files.isRegularFile(file) && file.toString().endsWith(".txt")).sorted().toList();
+        }
+
+        for (Path file : files) {
+            String content;
+            try {
+                content = Files.readString(file, StandardCharsets.UTF_8);
+            } catch (IOException e) {
+                content = null; //it is reported by the parse stage
+            }
+            if (!put(parseQueue, new Item(file.getFileName().toString(), content, -1), aborted)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Parse stage: it builds the levels (which also checks the board's requirements). The invalid levels
+     * are reported and the valid ones are put in the queue of the solvability stage.
+     *
+     * @param pack Pack, or null if the input is a folder.
+     * @param parseQueue Queue of this stage.
+     * @param solveQueue Queue of the next stage.
+     * @param collector Receiver of the results.
+     * @param aborted Flag which is set when a stage fails.
+     * @throws InterruptedException When the thread is interrupted while it waits for a queue.
+     */
+    private void parseStage(LevelPack pack, BlockingQueue<Item> parseQueue, BlockingQueue<Item> solveQueue,
+                            Consumer<Result> collector, AtomicBoolean aborted) throws InterruptedException {
+        for (Item item = take(parseQueue, aborted); item != Item.END; item = take(parseQueue, aborted)) {
+            try {
+                if (pack != null) {
+                    item.level = pack.getLevel(item.index);
+                } else if (item.content != null) {
+                    item.level = new Level(new BufferedReader(new StringReader(item.content)));
+                } else {
+                    throw new LevelException(LevelException.ERROR_PARSING_LEVEL_FILE);
+                }
+                item.content = null;
+            } catch (LevelException | RuntimeException e) {
+                //Malformed files can also fail with runtime exceptions (e.g. a missing row).
+                String message = e instanceof LevelException ? e.getMessage() : LevelException.ERROR_PARSING_LEVEL_FILE;
+                collector.accept(new Result(item.name, Status.INVALID, message, -1));
+                continue;
+            }
+
+            if (!put(solveQueue, item, aborted)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Solvability stage: it searches a solution of each level.
+     *
+     * @param solveQueue Queue of this stage.
+     * @param collector Receiver of the results.
+     * @param aborted Flag which is set when a stage fails.
+     * @throws InterruptedException When the thread is interrupted while it waits for the queue.
+     */
+    private void solveStage(BlockingQueue<Item> solveQueue, Consumer<Result> collector, AtomicBoolean aborted)
+            throws InterruptedException {
+        Solver solver = new Solver(maxNodes);
+        for (Item item = take(solveQueue, aborted); item != Item.END; item = take(solveQueue, aborted)) {
+            Result result;
+            try {
+                Solution solution = solver.solve(item.level);
+                if (solution.isFound()) {
+                    result = new Result(item.name, Status.VALID, null, solution.getNumMoves());
+                } else if (solution.getNodesExpanded() >= maxNodes) {
+                    result = new Result(item.name, Status.UNKNOWN,
+                            "No solution found in " + maxNodes + " expanded states", -1);
+                } else {
+                    result = new Result(item.name, Status.UNSOLVABLE, "This level cannot be solved", -1);
+                }
+            } catch (LevelException e) {
+                result = new Result(item.name, Status.INVALID, e.getMessage(), -1);
+            } catch (RuntimeException e) {
+                //A failure of the solver only affects its level: its solvability is unknown.
+                result = new Result(item.name, Status.UNKNOWN, "The solver failed: " + e, -1);
+            }
+            collector.accept(result);
+        }
+    }
+
+    /**
+     * Entry point of the tool. It prints the levels which are not valid and a summary.
+     *
+     * @param args Folder or pack file, and optionally the number of threads and the limit of expanded states.
+     */
+    public static void main(String[] args) {
+        if (args.length < 1) {
+            System.err.println("Usage: LevelValidator (folder|file.pack) [threads] [maxNodes]");
+            System.exit(1);
+        }
+
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        long maxNodes = args.length > 2 ? Long.parseLong(args[2]) : DEFAULT_MAX_NODES;
+        LevelValidator validator = new LevelValidator(threads, DEFAULT_QUEUE_CAPACITY, maxNodes);
+
+        try {
+            Summary summary = validator.validate(Path.of(args[0]), result -> {
+                if (result.getStatus() != Status.VALID) {
+                    System.out.println(result);
+                }
+            });
+            System.out.println(summary);
+            System.exit(summary.getCount(Status.VALID) == summary.getTotal() ? 0 : 2);
+        } catch (IOException e) {
+            System.err.println("ERROR: " + e.getMessage());
+            System.exit(1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Stage of the pipeline which runs in a thread of the executor.
+     */
+    @FunctionalInterface
+    private interface Stage {
+
+        /**
+         * Runs the stage until its queue is finished or the pipeline is aborted.
+         *
+         * @throws InterruptedException When the thread is interrupted while it waits for a queue.
+         */
+        void run() throws InterruptedException;
+    }
+
+    /**
+     * Level which flows through the pipeline.
+     */
+    private static final class Item {
+
+        /**
+         * Marker which tells a stage that there are no more items.
+         */
+        private static final Item END = new Item(null, null, -1);
+
+        /**
+         * Name of the level (name of the file, or name of the pack and index).
+         */
+        private final String name;
+
+        /**
+         * Index of the level in the pack, or -1 if it is a file.
+         */
+        private final int index;
+
+        /**
+         * Content of the level file, or null if it is in a pack or it cannot be read.
+         */
+        private String content;
+
+        /**
+         * Level built by the parse stage.
+         */
+        private Level level;
+
+        /**
+         * Constructor.
+         *
+         * @param name Name of the level.
+         * @param content Content of the level file.
+         * @param index Index of the level in the pack, or -1 if it is a file.
+         */
+        private Item(String name, String content, int index) {
+            this.name = name;
+            this.content = content;
+            this.index = index;
+        }
+    }
+
+    /**
+     * Result of the validation of a level.
+     */
+    public static final class Result {
+
+        /**
+         * Name of the level.
+         */
+        private final String name;
+
+        /**
+         * Status of the level.
+         */
+        private final Status status;
+
+        /**
+         * Error message (e.g. the message of the LevelException), or null if the level is valid.
+         */
+        private final String message;
+
+        /**
+         * Minimum number of moves to solve the level, or -1 if it is not valid.
+         */
+        private final int minMoves;
+
+        /**
+         * Constructor.
+         *
+         * @param name Name of the level.
+         * @param status Status of the level.
+         * @param message Error message, or null if the level is valid.
+         * @param minMoves Minimum number of moves to solve the level, or -1 if it is not valid.
+         */
+        private Result(String name, Status status, String message, int minMoves) {
+            this.name = name;
+            this.status = status;
+            this.message = message;
+            this.minMoves = minMoves;
+        }
+
+        /**
+         * Getter of the attribute "name".
+         *
+         * @return Name of the level.
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Getter of the attribute "status".
+         *
+         * @return Status of the level.
+         */
+        public Status getStatus() {
+            return status;
+        }
+
+        /**
+         * Getter of the attribute "message".
+         *
+         * @return Error message, or null if the level is valid.
+         */
+        public String getMessage() {
+            return message;
+        }
+
+        /**
+         * Getter of the attribute "minMoves".
+         *
+         * @return Minimum number of moves to solve the level, or -1 if it is not valid.
+         */
+        public int getMinMoves() {
+            return minMoves;
+        }
+
+        @Override
+        public String toString() {
+            return name + ": " + status + (message == null ? " (" + minMoves + " moves)" : " " + message);
+        }
+    }
+
+    /**
+     * Summary of a validation.
+     */
+    public static final class Summary {
+
+        /**
+         * Number of levels of each status, indexed by the ordinal of the status.
+         */
+        private final int[] counters;
+
+        /**
+         * Wall time of the validation in nanoseconds.
+         */
+        private final long elapsedNanos;
+
+        /**
+         * Constructor.
+         *
+         * @param counters Number of levels of each status.
+         * @param elapsedNanos Wall time of the validation in nanoseconds.
+         */
+        private Summary(int[] counters, long elapsedNanos) {
+            this.counters = counters.clone();
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        /**
+         * Returns the number of levels with the given status.
+         *
+         * @param status Status of the levels.
+         * @return Number of levels.
+         */
+        public int getCount(Status status) {
+            return counters[status.ordinal()];
+        }
+
+        /**
+         * Returns the number of validated levels.
+         *
+         * @return Number of levels.
+         */
+        public int getTotal() {
+            int total = 0;
+            for (int counter : counters) {
+                total += counter;
+            }
+            return total;
+        }
+
+        /**
+         * Getter of the attribute "elapsedNanos".
+         *
+         * @return Wall time of the validation in nanoseconds.
+         */
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        /**
+         * Returns the throughput of the validation.
+         *
+         * @return Number of validated levels per second.
+         */
+        public double getLevelsPerSecond() {
+            return elapsedNanos == 0 ? 0 : getTotal() * 1_000_000_000.0 / elapsedNanos;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder text = new StringBuilder();
+            text.append(getTotal()).append(" levels in ").append(elapsedNanos / 1_000_000).append(" ms (")
+                    .append(String.format("%.1f", getLevelsPerSecond())).append(" levels/s)");
+            for (Status status : Status.values()) {
+                text.append(System.lineSeparator()).append("  ").append(status).append(": ").append(getCount(status));
+            }
+            return text.toString();
+        }
+    }
+}
@@ -1,11 +1,15 @@
 package edu.uoc.trip.view.cmd;
 
 import edu.uoc.trip.controller.Game;
+import edu.uoc.trip.controller.SessionLog;
 import edu.uoc.trip.model.cells.RotatableCell;
 import edu.uoc.trip.model.levels.LevelException;
 import edu.uoc.trip.model.utils.Coordinate;
+import edu.uoc.trip.solver.HintEngine;
+import edu.uoc.trip.solver.Move;
 
 import java.io.IOException;
+import java.nio.file.Path;
 import java.util.Scanner;
 
 /**
@@ -47,9 +51,27 @@ public class CmdApp {
             while (!game.isLevelSolved()) {
                 System.out.println("Moves done: "+game.getNumMoves());
                 System.out.println(game.getBoardText());
-                System.out.println("Enter starting cell (row,col), e.g. a3: ");
+                System.out.println("Enter starting cell (row,col), e.g. a3, or \"undo\"/\"redo\"/\"hint\": ");
                 try{
-                    coordinateStarting = coordinateFromInput(sc.nextLine());
+                    String input = sc.nextLine().trim();
+
+                    if(input.equalsIgnoreCase("undo") || input.equalsIgnoreCase("redo")){
+                        boolean done = input.equalsIgnoreCase("undo") ? game.undo() : game.redo();
+                        if(!done) System.out.println("There is no move to " + input.toLowerCase() + "!");
+                        System.out.println();
+                        continue;
+                    }
+
+                    if(input.equalsIgnoreCase("hint")){
+                        Move hint = game.getHint(HintEngine.DEFAULT_BUDGET_MILLIS);
+                        if(hint == null) System.out.println("There is no hint for this board!");
+                        else if(hint.isRotation()) System.out.println("Hint: rotate " + coordinateToInput(hint.getFirst()));
+                        else System.out.println("Hint: swap " + coordinateToInput(hint.getFirst()) + " " + coordinateToInput(hint.getSecond()));
+                        System.out.println();
+                        continue;
+                    }
+
+                    coordinateStarting = coordinateFromInput(input);
 
                     //If it is a rotatable cell, then we don't ask for a second coordinate/cell
                     if(game.getCell(coordinateStarting) instanceof RotatableCell){
@@ -99,18 +121,42 @@ public class CmdApp {
         return new Coordinate(((int)y - 97), ((int)x-49));
     }
 
+    /**
+     * Transform a Coordinate object in the format of the user input.
+     *
+     * @param coord Coordinate object.
+     * @return Coordinate with the format rowColumn, e.g. "a1".
+     */
+    private String coordinateToInput(Coordinate coord){
+        return "" + (char)('a' + coord.getRow()) + (char)('1' + coord.getColumn());
+    }
+
     /**
      * Main method: entry point of the program when Gradle's "runCmdVersion" is used.
      *
-     * @param args This parameter is not needed.
+     * @param args Optionally, the path of the file in which the session is logged (see {@link SessionLog}).
      */
     public static void main(String[] args) {
         System.out.println("Starting...");
+        SessionLog sessionLog = null;
         try {
             CmdApp cmd = new CmdApp();
+            if (args.length > 0) {
+                sessionLog = SessionLog.create(Path.of(args[0]));
+                cmd.game.setSessionLog(sessionLog);
+            }
             cmd.launchGame();
+            if (sessionLog != null) {
+                sessionLog.checkpoint(cmd.game);
+            }
         } catch (IOException | LevelException e) {
             e.printStackTrace();
+        } finally {
+            try {
+                if (sessionLog != null) sessionLog.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
         }
 
         System.out.println("Finishing... bye!!");
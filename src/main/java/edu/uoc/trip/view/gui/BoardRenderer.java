@@ -0,0 +1,84 @@
+package edu.uoc.trip.view.gui;
+
+import edu.uoc.trip.controller.Game;
+import edu.uoc.trip.model.levels.LevelException;
+import edu.uoc.trip.model.utils.Coordinate;
+import javafx.scene.layout.Pane;
+
+import java.util.function.Consumer;
+
+/**
+ * Renderer of the board of the Play view.
+ * <br/>
+ * There are two modes, which are selected at launch with the system property "trip.renderer":
+ * "node" (default) shows each cell with its own scene-graph nodes ({@link NodeBoardRenderer}) and
+ * "canvas" draws the whole board onto a single canvas ({@link CanvasBoardRenderer}), e.g.
+ * -Dtrip.renderer=canvas. The frame times of both modes can be compared with -Dtrip.frameTimes=true.
+ *
+ * @author Estela Madariaga
+ * @version 1.0
+ */
+public interface BoardRenderer {
+
+    /**
+     * Name of the system property which selects the mode.
+     */
+    String PROPERTY = "trip.renderer";
+
+    /**
+     * Mode with a StackPane and an ImageView for each cell.
+     */
+    String NODE = "node";
+
+    /**
+     * Mode with a single canvas for the whole board.
+     */
+    String CANVAS = "canvas";
+
+    /**
+     * Paints the board of the current level of the game. The highlights of the previous paint are removed.
+     *
+     * @param game Game whose board is painted.
+     * @throws LevelException When the coordinate of a cell is invalid.
+     */
+    void render(Game game) throws LevelException;
+
+    /**
+     * Adds or removes a highlight ("clicked" or "hint") of the cell of a coordinate.
+     * The highlights are removed by the next paint.
+     *
+     * @param coord Coordinate of the cell.
+     * @param styleClass Style class of the highlight.
+     * @param on True to add the highlight, false to remove it.
+     */
+    void highlight(Coordinate coord, String styleClass, boolean on);
+
+    /**
+     * Returns the mode which has been selected at launch.
+     *
+     * @return {@link #NODE} or {@link #CANVAS}.
+     * @throws IllegalArgumentException When the system property has another value.
+     */
+    static String selectedMode() {
+        String mode = System.getProperty(PROPERTY, NODE);
+        if (!mode.equals(NODE) && !mode.equals(CANVAS)) {
+            throw new IllegalArgumentException("Unknown " + PROPERTY + ": " + mode + " (expected " + NODE + " or " + CANVAS + ")");
+        }
+        return mode;
+    }
+
+    /**
+     * Creates the renderer of the mode which has been selected at launch.
+     *
+     * @param canvas Pane in which the board is drawn.
+     * @param cellSize Size of each cell in pixels.
+     * @param clickListener Object which is notified with the coordinate of each clicked cell.
+     * @return Renderer of the selected mode.
+     */
+    static BoardRenderer create(Pane canvas, int cellSize, Consumer<Coordinate> clickListener) {
+        if (selectedMode().equals(CANVAS)) {
+            return new CanvasBoardRenderer(canvas, cellSize, clickListener);
+        }
+        return new NodeBoardRenderer(canvas, cellSize, clickListener);
+    }
+}
@@ -0,0 +1,269 @@
+package edu.uoc.trip.view.gui;
+
+import edu.uoc.trip.controller.Game;
+import edu.uoc.trip.model.cells.Cell;
+import edu.uoc.trip.model.levels.LevelException;
+import edu.uoc.trip.model.utils.Coordinate;
+import javafx.scene.Cursor;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.Image;
+import javafx.scene.layout.Pane;
+import javafx.scene.paint.Color;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * Immediate-mode renderer of the board: the whole board is drawn onto a single canvas, so the scene graph only has
+ * one node whatever the size of the board is.
+ * <br/>
+ * The cells are copied from the atlas of {@link ImageCache#getAtlas(int)}, which is a single image already scaled to
+ * the size of the cells. Only the dirty rectangles are drawn again: the cells whose type or highlight has changed
+ * since the last paint, and the cells which the mouse enters or leaves. The clicked cell is computed from the
+ * coordinates of the mouse (hit-testing), since there is no node for each cell. The highlights and the hover effects
+ * of the styles of {@link NodeBoardRenderer} are drawn as borders.
+ *
+ * @author Estela Madariaga
+ * @version 1.0
+ */
+public class CanvasBoardRenderer implements BoardRenderer {
+
+    /**
+     * Bit of the "clicked" highlight.
+     */
+    private static final int CLICKED = 1;
+
+    /**
+     * Bit of the "hint" highlight.
+     */
+    private static final int HINT = 2;
+
+    /**
+     * Pane in which the canvas is shown.
+     */
+    private final Pane canvas;
+
+    /**
+     * Size of each cell in pixels.
+     */
+    private final int cellSize;
+
+    /**
+     * Object which is notified when a cell is clicked.
+     */
+    private final Consumer<Coordinate> clickListener;
+
+    /**
+     * Atlas of the images of the cells.
+     */
+    private final Image atlas;
+
+    /**
+     * Canvas onto which the board is drawn, or null if no board has been painted yet.
+     */
+    private Canvas board;
+
+    /**
+     * Size of the board which is shown, or 0 if no board has been painted yet.
+     */
+    private int size = 0;
+
+    /**
+     * Ordinal of the cell type which is drawn in each position (row * size + column), or -1 if it has not been drawn.
+     */
+    private int[] types = new int[0];
+
+    /**
+     * It indicates if the cell which is drawn in each position is movable.
+     */
+    private boolean[] movable = new boolean[0];
+
+    /**
+     * Highlights (bits {@link #CLICKED} and {@link #HINT}) which are drawn in each position.
+     */
+    private int[] highlights = new int[0];
+
+    /**
+     * Position under the mouse, or -1 if the mouse is not over the board.
+     */
+    private int hovered = -1;
+
+    /**
+     * Constructor.
+     *
+     * @param canvas Pane in which the board is drawn.
+     * @param cellSize Size of each cell in pixels.
+     * @param clickListener Object which is notified with the coordinate of each clicked cell.
+     */
+    public CanvasBoardRenderer(Pane canvas, int cellSize, Consumer<Coordinate> clickListener) {
+        this.canvas = canvas;
+        this.cellSize = cellSize;
+        this.clickListener = clickListener;
+        this.atlas = ImageCache.getAtlas(cellSize);
+    }
+
+    /**
+     * Paints the board of the current level of the game. Only the cells whose type has changed since the last
+     * paint, or which were highlighted, are drawn again.
+     *
+     * @param game Game whose board is painted.
+     * @throws LevelException When the coordinate of a cell is invalid.
+     */
+    @Override
+    public void render(Game game) throws LevelException {
+        if (game.getBoardSize() != size) {
+            createCanvas(game.getBoardSize());
+        }
+
+        for (int row = 0; row < size; row++) {
+            for (int column = 0; column < size; column++) {
+                int position = row * size + column;
+                Cell cell = game.getCell(row, column);
+                int type = cell.getType().ordinal();
+
+                if (type != types[position] || highlights[position] != 0) {
+                    types[position] = type;
+                    movable[position] = cell.isMovable();
+                    highlights[position] = 0;
+                    drawCell(position);
+                }
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void highlight(Coordinate coord, String styleClass, boolean on) {
+        if (coord.getRow() < 0 || coord.getRow() >= size || coord.getColumn() < 0 || coord.getColumn() >= size) {
+            return;
+        }
+
+        int bit = styleClass.equals("clicked") ? CLICKED : styleClass.equals("hint") ? HINT : 0;
+        int position = coord.getRow() * size + coord.getColumn();
+        int highlight = on ? highlights[position] | bit : highlights[position] & ~bit;
+        if (highlight != highlights[position]) {
+            highlights[position] = highlight;
+            drawCell(position);
+        }
+    }
+
+    /**
+     * Returns the cell which is drawn at a point of the canvas.
+     *
+     * @param x Horizontal coordinate of the point in the canvas, in pixels.
+     * @param y Vertical coordinate of the point in the canvas, in pixels.
+     * @return Coordinate of the cell, or null if the point is not over the board.
+     */
+    public Coordinate hitTest(double x, double y) {
+        int position = positionAt(x, y);
+        return position < 0 ? null : new Coordinate(position / size, position % size);
+    }
+
+    /**
+     * Returns the position which is drawn at a point of the canvas.
+     *
+     * @param x Horizontal coordinate of the point in the canvas, in pixels.
+     * @param y Vertical coordinate of the point in the canvas, in pixels.
+     * @return Position (row * size + column), or -1 if the point is not over the board.
+     */
+    private int positionAt(double x, double y) {
+        if (x < 0 || y < 0) {
+            return -1;
+        }
+        int row = (int) (y / cellSize);
+        int column = (int) (x / cellSize);
+        return row < size && column < size ? row * size + column : -1;
+    }
+
+    /**
+     * Moves the hover effect to another position, and draws again the position that the mouse leaves and
+     * the one it enters.
+     *
+     * @param position New position under the mouse, or -1 if the mouse is not over the board.
+     */
+    private void hover(int position) {
+        if (position == hovered) {
+            return;
+        }
+        int previous = hovered;
+        hovered = position;
+        if (previous >= 0) {
+            drawCell(previous);
+        }
+        if (position >= 0) {
+            drawCell(position);
+        }
+    }
+
+    /**
+     * Draws the dirty rectangle of a position: the cell, its hover effect and its highlights.
+     *
+     * @param position Position (row * size + column).
+     */
+    private void drawCell(int position) {
+        GraphicsContext gc = board.getGraphicsContext2D();
+        double x = (double) cellSize * (position % size);
+        double y = (double) cellSize * (position / size);
+
+        gc.clearRect(x, y, cellSize, cellSize);
+        if (types[position] < 0) {
+            return;
+        }
+        gc.drawImage(atlas, (double) cellSize * types[position], 0, cellSize, cellSize, x, y, cellSize, cellSize);
+
+        if (position == hovered) {
+            strokeCell(gc, x, y, movable[position] ? Color.RED : Color.ORANGE, 2);
+        }
+        if ((highlights[position] & CLICKED) != 0 && movable[position]) {
+            strokeCell(gc, x, y, Color.WHITE, 2);
+        }
+        if ((highlights[position] & HINT) != 0) {
+            strokeCell(gc, x, y, Color.YELLOW, 3);
+        }
+    }
+
+    /**
+     * Draws a border inside a cell.
+     *
+     * @param gc Graphics context of the canvas.
+     * @param x Left side of the cell.
+     * @param y Top side of the cell.
+     * @param color Color of the border.
+     * @param width Width of the border.
+     */
+    private void strokeCell(GraphicsContext gc, double x, double y, Color color, double width) {
+        gc.setStroke(color);
+        gc.setLineWidth(width);
+        gc.strokeRect(x + width / 2, y + width / 2, cellSize - width, cellSize - width);
+    }
+
+    /**
+     * Creates the canvas of a board of the given size, and removes the previous one.
+     *
+     * @param newSize Size of the board.
+     */
+    private void createCanvas(int newSize) {
+        size = newSize;
+        types = new int[size * size];
+        movable = new boolean[size * size];
+        highlights = new int[size * size];
+        hovered = -1;
+        Arrays.fill(types, -1);
+
+        board = new Canvas((double) cellSize * size, (double) cellSize * size);
+        board.setCursor(Cursor.HAND);
+        board.setOnMouseClicked(e -> {
+            Coordinate coord = hitTest(e.getX(), e.getY());
+            if (coord != null) {
+                clickListener.accept(coord);
+            }
+        });
+        board.setOnMouseMoved(e -> hover(positionAt(e.getX(), e.getY())));
+        board.setOnMouseExited(e -> hover(-1));
+
+        canvas.getChildren().setAll(board);
+    }
+}
@@ -0,0 +1,93 @@
+package edu.uoc.trip.view.gui;
+
+import java.util.Arrays;
+
+/**
+ * Measures the time that the JavaFX Application Thread spends painting a view, e.g. the board after each click.
+ * While the thread paints, no frame can be shown, so a slow paint is seen as a stutter.
+ * <br/>
+ * The times are kept in a window of the last frames. If the system property "trip.frameTimes" is true
+ * (e.g. -Dtrip.frameTimes=true), a report of the window is printed each time it is full.
+ *
+ * @author Estela Madariaga
+ * @version 1.0
+ */
+public final class FrameTimer {
+
+    /**
+     * Name of the system property which enables the reports.
+     */
+    public static final String PROPERTY = "trip.frameTimes";
+
+    /**
+     * Name of the measured view.
+     */
+    private final String name;
+
+    /**
+     * Times of the last frames in nanoseconds.
+     */
+    private final long[] window;
+
+    /**
+     * Number of frames which have been measured.
+     */
+    private long numFrames = 0;
+
+    /**
+     * It indicates if the reports are printed.
+     */
+    private final boolean enabled = Boolean.getBoolean(PROPERTY);
+
+    /**
+     * Constructor.
+     *
+     * @param name Name of the measured view.
+     * @param windowSize Number of frames of the window.
+     */
+    public FrameTimer(String name, int windowSize) {
+        this.name = name;
+        this.window = new long[windowSize];
+    }
+
+    /**
+     * Marks the start of a frame.
+     *
+     * @return Start time, which must be given to {@link #stop(long)}.
+     */
+    public long start() {
+        return System.nanoTime();
+    }
+
+    /**
+     * Marks the end of a frame.
+     *
+     * @param start Start time returned by {@link #start()}.
+     * @return Time of the frame in nanoseconds.
+     */
+    public long stop(long start) {
+        long elapsed = System.nanoTime() - start;
+        window[(int) (numFrames++ % window.length)] = elapsed;
+        if (enabled && numFrames % window.length == 0) {
+            System.out.println(report());
+        }
+        return elapsed;
+    }
+
+    /**
+     * Returns a report of the frames of the window.
+     *
+     * @return Text with the median, the 99th percentile and the maximum of the frame times.
+     */
+    public String report() {
+        int count = (int) Math.min(numFrames, window.length);
+        if (count == 0) {
+            return name + ": no frames";
+        }
+
+        long[] sorted = Arrays.copyOf(window, count);
+        Arrays.sort(sorted);
+        return String.format("%s: %d frames, p50 %.2f ms, p99 %.2f ms, max %.2f ms", name, count,
+                sorted[(count - 1) / 2] / 1e6, sorted[(int) Math.ceil(0.99 * count) - 1] / 1e6, sorted[count - 1] / 1e6);
+    }
+}
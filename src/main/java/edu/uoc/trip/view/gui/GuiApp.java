@@ -35,6 +35,8 @@ public class GuiApp extends Application {
         stage = primaryStage;
         stage.setTitle("Trip Puzzle Game");
         stage.setResizable(true);
+        //The images of the cells are decoded once, before the first board is painted.
+        ImageCache.preload();
         createView("Welcome");
     }
 
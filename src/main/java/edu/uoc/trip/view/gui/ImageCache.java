@@ -0,0 +1,78 @@
+package edu.uoc.trip.view.gui;
+
+import edu.uoc.trip.model.cells.CellType;
+import javafx.scene.image.Image;
+import javafx.scene.image.WritableImage;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Cache of the images of the cells, shared by all the views.
+ * <br/>
+ * Each PNG of src/main/resources/images is decoded once, when {@link #preload()} is called at startup,
+ * and the same Image object is used by all the cells of the same type. An Image can be shown by any
+ * number of ImageView objects, so painting the board does not decode any image.
+ *
+ * @author Estela Madariaga
+ * @version 1.0
+ */
+public final class ImageCache {
+
+    /**
+     * Decoded image of each cell type.
+     */
+    private static final Map<CellType, Image> IMAGES = new EnumMap<>(CellType.class);
+
+    /**
+     * Atlas of each cell size: a single image with the cells of all the types, one after the other.
+     */
+    private static final Map<Integer, Image> ATLASES = new HashMap<>();
+
+    /**
+     * Private constructor so that this utility class is not instantiated.
+     */
+    private ImageCache() {
+    }
+
+    /**
+     * Decodes the images of all the cell types. It must be called from the JavaFX Application Thread,
+     * e.g. when the application starts.
+     */
+    public static void preload() {
+        for (CellType type : CellType.values()) {
+            get(type);
+        }
+    }
+
+    /**
+     * Returns the image of a cell type. It is decoded the first time, if it has not been preloaded.
+     *
+     * @param type Cell type.
+     * @return Image of the cell type.
+     */
+    public static Image get(CellType type) {
+        return IMAGES.computeIfAbsent(type, t -> new Image("/images/" + t.getImageSrc()));
+    }
+
+    /**
+     * Returns an atlas of the cells of a size: a single image which contains the image of each cell type, already
+     * scaled to the size, in the position cellSize * ordinal of the type. A board can then be drawn by copying
+     * regions of the same image without scaling them, e.g. onto a canvas. It is built the first time.
+     *
+     * @param cellSize Size of each cell in pixels.
+     * @return Atlas of the cells, with width cellSize * number of types and height cellSize.
+     */
+    public static Image getAtlas(int cellSize) {
+        return ATLASES.computeIfAbsent(cellSize, size -> {
+            CellType[] types = CellType.values();
+            WritableImage atlas = new WritableImage(size * types.length, size);
+            for (CellType type : types) {
+                Image cell = new Image("/images/" + type.getImageSrc(), size, size, false, true);
+                atlas.getPixelWriter().setPixels(size * type.ordinal(), 0, size, size, cell.getPixelReader(), 0, 0);
+            }
+            return atlas;
+        });
+    }
+}
@@ -0,0 +1,91 @@
+package edu.uoc.trip.view.gui;
+
+import javafx.scene.Node;
+import javafx.scene.Scene;
+
+/**
+ * Measures the input latency of a view: the time from an input event (e.g. a click) until the pulse
+ * which shows its result, i.e. the end of the layout of the next pulse of the scene, just before it is rendered.
+ * <br/>
+ * The times are kept by a {@link FrameTimer}, so they are reported in the same way as the frame times
+ * (-Dtrip.frameTimes=true).
+ *
+ * @author Estela Madariaga
+ * @version 1.0
+ */
+public class LatencyProbe {
+
+    /**
+     * Statistics of the latencies.
+     */
+    private final FrameTimer timer;
+
+    /**
+     * Listener of the pulses of the scene.
+     */
+    private final Runnable pulseListener = this::onPulse;
+
+    /**
+     * Time of the first input which has not been shown yet, or -1 if there is not any.
+     */
+    private long pendingInput = -1;
+
+    /**
+     * Constructor.
+     *
+     * @param name Name of the measured view.
+     * @param windowSize Number of inputs of the window of the statistics.
+     */
+    public LatencyProbe(String name, int windowSize) {
+        this.timer = new FrameTimer(name, windowSize);
+    }
+
+    /**
+     * Listens to the pulses of the scene of a node, even if the node is added to a scene later.
+     *
+     * @param node Node of the view.
+     */
+    public void attach(Node node) {
+        node.sceneProperty().addListener((observable, oldScene, newScene) -> {
+            if (oldScene != null) {
+                oldScene.removePostLayoutPulseListener(pulseListener);
+            }
+            if (newScene != null) {
+                newScene.addPostLayoutPulseListener(pulseListener);
+            }
+        });
+
+        Scene scene = node.getScene();
+        if (scene != null) {
+            scene.addPostLayoutPulseListener(pulseListener);
+        }
+    }
+
+    /**
+     * Marks an input event. If several inputs are shown by the same pulse, the first one is measured.
+     */
+    public void markInput() {
+        if (pendingInput < 0) {
+            pendingInput = timer.start();
+        }
+    }
+
+    /**
+     * Ends the measure of the pending input, if any, when a pulse has been laid out.
+     */
+    private void onPulse() {
+        if (pendingInput >= 0) {
+            timer.stop(pendingInput);
+            pendingInput = -1;
+        }
+    }
+
+    /**
+     * Returns a report of the last latencies.
+     *
+     * @return Text with the median, the 99th percentile and the maximum latency.
+     */
+    public String report() {
+        return timer.report();
+    }
+}
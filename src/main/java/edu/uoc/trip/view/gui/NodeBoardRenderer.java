@@ -0,0 +1,190 @@
+package edu.uoc.trip.view.gui;
+
+import edu.uoc.trip.controller.Game;
+import edu.uoc.trip.model.cells.Cell;
+import edu.uoc.trip.model.cells.CellType;
+import edu.uoc.trip.model.levels.LevelException;
+import edu.uoc.trip.model.utils.Coordinate;
+import javafx.scene.Node;
+import javafx.scene.image.ImageView;
+import javafx.scene.layout.Pane;
+import javafx.scene.layout.StackPane;
+
+import java.util.function.Consumer;
+
+/**
+ * Retained-mode renderer of the board with scene-graph nodes: a StackPane with an ImageView for each position.
+ * <br/>
+ * The nodes are created once and kept between paints. Each paint compares the cell type of each position with the
+ * one that is shown and only changes the image (and the style) of the positions that have changed, e.g. two nodes
+ * after a swap and one after a rotation. The nodes are reused by the next levels of the same size, so they are only
+ * created again when the size of the board changes.
+ *
+ * @author Estela Madariaga
+ * @version 1.0
+ */
+public class NodeBoardRenderer implements BoardRenderer {
+
+    /**
+     * Style class of the movable cells.
+     */
+    private static final String MOVABLE = "piece-movable";
+
+    /**
+     * Style class of the rest of the cells.
+     */
+    private static final String DESTINATION = "piece-movable-destination";
+
+    /**
+     * Pane in which the nodes are drawn.
+     */
+    private final Pane canvas;
+
+    /**
+     * Size of each cell in pixels.
+     */
+    private final int cellSize;
+
+    /**
+     * Object which is notified when a cell is clicked.
+     */
+    private final Consumer<Coordinate> clickListener;
+
+    /**
+     * Size of the board which is shown, or 0 if no board has been painted yet.
+     */
+    private int size = 0;
+
+    /**
+     * Node of each position (row * size + column).
+     */
+    private StackPane[] sprites = new StackPane[0];
+
+    /**
+     * Image view of each position.
+     */
+    private ImageView[] images = new ImageView[0];
+
+    /**
+     * Cell type which is shown in each position.
+     */
+    private CellType[] types = new CellType[0];
+
+    /**
+     * It indicates if the cell which is shown in each position is movable.
+     */
+    private boolean[] movable = new boolean[0];
+
+    /**
+     * Constructor.
+     *
+     * @param canvas Pane in which the board is drawn.
+     * @param cellSize Size of each cell in pixels.
+     * @param clickListener Object which is notified with the coordinate of each clicked cell.
+     */
+    public NodeBoardRenderer(Pane canvas, int cellSize, Consumer<Coordinate> clickListener) {
+        this.canvas = canvas;
+        this.cellSize = cellSize;
+        this.clickListener = clickListener;
+    }
+
+    /**
+     * Paints the board of the current level of the game. Only the positions whose cell type has changed since
+     * the last paint are updated. The highlights of the previous paint (e.g. a clicked cell) are removed.
+     *
+     * @param game Game whose board is painted.
+     * @throws LevelException When the coordinate of a cell is invalid.
+     */
+    @Override
+    public void render(Game game) throws LevelException {
+        if (game.getBoardSize() != size) {
+            createNodes(game.getBoardSize());
+        }
+
+        for (int row = 0; row < size; row++) {
+            for (int column = 0; column < size; column++) {
+                int position = row * size + column;
+                Cell cell = game.getCell(row, column);
+                StackPane sprite = sprites[position];
+                sprite.getStyleClass().remove("clicked");
+                sprite.getStyleClass().remove("hint");
+
+                if (cell.getType() != types[position]) {
+                    images[position].setImage(ImageCache.get(cell.getType()));
+                    if (types[position] == null || movable[position] != cell.isMovable()) {
+                        sprite.getStyleClass().remove(cell.isMovable() ? DESTINATION : MOVABLE);
+                        sprite.getStyleClass().add(cell.isMovable() ? MOVABLE : DESTINATION);
+                    }
+                    types[position] = cell.getType();
+                    movable[position] = cell.isMovable();
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the node of the cell of a coordinate, which is looked up in the grid of nodes in constant time.
+     *
+     * @param coord Coordinate of the cell.
+     * @return Node of the cell, or null if the coordinate is not in the board which is shown.
+     */
+    public Node getNode(Coordinate coord) {
+        if (coord.getRow() < 0 || coord.getRow() >= size || coord.getColumn() < 0 || coord.getColumn() >= size) {
+            return null;
+        }
+        return sprites[coord.getRow() * size + coord.getColumn()];
+    }
+
+    /**
+     * Adds or removes a highlight (a style class, e.g. "clicked") of the cell of a coordinate.
+     * The highlights are removed by the next paint.
+     *
+     * @param coord Coordinate of the cell.
+     * @param styleClass Style class of the highlight.
+     * @param on True to add the highlight, false to remove it.
+     */
+    @Override
+    public void highlight(Coordinate coord, String styleClass, boolean on) {
+        Node node = getNode(coord);
+        if (node == null) {
+            return;
+        }
+        node.getStyleClass().remove(styleClass);
+        if (on) {
+            node.getStyleClass().add(styleClass);
+        }
+    }
+
+    /**
+     * Creates the nodes of a board of the given size, and removes the previous ones.
+     *
+     * @param newSize Size of the board.
+     */
+    private void createNodes(int newSize) {
+        size = newSize;
+        sprites = new StackPane[size * size];
+        images = new ImageView[size * size];
+        types = new CellType[size * size];
+        movable = new boolean[size * size];
+
+        for (int row = 0; row < size; row++) {
+            for (int column = 0; column < size; column++) {
+                int position = row * size + column;
+                ImageView image = new ImageView();
+                image.setFitWidth(cellSize);
+                image.setFitHeight(cellSize);
+
+                StackPane sprite = new StackPane(image);
+                sprite.setTranslateX(cellSize * column);
+                sprite.setTranslateY(cellSize * row);
+                Coordinate coord = new Coordinate(row, column);
+                sprite.setOnMouseClicked(e -> clickListener.accept(coord));
+
+                sprites[position] = sprite;
+                images[position] = image;
+            }
+        }
+
+        canvas.getChildren().setAll(sprites);
+    }
+}
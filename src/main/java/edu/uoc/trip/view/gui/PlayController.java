@@ -1,11 +1,13 @@
 package edu.uoc.trip.view.gui;
 
 import edu.uoc.trip.controller.Game;
-import edu.uoc.trip.model.cells.Cell;
 import edu.uoc.trip.model.cells.MovableCell;
 import edu.uoc.trip.model.cells.RotatableCell;
 import edu.uoc.trip.model.levels.LevelException;
 import edu.uoc.trip.model.utils.Coordinate;
+import edu.uoc.trip.solver.HintEngine;
+import edu.uoc.trip.solver.Move;
+import javafx.application.Platform;
 import javafx.scene.control.Alert;
 import javafx.scene.control.Alert.AlertType;
 import javafx.scene.control.Label;
@@ -13,17 +15,10 @@ import javafx.scene.control.Label;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Optional;
 
-import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
-import javafx.scene.Node;
-import javafx.scene.image.Image;
-import javafx.scene.image.ImageView;
 import javafx.scene.input.MouseEvent;
 import javafx.scene.layout.Pane;
-import javafx.scene.layout.StackPane;
 
 /**
  * Class that controls the interaction in the Play view.
@@ -48,6 +43,22 @@ public class PlayController {
      */
     private static final int CELL_SIZE = 126;
 
+    /**
+     * It measures the time of each paint of the board. The name includes the mode of the renderer,
+     * so that the frame times of both modes can be compared.
+     */
+    private final FrameTimer frameTimer = new FrameTimer("Play.paint[" + BoardRenderer.selectedMode() + "]", 20);
+
+    /**
+     * It draws the board in the canvas, in the mode which has been selected at launch (-Dtrip.renderer).
+     */
+    private BoardRenderer renderer;
+
+    /**
+     * It measures the time from each click until the board is shown again.
+     */
+    private final LatencyProbe latencyProbe = new LatencyProbe("Play.clickToRepaint[" + BoardRenderer.selectedMode() + "]", 20);
+
     /**
      * It connects to the UI item that displays the board.
      */
@@ -72,6 +83,11 @@ public class PlayController {
     @FXML
     Label uiMoves;
 
+    /**
+     * It indicates if the next level is being loaded in the background. Meanwhile, the board does not accept clicks.
+     */
+    private boolean loading = false;
+
     /**
      * It allows us to manage the Alert message which displays "Congrats" when a level is solved.
      */
@@ -82,16 +98,19 @@ public class PlayController {
      * Initializes the controller class. This method is automatically called
      * after the fxml file has been loaded.
      *
+     * The first level is loaded in the background (see {@link #showNextLevel()}).
+     *
      * @throws IOException When there is a problem while loading the game.
-     * @throws LevelException When there is a problem while loading a new level.
      */
     @FXML
-    private void initialize() throws IOException, LevelException {
+    private void initialize() throws IOException {
         move = new ArrayList<>();
+        renderer = BoardRenderer.create(canvas, CELL_SIZE, this::onClick);
+        latencyProbe.attach(canvas);
         game = new Game("levels/");
         alert = new Alert(AlertType.INFORMATION);
         alert.setHeaderText("Congratulations!");
-        if(game.nextLevel()) update();
+        showNextLevel();
     }
 
     /**
@@ -108,26 +127,43 @@ public class PlayController {
             uiMoves.setText(String.valueOf(game.getNumMoves()));
             alert.setContentText("You have solved Level "+game.getCurrentLevel()+"!!");
             alert.showAndWait();
-            if(!game.nextLevel()) {
-                try {
+            showNextLevel();
+        }
+    }
+
+    /**
+     * Loads the next level in the background with {@link Game#nextLevelAsync()}, so the JavaFX Application Thread
+     * is not blocked while the level file is parsed (usually it has already been prefetched while the previous
+     * level was played). When it is loaded, the level is painted in the JavaFX Application Thread
+     * (Platform.runLater). If there are no more levels, the "GameOver" view is shown.
+     */
+    private void showNextLevel() {
+        loading = true;
+        move.clear();
+        game.nextLevelAsync().whenComplete((hasNext, error) -> Platform.runLater(() -> {
+            loading = false;
+            try {
+                if(error != null) {
+                    throw error;
+                }else if(hasNext) {
+                    update();
+                }else {
                     GuiApp.main.createView("GameOver");
-                } catch (IOException e) {
-                    e.printStackTrace();
-                    System.exit(2);
                 }
-            }else {
-                paint();
+            } catch (Throwable e) {
+                e.printStackTrace();
+                System.exit(2);
             }
-        }
+        }));
     }
     /**
-     * Paints the level in the GUI.
+     * Paints the level in the GUI. The {@link BoardRenderer} keeps what has been drawn
+     * and only updates the cells that have changed.
      *
      * @throws LevelException When the coordinate of a cell is invalid.
      */
     private void paint() throws LevelException {
-        ObservableList<Node> nodeList = FXCollections.observableArrayList();
-        canvas.getChildren().clear();
+        long frameStart = frameTimer.start();
 
         uiDifficulty.setText(game.getDifficulty().toString());
 
@@ -135,35 +171,8 @@ public class PlayController {
 
         uiMoves.setText(String.valueOf(game.getNumMoves()));
 
-        for (int i = 0; i < game.getBoardSize(); i++) {
-            for (int j = 0; j < game.getBoardSize(); j++){
-                Cell cell = game.getCell(i,j);
-                StackPane sprite = new StackPane();
-
-                ImageView spriteImage = new ImageView(new Image("/images/"+ cell.getType().getImageSrc()));
-
-                spriteImage.setFitWidth(CELL_SIZE);
-                spriteImage.setFitHeight(CELL_SIZE);
-                sprite.getChildren().add(spriteImage);
-                sprite.setTranslateX(CELL_SIZE * cell.getCoordinate().getColumn());
-                sprite.setTranslateY(CELL_SIZE * cell.getCoordinate().getRow());
-
-                if (cell instanceof MovableCell) {
-                    sprite.getStyleClass().add("piece-movable");
-                }
-
-                if (!(cell instanceof MovableCell)){
-                    sprite.getStyleClass().add("piece-movable-destination");
-                }
-
-                nodeList.addAll(sprite);
-
-                sprite.setOnMouseClicked(e -> onClick(cell.getCoordinate()));
-            }
-        }
-
-        canvas.getChildren().addAll(nodeList);
-
+        renderer.render(game);
+        frameTimer.stop(frameStart);
     }
 
     /**
@@ -179,39 +188,82 @@ public class PlayController {
      *              that has been clicked.
      */
     private void onClick(Coordinate coord){
-        Optional<Node> nodeOptional = canvas.getChildren().stream()
-                .filter(n -> n.getTranslateX()/CELL_SIZE==coord.getColumn() && n.getTranslateY()/CELL_SIZE == coord.getRow())
-                .findFirst();
+        if(loading) return;
 
-        if(nodeOptional.isPresent()){
-            Node node = nodeOptional.get();
-            node.getStyleClass().add("clicked");
+        latencyProbe.markInput();
+        renderer.highlight(coord, "clicked", true);
 
-            try {
-                if(move.isEmpty() && game.getCell(coord) instanceof RotatableCell){
-                    game.rotate(coord);
+        try {
+            if(move.isEmpty() && game.getCell(coord) instanceof RotatableCell){
+                game.rotate(coord);
+                update();
+            }else if(game.getCell(coord) instanceof MovableCell
+                    && !move.contains(coord)){
+                move.add(coord);
+
+                if(move.size()==2) {
+                    game.swap(move.get(0),move.get(1));
                     update();
-                }else if(game.getCell(coord) instanceof MovableCell
-                        && !move.contains(coord)){
-                    move.add(coord);
-
-                    if(move.size()==2) {
-                        game.swap(move.get(0),move.get(1));
-                        update();
-                        move.clear();
-                    }
-                }else{
                     move.clear();
-                    node.getStyleClass().removeAll("clicked");
                 }
-            } catch (LevelException e){
+            }else{
                 move.clear();
-                node.getStyleClass().removeAll("clicked");
+                renderer.highlight(coord, "clicked", false);
             }
+        } catch (LevelException e){
+            move.clear();
+            renderer.highlight(coord, "clicked", false);
         }
     }
     @FXML
     public void reload(MouseEvent mouseEvent) throws LevelException {
+        if(loading) return;
         game.reload();
     }
+
+    /**
+     * Highlights the cells of the suggested next move when the "Hint" button is released.
+     * The highlight disappears when the board is painted again, i.e. after the next move.
+     *
+     * @param mouseEvent Event of the button.
+     * @throws LevelException When there is a level exception/problem.
+     */
+    @FXML
+    public void hint(MouseEvent mouseEvent) throws LevelException {
+        if(loading) return;
+        Move hint = game.getHint(HintEngine.DEFAULT_BUDGET_MILLIS);
+        if(hint == null) return;
+
+        renderer.highlight(hint.getFirst(), "hint", true);
+        if(!hint.isRotation()) renderer.highlight(hint.getSecond(), "hint", true);
+    }
+
+    /**
+     * Undoes the last move when the "Undo" button is released and paints the board again.
+     *
+     * @param mouseEvent Event of the button.
+     * @throws LevelException When the coordinate of a cell is invalid.
+     */
+    @FXML
+    public void undo(MouseEvent mouseEvent) throws LevelException {
+        if(!loading && game.undo()) {
+            move.clear();
+            paint();
+        }
+    }
+
+    /**
+     * Redoes the last move that was undone when the "Redo" button is released.
+     * The redone move may solve the level, so the flow of the game is updated.
+     *
+     * @param mouseEvent Event of the button.
+     * @throws LevelException When there is a level exception/problem.
+     */
+    @FXML
+    public void redo(MouseEvent mouseEvent) throws LevelException {
+        if(!loading && game.redo()) {
+            move.clear();
+            update();
+        }
+    }
 }
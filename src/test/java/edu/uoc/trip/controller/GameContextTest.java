@@ -0,0 +1,46 @@
+package edu.uoc.trip.controller;
+
+import edu.uoc.trip.model.levels.LevelException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.TestInstance.Lifecycle.PER_CLASS;
+
+@TestInstance(PER_CLASS)
+class GameContextTest {
+
+    @Test
+    @Tag("controller")
+    @DisplayName("Controller - GameContext shared resources")
+    void sharedResources() {
+        try {
+            GameContext context = new GameContext("levels/test/");
+            assertEquals(2, context.getMaxLevels());
+
+            Game first = context.newGame();
+            Game second = context.newGame();
+            assertNotSame(first, second);
+            assertSame(context.getLevelCache(), first.getLevelCache());
+            assertSame(context.getLevelCache(), second.getLevelCache());
+
+            assertTrue(first.nextLevel());
+            assertTrue(second.nextLevel());
+            assertEquals(1, context.getLevelCache().getMisses());
+            assertEquals(1, context.getLevelCache().getHits());
+
+            //The second game gets the hint of the same board state from the shared engine.
+            //The budget is generous so that the first search completes and is cached.
+            assertEquals(first.getHint(1000), second.getHint(1000));
+            assertEquals(1, context.getHintEngine().getMisses());
+            assertEquals(1, context.getHintEngine().getHits());
+        } catch (IOException | LevelException e) {
+            fail("sharedResources failed");
+            e.printStackTrace();
+        }
+    }
+}
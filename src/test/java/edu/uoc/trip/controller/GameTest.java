@@ -1,7 +1,10 @@
 package edu.uoc.trip.controller;
 
+import edu.uoc.trip.model.levels.Level;
 import edu.uoc.trip.model.levels.LevelException;
 import edu.uoc.trip.model.utils.Coordinate;
+import edu.uoc.trip.solver.HintEngine;
+import edu.uoc.trip.solver.Move;
 import org.junit.jupiter.api.*;
 import org.junit.platform.commons.support.ModifierSupport;
 
@@ -9,6 +12,12 @@ import java.io.IOException;
 import java.lang.reflect.Field;
 import java.lang.reflect.Modifier;
 import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.junit.jupiter.api.TestInstance.Lifecycle.PER_CLASS;
@@ -68,8 +77,8 @@ class GameTest {
     void checkMethodsSanity() {
         //Min 16 methods
         assertTrue(ownClass.getDeclaredMethods().length>=16);
-        //Max 12 public methods
-        assertEquals(12,Arrays.stream(ownClass.getDeclaredMethods()).filter(p -> Modifier.isPublic(p.getModifiers())).count());
+        //Max 20 public methods
+        assertEquals(20,Arrays.stream(ownClass.getDeclaredMethods()).filter(p -> Modifier.isPublic(p.getModifiers())).count());
         //Max 0 protected methods
         assertEquals(0,Arrays.stream(ownClass.getDeclaredMethods()).filter(p -> Modifier.isProtected(p.getModifiers())).count());
         //Max 0 package-private methods
@@ -84,8 +93,8 @@ class GameTest {
             assertTrue(Modifier.isPrivate(ownClass.getDeclaredMethod("isFinished").getModifiers()));
             assertTrue(Modifier.isPrivate(ownClass.getDeclaredMethod("loadLevel").getModifiers()));
 
-            //Max 1 constructor
-            assertEquals(1,ownClass.getDeclaredConstructors().length);
+            //Max 1 public constructor (the package-private one is used by GameContext)
+            assertEquals(1,Arrays.stream(ownClass.getDeclaredConstructors()).filter(p -> Modifier.isPublic(p.getModifiers())).count());
 
             //Constructor
             int modifiers = ownClass.getDeclaredConstructor(String.class).getModifiers();
@@ -143,4 +152,170 @@ class GameTest {
             e.printStackTrace();
         }
     }
+
+    @Test
+    @Tag("controller")
+    @DisplayName("Controller - nextLevelAsync")
+    void nextLevelAsync() {
+        try {
+            LevelCache cache = game.getLevelCache();
+            assertTrue(game.nextLevelAsync().get(5, TimeUnit.SECONDS));
+            assertEquals(1, game.getCurrentLevel());
+            assertEquals(0, game.getNumMoves());
+            assertEquals("1234"+System.lineSeparator()
+                    +"a|v·~·"+System.lineSeparator()
+                    +"b|╔╗═┃"+System.lineSeparator()
+                    +"c|╚·╚╗"+System.lineSeparator()
+                    +"d|·M·^", game.getBoardText().trim());
+
+            //The next levels are prefetched while the current one is played, so each one is read only once.
+            int numLevels = 1;
+            while (game.nextLevelAsync().get(5, TimeUnit.SECONDS)) {
+                numLevels++;
+                assertEquals(numLevels, game.getCurrentLevel());
+            }
+            assertEquals(numLevels, cache.getMisses());
+            assertEquals(0, cache.getHits());
+            assertFalse(game.nextLevelAsync().get(5, TimeUnit.SECONDS));
+            assertEquals(numLevels, game.getCurrentLevel());
+        } catch (InterruptedException | ExecutionException | TimeoutException e) {
+            fail("nextLevelAsync failed");
+            e.printStackTrace();
+        }
+    }
+
+    @Test
+    @Tag("controller")
+    @DisplayName("Controller - nextLevelAsync after a failed prefetch")
+    void nextLevelAsyncFailedPrefetch() {
+        //The first read of level 2 (i.e. its prefetch) waits for the latch and fails, the next ones succeed.
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger reads = new AtomicInteger();
+        LevelCache cache = new LevelCache() {
+            @Override
+            public Level get(String fileName) throws LevelException {
+                if (fileName.endsWith("level2.txt") && reads.getAndIncrement() == 0) {
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    throw new LevelException(LevelException.ERROR_PARSING_LEVEL_FILE);
+                }
+                return super.get(fileName);
+            }
+        };
+
+        try {
+            Game asyncGame = new Game("levels/test/", 2, cache, new HintEngine());
+            assertTrue(asyncGame.nextLevelAsync().get(5, TimeUnit.SECONDS));
+            assertEquals(1, asyncGame.getCurrentLevel());
+
+            //The prefetch cannot have finished yet: it fails after the change of level has been requested.
+            CompletableFuture<Boolean> next = asyncGame.nextLevelAsync();
+            assertFalse(next.isDone());
+            release.countDown();
+
+            assertTrue(next.get(5, TimeUnit.SECONDS));
+            assertEquals(2, asyncGame.getCurrentLevel());
+            assertEquals(2, reads.get());
+        } catch (InterruptedException | ExecutionException | TimeoutException e) {
+            fail("nextLevelAsyncFailedPrefetch failed");
+            e.printStackTrace();
+        }
+    }
+
+    @Test
+    @Tag("controller")
+    @DisplayName("Controller - level cache")
+    void levelCache() {
+        try {
+            LevelCache cache = game.getLevelCache();
+            assertTrue(game.nextLevel());
+            assertEquals(0, cache.getHits());
+            assertEquals(1, cache.getMisses());
+
+            game.swap(new Coordinate(1,0),new Coordinate(2,0));
+            game.reload();
+            game.reload();
+            assertEquals(2, cache.getHits());
+            assertEquals(1, cache.getMisses());
+            assertEquals(1, cache.size());
+
+            //The cached level must not be modified by the moves of the player.
+            assertEquals(0, game.getNumMoves());
+            assertEquals("1234"+System.lineSeparator()
+                    +"a|v·~·"+System.lineSeparator()
+                    +"b|╔╗═┃"+System.lineSeparator()
+                    +"c|╚·╚╗"+System.lineSeparator()
+                    +"d|·M·^", game.getBoardText().trim());
+        } catch (LevelException e) {
+            fail("levelCache failed");
+            e.printStackTrace();
+        }
+    }
+
+    @Test
+    @Tag("controller")
+    @DisplayName("Controller - undo and redo")
+    void undoRedo() {
+        try {
+            assertFalse(game.undo());
+            assertTrue(game.nextLevel());
+            assertFalse(game.undo());
+
+            game.swap(new Coordinate(1,0),new Coordinate(2,0));
+            assertEquals(1, game.getNumMoves());
+            assertTrue(game.undo());
+            assertEquals(0, game.getNumMoves());
+            assertEquals("1234"+System.lineSeparator()
+                    +"a|v·~·"+System.lineSeparator()
+                    +"b|╔╗═┃"+System.lineSeparator()
+                    +"c|╚·╚╗"+System.lineSeparator()
+                    +"d|·M·^", game.getBoardText().trim());
+
+            assertTrue(game.redo());
+            assertFalse(game.redo());
+            assertEquals(1, game.getNumMoves());
+            assertEquals("1234"+System.lineSeparator()
+                    +"a|v·~·"+System.lineSeparator()
+                    +"b|╚╗═┃"+System.lineSeparator()
+                    +"c|╔·╚╗"+System.lineSeparator()
+                    +"d|·M·^", game.getBoardText().trim());
+
+            //The journal of a reloaded level is empty.
+            game.reload();
+            assertFalse(game.undo());
+        } catch (LevelException e) {
+            fail("undoRedo failed");
+            e.printStackTrace();
+        }
+    }
+
+    @Test
+    @Tag("controller")
+    @DisplayName("Controller - getHint")
+    void getHint() {
+        try {
+            assertNull(game.getHint(HintEngine.DEFAULT_BUDGET_MILLIS));
+            assertTrue(game.nextLevel());
+
+            //The hint does not make the move...
+            Move hint = game.getHint(5_000);
+            assertNotNull(hint);
+            assertEquals(0, game.getNumMoves());
+
+            //...and following the hints solves the level.
+            while (!game.isLevelSolved()) {
+                hint = game.getHint(5_000);
+                if (hint.isRotation()) game.rotate(hint.getFirst());
+                else game.swap(hint.getFirst(), hint.getSecond());
+                assertTrue(game.getNumMoves() < 10);
+            }
+            assertNull(game.getHint(HintEngine.DEFAULT_BUDGET_MILLIS));
+        } catch (LevelException e) {
+            fail("getHint failed");
+            e.printStackTrace();
+        }
+    }
 }
@@ -0,0 +1,79 @@
+package edu.uoc.trip.controller;
+
+import edu.uoc.trip.model.levels.Level;
+import edu.uoc.trip.model.levels.LevelException;
+import edu.uoc.trip.model.utils.Coordinate;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.TestInstance.Lifecycle.PER_CLASS;
+
+@TestInstance(PER_CLASS)
+class LevelCacheTest {
+
+    @Test
+    @Tag("controller")
+    @DisplayName("Controller - LevelCache copies")
+    void copies() {
+        try {
+            LevelCache cache = new LevelCache(2);
+            Level first = cache.get("levels/level1.txt");
+            first.swapCells(new Coordinate(1, 0), new Coordinate(2, 0));
+
+            Level second = cache.get("levels/level1.txt");
+            assertNotSame(first, second);
+            assertEquals(0, second.getNumMoves());
+            assertEquals(new Level("levels/level1.txt").toString(), second.toString());
+            assertEquals(1, cache.getHits());
+            assertEquals(1, cache.getMisses());
+        } catch (LevelException e) {
+            fail("copies failed");
+            e.printStackTrace();
+        }
+    }
+
+    @Test
+    @Tag("controller")
+    @DisplayName("Controller - LevelCache LRU eviction")
+    void eviction() {
+        try {
+            LevelCache cache = new LevelCache(2);
+            cache.get("levels/level1.txt");
+            cache.get("levels/level2.txt");
+            cache.get("levels/level1.txt"); //level2 is now the least recently used
+            cache.get("levels/level3.txt"); //so it is evicted
+            assertEquals(2, cache.size());
+            assertEquals(1, cache.getHits());
+            assertEquals(3, cache.getMisses());
+
+            cache.get("levels/level1.txt");
+            assertEquals(2, cache.getHits());
+            cache.get("levels/level2.txt");
+            assertEquals(4, cache.getMisses());
+
+            cache.clear();
+            assertEquals(0, cache.size());
+            assertEquals(0, cache.getHits());
+            assertEquals(0, cache.getMisses());
+        } catch (LevelException e) {
+            fail("eviction failed");
+            e.printStackTrace();
+        }
+    }
+
+    @Test
+    @Tag("controller")
+    @DisplayName("Controller - LevelCache errors")
+    void errors() {
+        assertThrows(IllegalArgumentException.class, () -> new LevelCache(0));
+
+        LevelCache cache = new LevelCache();
+        assertEquals(LevelCache.DEFAULT_CAPACITY, cache.getCapacity());
+        LevelException ex = assertThrows(LevelException.class, () -> cache.get("levels/errors/level-error-no-road.txt"));
+        assertEquals(LevelException.ERROR_NO_ROAD, ex.getMessage());
+        assertEquals(0, cache.size());
+    }
+}
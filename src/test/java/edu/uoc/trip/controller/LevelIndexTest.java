@@ -0,0 +1,65 @@
+package edu.uoc.trip.controller;
+
+import edu.uoc.trip.model.levels.Level;
+import edu.uoc.trip.model.levels.LevelException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.TestInstance.Lifecycle.PER_CLASS;
+
+@TestInstance(PER_CLASS)
+class LevelIndexTest {
+
+    @Test
+    @Tag("controller")
+    @DisplayName("Controller - LevelIndex scan")
+    void scan() {
+        try {
+            LevelIndex index = LevelIndex.scan("levels/test/");
+            assertEquals(2, index.size());
+            assertFalse(index.isGenerated());
+            assertTrue(index.getEntries().stream().allMatch(e -> e.getSize() == -1 && e.getDifficulty() == null));
+            assertEquals(Set.of("levels/test/level1.txt", "levels/test/level2.txt"), index.getEntries().stream()
+                    .map(LevelIndex.Entry::getFileName).collect(Collectors.toSet()));
+
+            //The sub-folders are not included in the generated index, so this folder is scanned.
+            assertNull(LevelIndex.read("levels/test/"));
+            assertEquals(2, LevelIndex.load("levels/test/").size());
+        } catch (IOException e) {
+            fail("scan failed");
+            e.printStackTrace();
+        }
+    }
+
+    @Test
+    @Tag("controller")
+    @DisplayName("Controller - LevelIndex generated index")
+    void generated() {
+        try {
+            //The index is generated by the build, so it may be missing when the tests are run from an IDE.
+            LevelIndex index = LevelIndex.read("levels/");
+            if (index != null) {
+                assertTrue(index.isGenerated());
+                assertEquals(7, index.size());
+
+                for (int i = 0; i < index.size(); i++) {
+                    LevelIndex.Entry entry = index.getEntries().get(i);
+                    assertEquals("levels/level" + (i + 1) + ".txt", entry.getFileName());
+                    Level level = new Level(entry.getFileName());
+                    assertEquals(level.getSize(), entry.getSize());
+                    assertEquals(level.getDifficulty(), entry.getDifficulty());
+                }
+            }
+        } catch (IOException | LevelException e) {
+            fail("generated failed");
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package edu.uoc.trip.controller;
+
+import edu.uoc.trip.model.levels.LevelException;
+import edu.uoc.trip.model.utils.Coordinate;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.TestInstance.Lifecycle.PER_CLASS;
+
+@TestInstance(PER_CLASS)
+class SessionReplayTest {
+
+    private byte[] log;
+    private long numEvents;
+    private int finalNumMoves;
+
+    @BeforeAll
+    void recordSession() {
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            SessionLog sessionLog = new SessionLog(out);
+            Game game = new Game("levels/test/");
+            game.setSessionLog(sessionLog);
+
+            assertTrue(game.nextLevel());
+            game.swap(new Coordinate(1,0), new Coordinate(2,0));
+            game.rotate(new Coordinate(1,3));
+            assertTrue(game.undo());
+            assertTrue(game.redo());
+            game.reload();
+            game.swap(new Coordinate(2,0), new Coordinate(1,1));
+            //Illegal moves are not logged.
+            assertThrows(LevelException.class, () -> game.swap(new Coordinate(0,0), new Coordinate(1,1)));
+            assertFalse(game.redo());
+            assertTrue(game.nextLevel());
+            game.swap(new Coordinate(1,0), new Coordinate(2,0));
+            sessionLog.checkpoint(game);
+            sessionLog.close();
+
+            log = out.toByteArray();
+            numEvents = sessionLog.getNumEvents();
+            finalNumMoves = game.getNumMoves();
+        } catch (IOException | LevelException e) {
+            fail("recordSession failed");
+            e.printStackTrace();
+        }
+    }
+
+    @Test
+    @Tag("controller")
+    @DisplayName("Controller - log format")
+    void logFormat() {
+        //nextLevel, swap, rotate, undo, redo, reload, swap, checkpoint, nextLevel, swap and checkpoint
+        assertEquals(11, numEvents);
+        ByteBuffer buffer = ByteBuffer.wrap(log);
+        assertEquals(SessionLog.MAGIC, buffer.getInt());
+        assertEquals(SessionLog.VERSION, buffer.getShort());
+        assertTrue(buffer.getLong() <= System.currentTimeMillis());
+        assertEquals(SessionLog.EventType.NEXT_LEVEL.ordinal(), buffer.get());
+    }
+
+    @Test
+    @Tag("controller")
+    @DisplayName("Controller - replay")
+    void replay() {
+        try {
+            SessionReplay.Result result = new SessionReplay().replay(ByteBuffer.wrap(log), new Game("levels/test/"));
+            assertTrue(result.isVerified(), result.toString());
+            assertEquals(numEvents, result.getNumEvents());
+            assertEquals(2, result.getNumCheckpoints());
+            assertEquals(-1, result.getFirstMismatch());
+            assertEquals(2, result.getFinalLevel());
+            assertEquals(finalNumMoves, result.getFinalNumMoves());
+            assertTrue(result.getSessionDuration() >= 0);
+        } catch (IOException e) {
+            fail("replay failed");
+            e.printStackTrace();
+        }
+    }
+
+    @Test
+    @Tag("controller")
+    @DisplayName("Controller - replay of several log files")
+    void replayFiles() {
+        try {
+            Path file = Files.createTempFile("session", ".log");
+            try {
+                Files.write(file, log);
+                GameContext context = new GameContext("levels/test/");
+                for (int i = 0; i < 3; i++) {
+                    SessionReplay.Result result = SessionReplay.replay(file, context);
+                    assertTrue(result.isVerified(), result.toString());
+                    assertEquals(finalNumMoves, result.getFinalNumMoves());
+                }
+
+                //Every replay loads levels 1 and 2 (and level 1 again on reload), but each one is parsed only once.
+                assertEquals(2, context.getLevelCache().getMisses());
+
+                assertTrue(SessionReplay.replay(file, "levels/test/").isVerified());
+            } finally {
+                Files.delete(file);
+            }
+        } catch (IOException e) {
+            fail("replayFiles failed");
+            e.printStackTrace();
+        }
+    }
+
+    @Test
+    @Tag("controller")
+    @DisplayName("Controller - replay of a tampered log")
+    void tampered() {
+        try {
+            //The last 4 bytes are the hash of the board of the last checkpoint.
+            byte[] tampered = log.clone();
+            tampered[tampered.length - 1] ^= 1;
+            SessionReplay.Result result = new SessionReplay().replay(ByteBuffer.wrap(tampered), new Game("levels/test/"));
+            assertFalse(result.isVerified());
+            assertEquals(1, result.getNumMismatches());
+            assertEquals(numEvents - 1, result.getFirstMismatch());
+
+            //The replay in a game with other levels does not match.
+            result = new SessionReplay().replay(ByteBuffer.wrap(log), new Game("levels/"));
+            assertFalse(result.isVerified());
+        } catch (IOException e) {
+            fail("tampered failed");
+            e.printStackTrace();
+        }
+
+        IOException ex = assertThrows(IOException.class, () ->
+                new SessionReplay().replay(ByteBuffer.wrap(Arrays.copyOf(log, log.length - 2)), new Game("levels/test/")));
+        assertTrue(ex.getMessage().contains("truncated"));
+
+        assertThrows(IOException.class, () ->
+                new SessionReplay().replay(ByteBuffer.wrap(new byte[20]), new Game("levels/test/")));
+    }
+}
@@ -0,0 +1,72 @@
+package edu.uoc.trip.generator;
+
+import edu.uoc.trip.model.levels.CompactLevel;
+import edu.uoc.trip.model.levels.Level;
+import edu.uoc.trip.model.levels.LevelDifficulty;
+import edu.uoc.trip.model.levels.LevelException;
+import edu.uoc.trip.solver.Move;
+import edu.uoc.trip.solver.Solution;
+import edu.uoc.trip.solver.Solver;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.TestInstance.Lifecycle.PER_CLASS;
+
+@TestInstance(PER_CLASS)
+class LevelGeneratorTest {
+
+    @ParameterizedTest
+    @EnumSource(LevelDifficulty.class)
+    @Tag("advanced")
+    @DisplayName("Advanced - generated levels are valid and solvable")
+    void generatedLevels(LevelDifficulty difficulty) {
+        try {
+            List<CompactLevel> levels = new LevelGenerator(42).generateAll(difficulty, 50);
+            assertEquals(50, levels.size());
+
+            for (CompactLevel compact : levels) {
+                assertEquals(difficulty, compact.getDifficulty());
+                assertEquals(LevelGenerator.getSize(difficulty), compact.getSize());
+
+                //The board satisfies the requirements of the level files...
+                Level level = new Level(compact);
+                assertFalse(level.isSolved());
+
+                //...and its minimum number of moves is in the range of its difficulty.
+                Solution solution = new Solver().solve(compact);
+                assertTrue(solution.getNumMoves() >= LevelGenerator.getMinMoves(difficulty));
+                assertTrue(solution.getNumMoves() <= LevelGenerator.getMaxMoves(difficulty));
+                for (Move move : solution.getMoves()) {
+                    move.applyTo(level);
+                }
+                assertTrue(level.isSolved());
+            }
+        } catch (LevelException e) {
+            fail("generatedLevels failed");
+            e.printStackTrace();
+        }
+    }
+
+    @Test
+    @Tag("advanced")
+    @DisplayName("Advanced - generator is reproducible")
+    void reproducible() {
+        List<CompactLevel> parallel = new LevelGenerator(7).generateAll(LevelDifficulty.MASTER, 40);
+        LevelGenerator generator = new LevelGenerator(7);
+        for (int i = 0; i < parallel.size(); i++) {
+            assertArrayEquals(generator.generate(LevelDifficulty.MASTER, i).toByteArray(), parallel.get(i).toByteArray());
+        }
+
+        //Another seed generates other levels.
+        assertFalse(Arrays.equals(parallel.get(0).toByteArray(),
+                new LevelGenerator(8).generate(LevelDifficulty.MASTER, 0).toByteArray()));
+    }
+}
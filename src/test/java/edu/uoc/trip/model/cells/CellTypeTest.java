@@ -65,8 +65,8 @@ class CellTypeTest {
     void checkMethodsSanity() {
         //Min 4 methods
         assertTrue(ownClass.getDeclaredMethods().length>=4);
-        //Max 6 public methods + 2 implicit public methods (values() and valueOf()).
-        assertEquals(8,Arrays.stream(ownClass.getDeclaredMethods()).filter(ModifierSupport::isPublic).count());
+        //Max 7 public methods + 2 implicit public methods (values() and valueOf()).
+        assertEquals(9,Arrays.stream(ownClass.getDeclaredMethods()).filter(ModifierSupport::isPublic).count());
         //Max 0 protected methods
         assertEquals(0,Arrays.stream(ownClass.getDeclaredMethods()).filter(p -> Modifier.isProtected(p.getModifiers())).count());
         //Max 0 package-private methods
@@ -157,6 +157,28 @@ class CellTypeTest {
         assertTrue(CellType.FREE.getAvailableConnections().isEmpty());
         assertEquals(EnumSet.of(Direction.UP, Direction.DOWN), CellType.ROTATABLE_VERTICAL.getAvailableConnections());
         assertEquals(EnumSet.of(Direction.LEFT, Direction.RIGHT), CellType.ROTATABLE_HORIZONTAL.getAvailableConnections());
+
+        //Each call returns a copy, so modifying it does not change the cell type.
+        assertNotSame(CellType.VERTICAL.getAvailableConnections(), CellType.VERTICAL.getAvailableConnections());
+        EnumSet<Direction> connections = CellType.START.getAvailableConnections();
+        connections.add(Direction.DOWN);
+        assertEquals(EnumSet.of(Direction.UP), CellType.START.getAvailableConnections());
+    }
+
+    @Test
+    @Tag("minimum")
+    @DisplayName("Minimum - getConnectionMask")
+    void getConnectionMask() {
+        for (CellType type : CellType.values()) {
+            int mask = 0;
+            for (Direction direction : type.getAvailableConnections()) {
+                mask |= 1 << direction.ordinal();
+            }
+            assertEquals(mask, type.getConnectionMask());
+        }
+        assertEquals(0, CellType.FREE.getConnectionMask());
+        assertEquals(0b0101, CellType.VERTICAL.getConnectionMask());
+        assertEquals(0b1010, CellType.ROTATABLE_HORIZONTAL.getConnectionMask());
     }
 
     @Test
@@ -176,6 +198,9 @@ class CellTypeTest {
         assertEquals(CellType.FREE, CellType.map2CellType('·'));
         assertEquals(CellType.ROTATABLE_VERTICAL, CellType.map2CellType('G'));
         assertEquals(CellType.ROTATABLE_HORIZONTAL, CellType.map2CellType('g'));
+        assertNull(CellType.map2CellType('X'));
+        assertNull(CellType.map2CellType('\0'));
+        assertNull(CellType.map2CellType('\u2551'));
     }
 
     @Test
@@ -0,0 +1,154 @@
+package edu.uoc.trip.model.levels;
+
+import edu.uoc.trip.model.cells.CellType;
+import edu.uoc.trip.model.cells.MovableCell;
+import edu.uoc.trip.model.cells.RotatableCell;
+import edu.uoc.trip.model.utils.Coordinate;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.TestInstance.Lifecycle.PER_CLASS;
+
+@TestInstance(PER_CLASS)
+class CompactLevelTest {
+
+    private CompactLevel level;
+    private final Class<CompactLevel> ownClass = CompactLevel.class;
+
+    @BeforeEach
+    void setUp() {
+        try {
+            level = new CompactLevel(new Level("levels/test/level1.txt"));
+        } catch (LevelException e) {
+            fail("setUp failed");
+            e.printStackTrace();
+        }
+    }
+
+    @Test
+    @Tag("sanity")
+    @DisplayName("Sanity - Fields definition")
+    void checkFieldsSanity() {
+        //All fields must be private
+        assertTrue(Arrays.stream(ownClass.getDeclaredFields()).allMatch(p -> Modifier.isPrivate(p.getModifiers())));
+        assertEquals("edu.uoc.trip.model.levels", ownClass.getPackageName());
+    }
+
+    @Test
+    @Tag("minimum")
+    @DisplayName("Minimum - Constructor exceptions")
+    void testConstructorException() {
+        LevelException ex = assertThrows(LevelException.class, () -> new CompactLevel(2, LevelDifficulty.STARTER, new byte[4]));
+        assertEquals(LevelException.ERROR_BOARD_SIZE, ex.getMessage());
+
+        ex = assertThrows(LevelException.class, () -> new CompactLevel(3, LevelDifficulty.STARTER, new byte[8]));
+        assertEquals(LevelException.ERROR_PARSING_LEVEL_FILE, ex.getMessage());
+
+        //Each cell must be the ordinal of a cell type.
+        byte[] cells = new byte[9];
+        cells[4] = (byte) CellType.values().length;
+        ex = assertThrows(LevelException.class, () -> new CompactLevel(3, LevelDifficulty.STARTER, cells));
+        assertEquals(LevelException.ERROR_PARSING_LEVEL_FILE, ex.getMessage());
+        cells[4] = -1;
+        ex = assertThrows(LevelException.class, () -> new CompactLevel(3, LevelDifficulty.STARTER, cells));
+        assertEquals(LevelException.ERROR_PARSING_LEVEL_FILE, ex.getMessage());
+    }
+
+    @Test
+    @Tag("minimum")
+    @DisplayName("Minimum - getCell")
+    void getCell() {
+        try {
+            assertEquals(4, level.getSize());
+            assertEquals(LevelDifficulty.STARTER, level.getDifficulty());
+            assertEquals(CellType.TOP_RIGHT, level.getType(2, 2));
+            assertEquals(CellType.FINISH, level.getCell(new Coordinate(0, 0)).getType());
+            assertEquals(CellType.START, level.getCell(new Coordinate(3, 3)).getType());
+            assertTrue(level.getCell(new Coordinate(1, 2)) instanceof MovableCell);
+            assertTrue(level.getCell(new Coordinate(1, 3)) instanceof RotatableCell);
+            assertEquals(new Coordinate(1, 3), level.getCell(new Coordinate(1, 3)).getCoordinate());
+
+            LevelException ex = assertThrows(LevelException.class, () -> level.getCell(new Coordinate(3, 4)));
+            assertEquals(LevelException.ERROR_COORDINATE, ex.getMessage());
+
+            ex = assertThrows(LevelException.class, () -> level.getType(-1, 0));
+            assertEquals(LevelException.ERROR_COORDINATE, ex.getMessage());
+        } catch (LevelException e) {
+            fail("getCell failed");
+            e.printStackTrace();
+        }
+    }
+
+    @Test
+    @Tag("minimum")
+    @DisplayName("Minimum - swapCells and rotateCell")
+    void swapAndRotate() {
+        try {
+            LevelException ex = assertThrows(LevelException.class, () -> level.swapCells(new Coordinate(0, 0), new Coordinate(1, 0)));
+            assertEquals(LevelException.ERROR_NO_MOVABLE_CELL, ex.getMessage());
+
+            ex = assertThrows(LevelException.class, () -> level.swapCells(new Coordinate(1, 0), new Coordinate(1, 3)));
+            assertEquals(LevelException.ERROR_NO_MOVABLE_CELL, ex.getMessage());
+
+            ex = assertThrows(LevelException.class, () -> level.rotateCell(new Coordinate(1, 0)));
+            assertEquals(LevelException.ERROR_NO_ROTATABLE_CELL, ex.getMessage());
+
+            level.swapCells(new Coordinate(1, 0), new Coordinate(2, 2));
+            assertEquals(CellType.TOP_RIGHT, level.getType(1, 0));
+            assertEquals(CellType.BOTTOM_RIGHT, level.getType(2, 2));
+
+            level.rotateCell(new Coordinate(1, 3));
+            assertEquals(CellType.ROTATABLE_HORIZONTAL, level.getType(1, 3));
+            assertEquals(2, level.getNumMoves());
+        } catch (LevelException e) {
+            fail("swapAndRotate failed");
+            e.printStackTrace();
+        }
+    }
+
+    @Test
+    @Tag("advanced")
+    @DisplayName("Advanced - Same behaviour as Level")
+    void sameAsLevel() {
+        try {
+            Level original = new Level("levels/test/level1.txt");
+            assertEquals(original.toString(), level.toString());
+
+            Coordinate[][] moves = {
+                    {new Coordinate(1, 0), new Coordinate(2, 0)},
+                    {new Coordinate(2, 1), new Coordinate(2, 2)},
+                    {new Coordinate(1, 2), new Coordinate(2, 2)}};
+
+            for (Coordinate[] move : moves) {
+                assertEquals(original.isSolved(), level.isSolved());
+                original.swapCells(move[0], move[1]);
+                level.swapCells(move[0], move[1]);
+                assertEquals(original.toString(), level.toString());
+            }
+            assertTrue(level.isSolved());
+            assertEquals(original.getNumMoves(), level.getNumMoves());
+        } catch (LevelException e) {
+            fail("sameAsLevel failed");
+            e.printStackTrace();
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 2, 3, 4, 5, 6, 7, 8, 9})
+    @Tag("advanced")
+    @DisplayName("Advanced - isSolved")
+    void isSolved(int id) {
+        try {
+            assertTrue(new CompactLevel(new Level("levels/solved/level" + id + ".txt")).isSolved());
+            assertFalse(new CompactLevel(new Level("levels/unsolved/level" + id + ".txt")).isSolved());
+        } catch (LevelException e) {
+            fail("isSolved failed");
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package edu.uoc.trip.model.levels;
+
+import edu.uoc.trip.model.cells.CellType;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.TestInstance.Lifecycle.PER_CLASS;
+
+@TestInstance(PER_CLASS)
+class ConnectionTableTest {
+
+    private final Class<ConnectionTable> ownClass = ConnectionTable.class;
+
+    @Test
+    @Tag("sanity")
+    @DisplayName("Sanity - Class definition")
+    void checkClassSanity() {
+        int modifiers = ownClass.getModifiers();
+        assertTrue(Modifier.isPublic(modifiers));
+        assertTrue(Modifier.isFinal(modifiers));
+        assertEquals("edu.uoc.trip.model.levels", ownClass.getPackageName());
+
+        assertEquals(1, ownClass.getDeclaredConstructors().length);
+        assertTrue(Modifier.isPrivate(ownClass.getDeclaredConstructors()[0].getModifiers()));
+    }
+
+    @Test
+    @Tag("minimum")
+    @DisplayName("Minimum - getConnectionMask")
+    void getConnectionMask() {
+        for (CellType type : CellType.values()) {
+            int mask = 0;
+            for (Direction direction : type.getAvailableConnections()) {
+                mask |= 1 << direction.ordinal();
+            }
+            assertEquals(mask, ConnectionTable.getConnectionMask(type.ordinal()));
+        }
+    }
+
+    @Test
+    @Tag("minimum")
+    @DisplayName("Minimum - getCompatibleTypes")
+    void getCompatibleTypes() {
+        int fromStart = ConnectionTable.getCompatibleTypes(CellType.START, Direction.UP);
+        assertEquals((1 << CellType.FINISH.ordinal())
+                | (1 << CellType.VERTICAL.ordinal())
+                | (1 << CellType.BOTTOM_RIGHT.ordinal())
+                | (1 << CellType.BOTTOM_LEFT.ordinal())
+                | (1 << CellType.ROTATABLE_VERTICAL.ordinal()), fromStart);
+
+        int fromHorizontal = ConnectionTable.getCompatibleTypes(CellType.HORIZONTAL, Direction.RIGHT);
+        assertEquals((1 << CellType.FINISH.ordinal())
+                | (1 << CellType.HORIZONTAL.ordinal())
+                | (1 << CellType.BOTTOM_LEFT.ordinal())
+                | (1 << CellType.TOP_LEFT.ordinal())
+                | (1 << CellType.ROTATABLE_HORIZONTAL.ordinal()), fromHorizontal);
+
+        assertEquals(0, ConnectionTable.getCompatibleTypes(CellType.START, Direction.DOWN));
+        assertEquals(0, ConnectionTable.getCompatibleTypes(CellType.MOUNTAINS, Direction.UP));
+        assertEquals(0, ConnectionTable.getCompatibleTypes(CellType.FREE, Direction.LEFT));
+    }
+
+    @Test
+    @Tag("minimum")
+    @DisplayName("Minimum - connects")
+    void connects() {
+        assertTrue(ConnectionTable.connects(CellType.VERTICAL.ordinal(), Direction.UP.ordinal(), CellType.FINISH.ordinal()));
+        assertTrue(ConnectionTable.connects(CellType.TOP_RIGHT.ordinal(), Direction.RIGHT.ordinal(), CellType.TOP_LEFT.ordinal()));
+        assertFalse(ConnectionTable.connects(CellType.TOP_RIGHT.ordinal(), Direction.LEFT.ordinal(), CellType.HORIZONTAL.ordinal()));
+        assertTrue(ConnectionTable.connects(CellType.HORIZONTAL.ordinal(), Direction.LEFT.ordinal(), CellType.FINISH.ordinal()));
+        assertFalse(ConnectionTable.connects(CellType.VERTICAL.ordinal(), Direction.DOWN.ordinal(), CellType.START.ordinal()));
+
+        //Except for the starting and finish cells, the table must be symmetric:
+        //A connects to B moving in D iff B connects to A moving in opposite(D).
+        for (CellType from : CellType.values()) {
+            for (Direction direction : Direction.values()) {
+                for (CellType to : CellType.values()) {
+                    if (from == CellType.START || from == CellType.FINISH || to == CellType.START || to == CellType.FINISH) {
+                        continue;
+                    }
+                    assertEquals(ConnectionTable.connects(from.ordinal(), direction.ordinal(), to.ordinal()),
+                            ConnectionTable.connects(to.ordinal(), direction.getOpposite().ordinal(), from.ordinal()));
+                }
+            }
+        }
+    }
+
+    /**
+     * Copy of the checkPath method of Level before the connection table was introduced.
+     */
+    private boolean baselineCheckPath(char current, char next, Direction direction) {
+        if (current == 'S' && direction == Direction.UP && "FVlrG".indexOf(next) >= 0) return true;
+        if (current == 'l' && direction == Direction.DOWN && "FGVRL".indexOf(next) >= 0) return true;
+        if (current == 'l' && direction == Direction.LEFT && "FRrgH".indexOf(next) >= 0) return true;
+        if (current == 'R' && direction == Direction.UP && "FVlrG".indexOf(next) >= 0) return true;
+        if (current == 'R' && direction == Direction.RIGHT && "FlLHg".indexOf(next) >= 0) return true;
+        if (current == 'L' && direction == Direction.UP && "FlrVG".indexOf(next) >= 0) return true;
+        if (current == 'L' && direction == Direction.LEFT && "FrHgR".indexOf(next) >= 0) return true;
+        if ((current == 'H' || current == 'g') && direction == Direction.RIGHT && "FLlgH".indexOf(next) >= 0) return true;
+        if ((current == 'H' || current == 'g') && direction == Direction.LEFT && "FRrgH".indexOf(next) >= 0) return true;
+        if ((current == 'V' || current == 'G') && direction == Direction.UP && "FlrGV".indexOf(next) >= 0) return true;
+        if ((current == 'V' || current == 'G') && direction == Direction.DOWN && "FLRGV".indexOf(next) >= 0) return true;
+        if (current == 'r' && direction == Direction.RIGHT && "FLgHl".indexOf(next) >= 0) return true;
+        return current == 'r' && direction == Direction.DOWN && "FGVLR".indexOf(next) >= 0;
+    }
+
+    @Test
+    @Tag("advanced")
+    @DisplayName("Advanced - same results as the original checkPath")
+    void baselineCheckPath() {
+        for (CellType from : CellType.values()) {
+            for (Direction direction : Direction.values()) {
+                for (CellType to : CellType.values()) {
+                    assertEquals(baselineCheckPath(from.getFileSymbol(), to.getFileSymbol(), direction),
+                            ConnectionTable.connects(from.ordinal(), direction.ordinal(), to.ordinal()),
+                            from + " " + direction + " " + to);
+                }
+            }
+        }
+
+        //Paths which enter the finish cell horizontally.
+        try {
+            for (String text : Arrays.asList("3\nSTARTER\nFl·\n·V·\n·S·\n", "3\nSTARTER\n·rF\n·V·\n·S·\n",
+                    "3\nSTARTER\nFHl\n··V\n··S\n")) {
+                Level level = new Level(new BufferedReader(new StringReader(text)));
+                assertTrue(level.isSolved(), text);
+                assertTrue(new CompactLevel(level).isSolved(), text);
+            }
+        } catch (LevelException e) {
+            fail("baselineCheckPath failed");
+            e.printStackTrace();
+        }
+    }
+}
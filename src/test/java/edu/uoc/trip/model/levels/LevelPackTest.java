@@ -0,0 +1,121 @@
+package edu.uoc.trip.model.levels;
+
+import edu.uoc.trip.model.cells.CellType;
+import edu.uoc.trip.model.utils.Coordinate;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.TestInstance.Lifecycle.PER_CLASS;
+
+@TestInstance(PER_CLASS)
+class LevelPackTest {
+
+    @TempDir
+    Path folder;
+
+    @Test
+    @Tag("advanced")
+    @DisplayName("Advanced - write and read a pack")
+    void writeAndRead() {
+        try {
+            List<CompactLevel> levels = new ArrayList<>();
+            List<Level> originals = new ArrayList<>();
+            for (int i = 1; i <= 9; i++) {
+                Level level = new Level("levels/solved/level" + i + ".txt");
+                originals.add(level);
+                levels.add(new CompactLevel(level));
+            }
+            Path file = folder.resolve("solved.pack");
+            LevelPack.write(levels, file);
+
+            LevelPack pack = LevelPack.open(file);
+            assertEquals(9, pack.size());
+            for (int i = 0; i < pack.size(); i++) {
+                Level level = pack.getLevel(i);
+                assertEquals(originals.get(i).toString(), level.toString());
+                assertEquals(originals.get(i).getDifficulty(), level.getDifficulty());
+                assertEquals(0, level.getNumMoves());
+                assertTrue(level.isSolved());
+                assertArrayEquals(levels.get(i).toByteArray(), pack.getCompactLevel(i).toByteArray());
+            }
+
+            assertThrows(IndexOutOfBoundsException.class, () -> pack.getLevel(9));
+            assertThrows(IndexOutOfBoundsException.class, () -> pack.getLevel(-1));
+        } catch (IOException | LevelException e) {
+            fail("writeAndRead failed");
+            e.printStackTrace();
+        }
+    }
+
+    @Test
+    @Tag("advanced")
+    @DisplayName("Advanced - pack keeps the current state")
+    void currentState() {
+        try {
+            Level level = new Level("levels/level1.txt");
+            level.swapCells(new Coordinate(1, 0), new Coordinate(2, 0));
+            Path file = folder.resolve("moved.pack");
+            LevelPack.write(List.of(new CompactLevel(level)), file);
+
+            Level read = LevelPack.open(file).getLevel(0);
+            assertEquals(level.toString(), read.toString());
+            //An odd number of cells (3x3) is padded with an empty nibble.
+            assertEquals(12 + 8 + 2 + 5, Files.size(file));
+        } catch (IOException | LevelException e) {
+            fail("currentState failed");
+            e.printStackTrace();
+        }
+    }
+
+    @Test
+    @Tag("advanced")
+    @DisplayName("Advanced - invalid packs")
+    void invalidPacks() {
+        try {
+            Path text = folder.resolve("text.pack");
+            Files.writeString(text, "It is not a pack");
+            assertThrows(IOException.class, () -> LevelPack.open(text));
+
+            //A level without a finish cell is rejected when the Level object is built.
+            byte s = (byte) CellType.START.ordinal();
+            byte m = (byte) CellType.MOUNTAINS.ordinal();
+            byte v = (byte) CellType.VERTICAL.ordinal();
+            Path noFinish = folder.resolve("no-finish.pack");
+            LevelPack.write(List.of(new CompactLevel(3, LevelDifficulty.STARTER,
+                    new byte[]{m, v, m, m, v, m, m, s, m})), noFinish);
+
+            LevelPack pack = LevelPack.open(noFinish);
+            assertNotNull(pack.getCompactLevel(0));
+            LevelException ex = assertThrows(LevelException.class, () -> pack.getLevel(0));
+            assertEquals(LevelException.ERROR_NO_FINISH, ex.getMessage());
+
+            //Corrupted cell: 0xF is not the ordinal of any cell type.
+            byte[] bytes = Files.readAllBytes(noFinish);
+            bytes[bytes.length - 1] = (byte) 0xFF;
+            Path corrupted = folder.resolve("corrupted.pack");
+            Files.write(corrupted, bytes);
+            ex = assertThrows(LevelException.class, () -> LevelPack.open(corrupted).getCompactLevel(0));
+            assertEquals(LevelException.ERROR_PARSING_LEVEL_FILE, ex.getMessage());
+
+            //The size of a level is stored in 1 byte, so bigger boards cannot be written.
+            int size = LevelPack.MAX_LEVEL_SIZE + 1;
+            CompactLevel huge = new CompactLevel(size, LevelDifficulty.STARTER, new byte[size * size]);
+            Path hugePack = folder.resolve("huge.pack");
+            assertThrows(IOException.class, () -> LevelPack.write(List.of(huge), hugePack));
+            assertFalse(Files.exists(hugePack));
+        } catch (IOException | LevelException e) {
+            fail("invalidPacks failed");
+            e.printStackTrace();
+        }
+    }
+}
@@ -5,15 +5,24 @@ import edu.uoc.trip.model.cells.CellType;
 import edu.uoc.trip.model.cells.MovableCell;
 import edu.uoc.trip.model.cells.RotatableCell;
 import edu.uoc.trip.model.utils.Coordinate;
+import edu.uoc.trip.solver.Move;
+import edu.uoc.trip.solver.Solver;
 import org.junit.jupiter.api.*;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ValueSource;
 import org.junit.platform.commons.support.ModifierSupport;
 
 import java.io.BufferedReader;
+import java.io.StringReader;
 import java.lang.reflect.Field;
 import java.lang.reflect.Modifier;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.junit.jupiter.api.TestInstance.Lifecycle.PER_CLASS;
@@ -79,7 +88,7 @@ class LevelTest {
         //Min 17 methods
         assertTrue(ownClass.getDeclaredMethods().length>=17);
         //Max 8 public methods
-        assertEquals(8,Arrays.stream(ownClass.getDeclaredMethods()).filter(p -> Modifier.isPublic(p.getModifiers())).count());
+        assertEquals(13,Arrays.stream(ownClass.getDeclaredMethods()).filter(p -> Modifier.isPublic(p.getModifiers())).count());
         //Max 0 protected methods
         assertEquals(0,Arrays.stream(ownClass.getDeclaredMethods()).filter(p -> Modifier.isProtected(p.getModifiers())).count());
         //Max 0 package-private methods
@@ -97,12 +106,18 @@ class LevelTest {
             assertTrue(Modifier.isPrivate(ownClass.getDeclaredMethod("validatePosition", Coordinate.class).getModifiers()));
             assertTrue(Modifier.isPrivate(ownClass.getDeclaredMethod("setCell", Coordinate.class, Cell.class).getModifiers()));
 
-            //Max 1 constructor
-            assertEquals(1,ownClass.getDeclaredConstructors().length);
+            //Max 4 constructors
+            assertEquals(4,ownClass.getDeclaredConstructors().length);
 
-            //Constructor
+            //Constructors
             int modifiers = ownClass.getDeclaredConstructor(String.class).getModifiers();
             assertTrue(Modifier.isPublic(modifiers));
+            modifiers = ownClass.getDeclaredConstructor(Level.class).getModifiers();
+            assertTrue(Modifier.isPublic(modifiers));
+            modifiers = ownClass.getDeclaredConstructor(CompactLevel.class).getModifiers();
+            assertTrue(Modifier.isPublic(modifiers));
+            modifiers = ownClass.getDeclaredConstructor(BufferedReader.class).getModifiers();
+            assertTrue(Modifier.isPublic(modifiers));
 
         } catch (NoSuchMethodException e) {
             fail("There is some problem with the definition of Level's methods/constructors. Please read the PRAC 2 - Statement:\n");
@@ -117,6 +132,9 @@ class LevelTest {
         LevelException ex = assertThrows(LevelException.class, () -> new Level("levels/errors/level-error-no-rows.txt"));
         assertEquals(LevelException.ERROR_PARSING_LEVEL_FILE, ex.getMessage());
 
+        ex = assertThrows(LevelException.class, () -> new Level("levels/errors/level-error-short-row.txt"));
+        assertEquals(LevelException.ERROR_PARSING_LEVEL_FILE, ex.getMessage());
+
         ex = assertThrows(LevelException.class, () -> new Level("levels/errors/level-error-no-starting.txt"));
         assertEquals(LevelException.ERROR_NO_STARTING, ex.getMessage());
 
@@ -125,6 +143,11 @@ class LevelTest {
 
         ex = assertThrows(LevelException.class, () -> new Level("levels/errors/level-error-no-road.txt"));
         assertEquals(LevelException.ERROR_NO_ROAD, ex.getMessage());
+
+        //The moves of the journal could not be encoded with a bigger board.
+        int size = LevelPack.MAX_LEVEL_SIZE + 1;
+        ex = assertThrows(LevelException.class, () -> new Level(new CompactLevel(size, LevelDifficulty.STARTER, new byte[size * size])));
+        assertEquals(LevelException.ERROR_BOARD_SIZE, ex.getMessage());
     }
 
     @Test
@@ -294,6 +317,341 @@ class LevelTest {
         }
     }
 
+    @ParameterizedTest
+    @ValueSource(ints = {1,2,3,4,5,6,7,8,9})
+    @Tag("advanced")
+    @DisplayName("Advanced - isSolved after moves")
+    void isSolvedAfterMoves(int id){
+        //The path is updated incrementally, so it must always agree with a full walk of the board.
+        Random random = new Random(id);
+        try {
+            level = new Level("levels/solved/level"+id+".txt");
+            int size = level.getSize();
+            for (int i = 0; i < 2000; i++) {
+                Coordinate first = new Coordinate(random.nextInt(size), random.nextInt(size));
+                Coordinate second = new Coordinate(random.nextInt(size), random.nextInt(size));
+                try {
+                    if (random.nextBoolean()) {
+                        level.rotateCell(first);
+                    } else {
+                        level.swapCells(first, second);
+                    }
+                } catch (LevelException e) {
+                    continue;
+                }
+                assertEquals(new CompactLevel(level).isSolved(), level.isSolved());
+            }
+        } catch (LevelException e) {
+            fail("isSolvedAfterMoves failed");
+            e.printStackTrace();
+        }
+    }
+
+    @Test
+    @Tag("advanced")
+    @DisplayName("Advanced - reader constructor")
+    void readerConstructor() {
+        try {
+            String data = "# comment" + System.lineSeparator() + "3" + System.lineSeparator() + "STARTER"
+                    + System.lineSeparator() + "·F·" + System.lineSeparator() + "·V·" + System.lineSeparator() + "·S·";
+            Level fromReader = new Level(new BufferedReader(new StringReader(data)));
+            assertEquals(3, fromReader.getSize());
+            assertEquals(LevelDifficulty.STARTER, fromReader.getDifficulty());
+            assertTrue(fromReader.isSolved());
+
+            LevelException ex = assertThrows(LevelException.class,
+                    () -> new Level(new BufferedReader(new StringReader("3\nSTARTER\n·F·\n·M·\n·M·"))));
+            assertEquals(LevelException.ERROR_NO_STARTING, ex.getMessage());
+        } catch (LevelException e) {
+            fail("readerConstructor failed");
+            e.printStackTrace();
+        }
+    }
+
+    @Test
+    @Tag("advanced")
+    @DisplayName("Advanced - undo and redo")
+    void undoRedo() {
+        try {
+            String initial = level.toString();
+            assertFalse(level.undo());
+            assertFalse(level.redo());
+
+            level.swapCells(new Coordinate(2,0), new Coordinate(1,1));
+            String swapped = level.toString();
+            level.rotateCell(new Coordinate(1,3));
+            String rotated = level.toString();
+            assertEquals(2, level.getNumMoves());
+
+            assertTrue(level.undo());
+            assertEquals(swapped, level.toString());
+            assertEquals(CellType.ROTATABLE_VERTICAL, level.getCell(new Coordinate(1,3)).getType());
+            assertEquals(1, level.getNumMoves());
+
+            assertTrue(level.undo());
+            assertEquals(initial, level.toString());
+            assertEquals("(1,1)", level.getCell(new Coordinate(1,1)).getCoordinate().toString());
+            assertEquals(0, level.getNumMoves());
+            assertFalse(level.undo());
+
+            assertTrue(level.redo());
+            assertTrue(level.redo());
+            assertEquals(rotated, level.toString());
+            assertEquals(2, level.getNumMoves());
+            assertFalse(level.redo());
+
+            //A new move discards the moves that could be redone.
+            assertTrue(level.undo());
+            level.rotateCell(new Coordinate(1,3));
+            assertFalse(level.redo());
+            assertEquals(2, level.getNumMoves());
+        } catch (LevelException e) {
+            fail("undoRedo failed");
+            e.printStackTrace();
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 2, 3, 4, 5, 6, 7})
+    @Tag("advanced")
+    @DisplayName("Advanced - undo keeps isSolved up to date")
+    void undoSolved(int id) {
+        try {
+            level = new Level("levels/solved/level" + id + ".txt");
+            level.undo();
+            assertTrue(level.isSolved());
+
+            Level unsolved = new Level("levels/level" + id + ".txt");
+            for (Move move : new Solver().solve(unsolved).getMoves()) {
+                move.applyTo(unsolved);
+            }
+            assertTrue(unsolved.isSolved());
+
+            while (unsolved.undo()) {
+                assertFalse(unsolved.isSolved());
+            }
+            assertEquals(0, unsolved.getNumMoves());
+
+            while (unsolved.redo()) {
+                //it is only solved after the last move
+            }
+            assertTrue(unsolved.isSolved());
+        } catch (LevelException e) {
+            fail("undoSolved failed");
+            e.printStackTrace();
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 2, 3, 4, 5, 6, 7})
+    @Tag("advanced")
+    @DisplayName("Advanced - incremental and from-scratch board hashes agree")
+    void boardHash(int id) {
+        try {
+            level = new Level("levels/level" + id + ".txt");
+            Level concurrent = new Level(level);
+            concurrent.setConcurrent(true);
+            long initialHash = level.getBoardHash();
+            assertEquals(ZobristTable.hash(new CompactLevel(level).toByteArray()), initialHash);
+            assertNotEquals(initialHash, new Level("levels/solved/level" + id + ".txt").getBoardHash());
+
+            List<Coordinate> movable = new ArrayList<>();
+            List<Coordinate> rotatable = new ArrayList<>();
+            for (int row = 0; row < level.getSize(); row++) {
+                for (int column = 0; column < level.getSize(); column++) {
+                    Cell cell = level.getCell(new Coordinate(row, column));
+                    if (cell.isMovable()) movable.add(cell.getCoordinate());
+                    if (cell.isRotatable()) rotatable.add(cell.getCoordinate());
+                }
+            }
+
+            Random random = new Random(id);
+            for (int i = 0; i < 2000; i++) {
+                int action = random.nextInt(10);
+                if (action < 5) {
+                    Coordinate first = movable.get(random.nextInt(movable.size()));
+                    Coordinate second = movable.get(random.nextInt(movable.size()));
+                    level.swapCells(first, second);
+                    concurrent.swapCells(first, second);
+                } else if (action < 7 && !rotatable.isEmpty()) {
+                    Coordinate coord = rotatable.get(random.nextInt(rotatable.size()));
+                    level.rotateCell(coord);
+                    concurrent.rotateCell(coord);
+                } else if (action < 9) {
+                    assertEquals(level.undo(), concurrent.undo());
+                } else {
+                    assertEquals(level.redo(), concurrent.redo());
+                }
+
+                long expected = ZobristTable.hash(new CompactLevel(level).toByteArray());
+                assertEquals(expected, level.getBoardHash());
+                assertEquals(expected, concurrent.getBoardHash());
+                assertEquals(expected, new Level(new CompactLevel(level)).getBoardHash());
+                assertEquals(expected, new Level(level).getBoardHash());
+            }
+
+            //The hash only depends on the board, not on the moves that led to it.
+            while (level.undo()) {
+                //back to the initial board
+            }
+            assertEquals(0, level.getNumMoves());
+            assertEquals(initialHash, level.getBoardHash());
+
+            //The hash is computed again when the concurrent mode is disabled.
+            concurrent.setConcurrent(false);
+            assertEquals(ZobristTable.hash(new CompactLevel(concurrent).toByteArray()), concurrent.getBoardHash());
+        } catch (LevelException e) {
+            fail("boardHash failed");
+            e.printStackTrace();
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 2, 3, 4, 5, 6, 7})
+    @Tag("advanced")
+    @DisplayName("Advanced - concurrent mode behaves as the normal one")
+    void concurrentMode(int id) {
+        try {
+            Level normal = new Level("levels/level" + id + ".txt");
+            Level concurrent = new Level("levels/level" + id + ".txt");
+            concurrent.setConcurrent(true);
+            assertTrue(concurrent.isConcurrent());
+
+            for (Move move : new Solver().solve(normal).getMoves()) {
+                assertEquals(normal.isSolved(), concurrent.isSolved());
+                move.applyTo(normal);
+                move.applyTo(concurrent);
+                assertEquals(normal.toString(), concurrent.toString());
+                assertEquals(normal.getNumMoves(), concurrent.getNumMoves());
+            }
+            assertTrue(concurrent.isSolved());
+
+            assertTrue(concurrent.undo());
+            assertFalse(concurrent.isSolved());
+            assertTrue(concurrent.redo());
+            assertTrue(concurrent.isSolved());
+
+            Level copy = new Level(concurrent);
+            assertFalse(copy.isConcurrent());
+            assertTrue(copy.isSolved());
+
+            //The path is rebuilt when the concurrent mode is disabled.
+            concurrent.setConcurrent(false);
+            assertTrue(concurrent.isSolved());
+            assertTrue(concurrent.undo());
+            assertFalse(concurrent.isSolved());
+        } catch (LevelException e) {
+            fail("concurrentMode failed");
+            e.printStackTrace();
+        }
+    }
+
+    @Test
+    @Tag("advanced")
+    @DisplayName("Advanced - concurrent moves and consistent snapshots")
+    void concurrentMoves() throws InterruptedException, LevelException {
+        level.setConcurrent(true);
+        String initial = level.toString();
+        int[] expected = countTypes(level);
+
+        int numThreads = 4;
+        int movesPerThread = 250;
+        AtomicInteger numMoves = new AtomicInteger();
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicReference<String> error = new AtomicReference<>();
+
+        Thread reader = new Thread(() -> {
+            while (running.get()) {
+                try {
+                    //A torn snapshot would have duplicated or missing pieces.
+                    if (!Arrays.equals(expected, countTypes(level))) {
+                        error.set("Inconsistent snapshot: " + level);
+                    }
+                    level.isSolved();
+                } catch (LevelException e) {
+                    error.set(e.getMessage());
+                }
+            }
+        });
+        reader.start();
+
+        Thread[] writers = new Thread[numThreads];
+        for (int t = 0; t < numThreads; t++) {
+            Random random = new Random(t);
+            writers[t] = new Thread(() -> {
+                for (int i = 0; i < movesPerThread; i++) {
+                    Coordinate first = new Coordinate(random.nextInt(4), random.nextInt(4));
+                    Coordinate second = new Coordinate(random.nextInt(4), random.nextInt(4));
+                    try {
+                        if (random.nextBoolean()) {
+                            level.swapCells(first, second);
+                        } else {
+                            level.rotateCell(first);
+                        }
+                        numMoves.incrementAndGet();
+                    } catch (LevelException e) {
+                        //It is not a movable/rotatable cell.
+                    }
+                }
+            });
+            writers[t].start();
+        }
+
+        for (Thread writer : writers) {
+            writer.join();
+        }
+        running.set(false);
+        reader.join();
+
+        assertNull(error.get());
+        assertEquals(numMoves.get(), level.getNumMoves());
+
+        //The journal has every move, so undoing all of them restores the initial board.
+        while (level.undo()) {
+            //undo the next one
+        }
+        assertEquals(0, level.getNumMoves());
+        assertEquals(initial, level.toString());
+    }
+
+    /**
+     * Counts the cells of each type of a consistent snapshot of the level. Both rotatable types are counted together,
+     * since rotations change one into the other.
+     */
+    private static int[] countTypes(Level level) throws LevelException {
+        int[] counts = new int[CellType.values().length];
+        for (byte type : new CompactLevel(level).toByteArray()) {
+            counts[type == CellType.ROTATABLE_HORIZONTAL.ordinal() ? CellType.ROTATABLE_VERTICAL.ordinal() : type]++;
+        }
+        return counts;
+    }
+
+    @Test
+    @Tag("advanced")
+    @DisplayName("Advanced - copy constructor")
+    void copyConstructor() {
+        try {
+            level.swapCells(new Coordinate(2,0), new Coordinate(1,1));
+            Level copy = new Level(level);
+            assertEquals(level.toString(), copy.toString());
+            assertEquals(level.getNumMoves(), copy.getNumMoves());
+            assertEquals(level.getDifficulty(), copy.getDifficulty());
+
+            //Both levels are independent.
+            copy.swapCells(new Coordinate(2,0), new Coordinate(1,1));
+            assertNotEquals(level.toString(), copy.toString());
+            assertEquals(1, level.getNumMoves());
+            assertEquals(2, copy.getNumMoves());
+            assertNotSame(level.getCell(new Coordinate(1,1)), copy.getCell(new Coordinate(1,1)));
+
+            Level solved = new Level(new Level("levels/solved/level1.txt"));
+            assertTrue(solved.isSolved());
+        } catch (LevelException e) {
+            fail("copyConstructor failed");
+            e.printStackTrace();
+        }
+    }
+
     @Test
     @Tag("minimum")
     @DisplayName("Minimum - toString")
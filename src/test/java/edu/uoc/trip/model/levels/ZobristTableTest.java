@@ -0,0 +1,68 @@
+package edu.uoc.trip.model.levels;
+
+import edu.uoc.trip.model.cells.CellType;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+
+import java.lang.reflect.Modifier;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.TestInstance.Lifecycle.PER_CLASS;
+
+@TestInstance(PER_CLASS)
+class ZobristTableTest {
+
+    private final Class<ZobristTable> ownClass = ZobristTable.class;
+
+    @Test
+    @Tag("sanity")
+    @DisplayName("Sanity - Class definition")
+    void checkClassSanity() {
+        int modifiers = ownClass.getModifiers();
+        assertTrue(Modifier.isPublic(modifiers));
+        assertTrue(Modifier.isFinal(modifiers));
+        assertEquals("edu.uoc.trip.model.levels", ownClass.getPackageName());
+
+        assertEquals(1, ownClass.getDeclaredConstructors().length);
+        assertTrue(Modifier.isPrivate(ownClass.getDeclaredConstructors()[0].getModifiers()));
+    }
+
+    @Test
+    @Tag("minimum")
+    @DisplayName("Minimum - getKey")
+    void getKey() {
+        //The keys of small and big boards (precomputed or not) are all different.
+        Set<Long> keys = new HashSet<>();
+        int numTypes = CellType.values().length;
+        for (int position = 0; position < 64 * 64; position++) {
+            for (int type = 0; type < numTypes; type++) {
+                assertTrue(keys.add(ZobristTable.getKey(position, type)));
+            }
+        }
+        assertEquals(64 * 64 * numTypes, keys.size());
+    }
+
+    @Test
+    @Tag("minimum")
+    @DisplayName("Minimum - hash")
+    void hash() {
+        byte v = (byte) CellType.VERTICAL.ordinal();
+        byte h = (byte) CellType.HORIZONTAL.ordinal();
+        byte free = (byte) CellType.FREE.ordinal();
+
+        assertEquals(0, ZobristTable.hash(new byte[0]));
+        assertEquals(ZobristTable.getKey(0, v) ^ ZobristTable.getKey(1, h) ^ ZobristTable.getKey(2, free),
+                ZobristTable.hash(new byte[]{v, h, free}));
+
+        //A swap and a rotation change the hash, and undoing them restores it.
+        long hash = ZobristTable.hash(new byte[]{v, h, free});
+        assertNotEquals(hash, ZobristTable.hash(new byte[]{h, v, free}));
+        assertNotEquals(hash, ZobristTable.hash(new byte[]{h, h, free}));
+        assertEquals(hash, ZobristTable.hash(new byte[]{h, v, free})
+                ^ ZobristTable.getKey(0, h) ^ ZobristTable.getKey(1, v) ^ ZobristTable.getKey(0, v) ^ ZobristTable.getKey(1, h));
+    }
+}
@@ -0,0 +1,98 @@
+package edu.uoc.trip.server;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.TestInstance.Lifecycle.PER_CLASS;
+
+@TestInstance(PER_CLASS)
+class GameServerTest {
+
+    private GameServer server;
+
+    @BeforeAll
+    void setUp() {
+        try {
+            server = new GameServer("levels/test/", 0, GameServer.newSessionExecutor());
+            server.start();
+        } catch (IOException e) {
+            fail("setUp failed");
+            e.printStackTrace();
+        }
+    }
+
+    @AfterAll
+    void tearDown() throws IOException {
+        server.close();
+    }
+
+    @Test
+    @Tag("controller")
+    @DisplayName("Controller - sessions over the socket")
+    void sessions() {
+        try (Socket first = new Socket(InetAddress.getLoopbackAddress(), server.getPort());
+             Socket second = new Socket(InetAddress.getLoopbackAddress(), server.getPort())) {
+            BufferedReader in1 = new BufferedReader(new InputStreamReader(first.getInputStream(), StandardCharsets.UTF_8));
+            PrintWriter out1 = new PrintWriter(first.getOutputStream(), true, StandardCharsets.UTF_8);
+            BufferedReader in2 = new BufferedReader(new InputStreamReader(second.getInputStream(), StandardCharsets.UTF_8));
+            PrintWriter out2 = new PrintWriter(second.getOutputStream(), true, StandardCharsets.UTF_8);
+
+            assertTrue(in1.readLine().startsWith("LEVEL 1 "));
+            assertTrue(in2.readLine().startsWith("LEVEL 1 "));
+
+            //Each session has its own game.
+            out1.println("b1 c1");
+            assertEquals("OK 1", in1.readLine());
+            out2.println("undo");
+            assertEquals("ERR There is no move to undo", in2.readLine());
+            out1.println("b4");
+            assertEquals("OK 2", in1.readLine());
+
+            out2.println("board");
+            for (int i = 0; i < 5; i++) {
+                assertNotNull(in2.readLine());
+            }
+            assertEquals("END", in2.readLine());
+
+            //All the sessions share the parsed levels, so each level file is parsed once.
+            assertTrue(server.getLevelCache().getMisses() <= 2);
+            assertTrue(server.getLevelCache().getHits() >= 1);
+
+            out1.println("quit");
+            assertEquals("BYE", in1.readLine());
+            assertNull(in1.readLine());
+        } catch (IOException e) {
+            fail("sessions failed");
+            e.printStackTrace();
+        }
+    }
+
+    @Test
+    @Tag("controller")
+    @DisplayName("Controller - load test client")
+    void loadTest() {
+        try {
+            LoadTestClient.Report report = new LoadTestClient("localhost", server.getPort()).run(8, 200);
+            assertEquals(8 * 200, report.getNumMoves());
+            assertTrue(report.getPercentile(50) > 0);
+            assertTrue(report.getPercentile(50) <= report.getPercentile(99));
+            assertTrue(report.getPercentile(99) <= report.getPercentile(100));
+        } catch (IOException e) {
+            fail("loadTest failed");
+            e.printStackTrace();
+        }
+    }
+}
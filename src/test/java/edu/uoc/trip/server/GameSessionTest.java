@@ -0,0 +1,96 @@
+package edu.uoc.trip.server;
+
+import edu.uoc.trip.controller.Game;
+import edu.uoc.trip.model.levels.Level;
+import edu.uoc.trip.model.levels.LevelException;
+import edu.uoc.trip.model.utils.Coordinate;
+import edu.uoc.trip.solver.Move;
+import edu.uoc.trip.solver.Solver;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.TestInstance.Lifecycle.PER_CLASS;
+
+@TestInstance(PER_CLASS)
+class GameSessionTest {
+
+    private GameSession session;
+
+    @BeforeEach
+    void setUp() {
+        try {
+            session = new GameSession(new Game("levels/test/"));
+        } catch (IOException e) {
+            fail("setUp failed");
+            e.printStackTrace();
+        }
+    }
+
+    @Test
+    @Tag("controller")
+    @DisplayName("Controller - session commands")
+    void commands() {
+        assertEquals("ERR There is no level to play", session.handle("b1 c1"));
+        assertTrue(session.start().matches("LEVEL 1 \\w+ 4"));
+
+        assertEquals("OK 1", session.handle("b1 c1"));
+        assertEquals("OK 0", session.handle("undo"));
+        assertEquals("ERR There is no move to undo", session.handle("undo"));
+        assertEquals("OK 1", session.handle("REDO"));
+
+        //b4 is rotatable, b1 is movable.
+        assertEquals("OK 2", session.handle("b4"));
+        assertEquals("SELECTED b1", session.handle("b1"));
+        assertEquals("OK 3", session.handle(" c1 "));
+
+        assertEquals("ERR " + LevelException.ERROR_COORDINATE, session.handle("z9"));
+        assertEquals("ERR " + LevelException.ERROR_COORDINATE, session.handle("b1 c10"));
+        assertEquals("ERR " + LevelException.ERROR_NO_MOVABLE_CELL, session.handle("a1 b1"));
+        assertEquals("ERR Unknown command: a1 b1 c1", session.handle("a1 b1 c1"));
+        assertEquals("ERR The level is not solved yet", session.handle("next"));
+
+        String board = session.handle("board");
+        assertTrue(board.startsWith("1234"));
+        assertTrue(board.endsWith("END"));
+
+        assertEquals("OK 0", session.handle("reload"));
+        assertFalse(session.isClosed());
+        assertEquals("BYE", session.handle("quit"));
+        assertTrue(session.isClosed());
+    }
+
+    @Test
+    @Tag("controller")
+    @DisplayName("Controller - session until game over")
+    void solveAll() {
+        try {
+            assertTrue(session.start().startsWith("LEVEL 1"));
+            for (int id = 1; id <= 2; id++) {
+                String response = null;
+                for (Move move : new Solver().solve(new Level("levels/test/level" + id + ".txt")).getMoves()) {
+                    response = session.handle(move.isRotation() ? cell(move.getFirst())
+                            : cell(move.getFirst()) + " " + cell(move.getSecond()));
+                }
+                assertNotNull(response);
+                assertTrue(response.startsWith("SOLVED " + id + " "), response);
+                assertEquals("ERR There is no level to play", session.handle("b1 c1"));
+
+                response = session.handle("next");
+                assertEquals(id == 1 ? "LEVEL 2" : "GAMEOVER", response.substring(0, id == 1 ? 7 : 8));
+            }
+        } catch (LevelException e) {
+            fail("solveAll failed");
+            e.printStackTrace();
+        }
+    }
+
+    private static String cell(Coordinate coord) {
+        return "" + (char) ('a' + coord.getRow()) + (char) ('1' + coord.getColumn());
+    }
+}
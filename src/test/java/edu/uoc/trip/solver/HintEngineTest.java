@@ -0,0 +1,130 @@
+package edu.uoc.trip.solver;
+
+import edu.uoc.trip.model.cells.CellType;
+import edu.uoc.trip.model.levels.CompactLevel;
+import edu.uoc.trip.model.levels.Level;
+import edu.uoc.trip.model.levels.LevelDifficulty;
+import edu.uoc.trip.model.levels.LevelException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.TestInstance.Lifecycle.PER_CLASS;
+
+@TestInstance(PER_CLASS)
+class HintEngineTest {
+
+    @ParameterizedTest
+    @CsvSource({"1,1", "2,1", "3,2", "4,2", "5,3", "6,4", "7,6"})
+    @Tag("advanced")
+    @DisplayName("Advanced - following the hints solves the bundled levels optimally")
+    void followHints(int id, int minMoves) {
+        try {
+            HintEngine engine = new HintEngine();
+            Level level = new Level("levels/level" + id + ".txt");
+
+            while (!level.isSolved()) {
+                Move hint = engine.hint(level, 5_000);
+                assertNotNull(hint);
+                hint.applyTo(level);
+            }
+            assertEquals(minMoves, level.getNumMoves());
+            assertNull(engine.hint(level, 5_000));
+
+            //Only the first hint has needed a search: the rest of the optimal solution was cached.
+            assertEquals(1, engine.getMisses());
+            assertEquals(minMoves, engine.getHits());
+        } catch (LevelException e) {
+            fail("followHints failed");
+            e.printStackTrace();
+        }
+    }
+
+    @Test
+    @Tag("advanced")
+    @DisplayName("Advanced - repeated hints are cached")
+    void cachedHint() {
+        try {
+            HintEngine engine = new HintEngine();
+            Level level = new Level("levels/level7.txt");
+
+            Move hint = engine.hint(level, 5_000);
+            assertEquals(hint, engine.hint(level, 0));
+            assertEquals(hint, engine.hint(new Level(level), 0));
+            assertEquals(1, engine.getMisses());
+            assertEquals(2, engine.getHits());
+
+            //The level is not modified by the hints.
+            assertEquals(0, level.getNumMoves());
+            assertFalse(level.isSolved());
+
+            //A full cache forgets the oldest boards.
+            HintEngine small = new HintEngine(1);
+            small.hint(new Level("levels/level7.txt"), 5_000);
+            small.hint(new Level("levels/level7.txt"), 5_000);
+            assertEquals(1, small.getMisses());
+            small.hint(new Level("levels/level1.txt"), 5_000);
+            small.hint(new Level("levels/level7.txt"), 5_000);
+            assertEquals(3, small.getMisses());
+        } catch (LevelException e) {
+            fail("cachedHint failed");
+            e.printStackTrace();
+        }
+    }
+
+    @Test
+    @Tag("advanced")
+    @DisplayName("Advanced - hint when the budget runs out")
+    void budget() {
+        try {
+            HintEngine engine = new HintEngine();
+            Level level = new Level("levels/level7.txt");
+
+            //Without time, the engine still suggests a move that can be made...
+            Move hint = engine.hint(level, 0);
+            assertNotNull(hint);
+            hint.applyTo(level);
+            assertEquals(1, level.getNumMoves());
+
+            //...but it is not cached, so a later hint searches again.
+            level.undo();
+            engine.hint(level, 0);
+            assertEquals(2, engine.getMisses());
+            assertEquals(0, engine.getHits());
+        } catch (LevelException e) {
+            fail("budget failed");
+            e.printStackTrace();
+        }
+    }
+
+    @Test
+    @Tag("advanced")
+    @DisplayName("Advanced - no hint for solved and unsolvable levels")
+    void noHint() {
+        try {
+            HintEngine engine = new HintEngine();
+            assertNull(engine.hint(new Level("levels/solved/level1.txt"), 50));
+
+            byte f = (byte) CellType.FINISH.ordinal();
+            byte m = (byte) CellType.MOUNTAINS.ordinal();
+            byte v = (byte) CellType.VERTICAL.ordinal();
+            byte s = (byte) CellType.START.ordinal();
+            byte free = (byte) CellType.FREE.ordinal();
+
+            CompactLevel level = new CompactLevel(3, LevelDifficulty.STARTER, new byte[]{
+                    free, f, free,
+                    v, free, m,
+                    free, free, s});
+            assertNull(engine.hint(level, 50));
+            assertNull(engine.hint(level, 50));
+            assertEquals(1, engine.getHits());
+        } catch (LevelException e) {
+            fail("noHint failed");
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package edu.uoc.trip.solver;
+
+import edu.uoc.trip.model.cells.CellType;
+import edu.uoc.trip.model.levels.CompactLevel;
+import edu.uoc.trip.model.levels.Level;
+import edu.uoc.trip.model.levels.LevelDifficulty;
+import edu.uoc.trip.model.levels.LevelException;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.TestInstance.Lifecycle.PER_CLASS;
+
+@TestInstance(PER_CLASS)
+class ParallelSolverTest {
+
+    private final ForkJoinPool pool = new ForkJoinPool(4);
+
+    @AfterAll
+    void tearDown() {
+        pool.shutdown();
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 2, 3, 4, 5, 6, 7})
+    @Tag("advanced")
+    @DisplayName("Advanced - same number of moves as Solver")
+    void sameAsSolver(int id) {
+        try {
+            Level level = new Level("levels/level" + id + ".txt");
+            Solution expected = new Solver().solve(level);
+            Solution solution = new ParallelSolver(pool, Solver.DEFAULT_MAX_NODES).solve(level);
+
+            assertTrue(solution.isFound());
+            assertEquals(expected.getNumMoves(), solution.getNumMoves());
+            assertTrue(solution.getNodesExpanded() > 0);
+
+            //The solver must not modify the level and its moves must solve it.
+            assertFalse(level.isSolved());
+            for (Move move : solution.getMoves()) {
+                move.applyTo(level);
+            }
+            assertTrue(level.isSolved());
+        } catch (LevelException e) {
+            fail("sameAsSolver failed");
+            e.printStackTrace();
+        }
+    }
+
+    @Test
+    @Tag("advanced")
+    @DisplayName("Advanced - solved and unsolvable levels")
+    void trivialLevels() {
+        try {
+            Solution solved = new ParallelSolver().solve(new Level("levels/solved/level1.txt"));
+            assertTrue(solved.isFound());
+            assertEquals(0, solved.getNumMoves());
+
+            byte f = (byte) CellType.FINISH.ordinal();
+            byte m = (byte) CellType.MOUNTAINS.ordinal();
+            byte v = (byte) CellType.VERTICAL.ordinal();
+            byte s = (byte) CellType.START.ordinal();
+            byte free = (byte) CellType.FREE.ordinal();
+
+            Solution unsolvable = new ParallelSolver(pool, 10_000).solve(new CompactLevel(3, LevelDifficulty.STARTER,
+                    new byte[]{
+                            free, f, free,
+                            v, free, m,
+                            free, free, s}));
+            assertFalse(unsolvable.isFound());
+            assertEquals(-1, unsolvable.getNumMoves());
+        } catch (LevelException e) {
+            fail("trivialLevels failed");
+            e.printStackTrace();
+        }
+    }
+}
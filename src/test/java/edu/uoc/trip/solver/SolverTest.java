@@ -0,0 +1,132 @@
+package edu.uoc.trip.solver;
+
+import edu.uoc.trip.model.cells.CellType;
+import edu.uoc.trip.model.levels.CompactLevel;
+import edu.uoc.trip.model.levels.Level;
+import edu.uoc.trip.model.levels.LevelDifficulty;
+import edu.uoc.trip.model.levels.LevelException;
+import edu.uoc.trip.model.utils.Coordinate;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.TestInstance.Lifecycle.PER_CLASS;
+
+@TestInstance(PER_CLASS)
+class SolverTest {
+
+    @ParameterizedTest
+    @CsvSource({"1,1", "2,1", "3,2", "4,2", "5,3", "6,4", "7,6"})
+    @Tag("advanced")
+    @DisplayName("Advanced - solve bundled levels")
+    void solveBundledLevels(int id, int minMoves) {
+        try {
+            Level level = new Level("levels/level" + id + ".txt");
+            Solution solution = new Solver().solve(level);
+
+            assertTrue(solution.isFound());
+            assertEquals(minMoves, solution.getNumMoves());
+            assertTrue(solution.getNodesExpanded() > 0);
+            assertTrue(solution.getElapsedNanos() > 0);
+
+            //The solver must not modify the level...
+            assertFalse(level.isSolved());
+            assertEquals(0, level.getNumMoves());
+
+            //...and its moves must solve it.
+            for (Move move : solution.getMoves()) {
+                move.applyTo(level);
+            }
+            assertTrue(level.isSolved());
+            assertEquals(minMoves, level.getNumMoves());
+        } catch (LevelException e) {
+            fail("solveBundledLevels failed");
+            e.printStackTrace();
+        }
+    }
+
+    @ParameterizedTest
+    @CsvSource({"3,2", "5,3", "6,4", "7,6"})
+    @Tag("advanced")
+    @DisplayName("Advanced - solve bundled levels with a bound")
+    void solveBounded(int id, int minMoves) {
+        try {
+            CompactLevel level = new CompactLevel(new Level("levels/level" + id + ".txt"));
+            Solver solver = new Solver();
+
+            //Below the minimum number of moves, there is no solution...
+            assertFalse(solver.solve(level, minMoves - 1).isFound());
+
+            //...and from the minimum on, the solution is still optimal.
+            Solution solution = solver.solve(level, minMoves);
+            assertTrue(solution.isFound());
+            assertEquals(minMoves, solution.getNumMoves());
+            assertEquals(minMoves, solver.solve(level, minMoves + 2).getNumMoves());
+        } catch (LevelException e) {
+            fail("solveBounded failed");
+            e.printStackTrace();
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 2, 3, 4, 5, 6, 7, 8, 9})
+    @Tag("advanced")
+    @DisplayName("Advanced - solve solved levels")
+    void solveSolvedLevels(int id) {
+        try {
+            Solution solution = new Solver().solve(new Level("levels/solved/level" + id + ".txt"));
+            assertTrue(solution.isFound());
+            assertEquals(0, solution.getNumMoves());
+        } catch (LevelException e) {
+            fail("solveSolvedLevels failed");
+            e.printStackTrace();
+        }
+    }
+
+    @Test
+    @Tag("advanced")
+    @DisplayName("Advanced - unsolvable level")
+    void unsolvable() {
+        try {
+            byte f = (byte) CellType.FINISH.ordinal();
+            byte m = (byte) CellType.MOUNTAINS.ordinal();
+            byte v = (byte) CellType.VERTICAL.ordinal();
+            byte s = (byte) CellType.START.ordinal();
+            byte free = (byte) CellType.FREE.ordinal();
+
+            CompactLevel level = new CompactLevel(3, LevelDifficulty.STARTER, new byte[]{
+                    free, f, free,
+                    v, free, m,
+                    free, free, s});
+
+            Solution solution = new Solver().solve(level);
+            assertFalse(solution.isFound());
+            assertNull(solution.getMoves());
+            assertEquals(-1, solution.getNumMoves());
+        } catch (LevelException e) {
+            fail("unsolvable failed");
+            e.printStackTrace();
+        }
+    }
+
+    @Test
+    @Tag("minimum")
+    @DisplayName("Minimum - Move")
+    void move() {
+        Move swap = new Move(new Coordinate(1, 0), new Coordinate(2, 2));
+        Move rotation = new Move(new Coordinate(1, 3));
+
+        assertFalse(swap.isRotation());
+        assertTrue(rotation.isRotation());
+        assertNull(rotation.getSecond());
+        assertEquals(new Move(new Coordinate(1, 0), new Coordinate(2, 2)), swap);
+        assertNotEquals(rotation, swap);
+        assertEquals("swap (1,0) (2,2)", swap.toString());
+        assertEquals("rotate (1,3)", rotation.toString());
+    }
+}
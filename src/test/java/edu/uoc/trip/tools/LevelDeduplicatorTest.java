@@ -0,0 +1,209 @@
+package edu.uoc.trip.tools;
+
+import edu.uoc.trip.model.levels.CompactLevel;
+import edu.uoc.trip.model.levels.Level;
+import edu.uoc.trip.model.levels.LevelException;
+import edu.uoc.trip.model.levels.LevelPack;
+import edu.uoc.trip.model.utils.Coordinate;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.TestInstance.Lifecycle.PER_CLASS;
+
+@TestInstance(PER_CLASS)
+class LevelDeduplicatorTest {
+
+    @TempDir
+    Path folder;
+
+    /**
+     * Level 3 mirrored horizontally: the corners are remapped (r <-> l, R <-> L).
+     */
+    private static final String MIRRORED_LEVEL3 = "4\nJUNIOR\n·FMM\nMV~~\nHlrR\n··MS\n";
+
+    private CompactLevel level(String text) throws LevelException {
+        return new CompactLevel(new Level(new BufferedReader(new StringReader(text))));
+    }
+
+    private void copyResource(String resource, Path target) throws IOException {
+        try (InputStream in = getClass().getClassLoader().getResourceAsStream(resource)) {
+            Files.copy(in, target);
+        }
+    }
+
+    @Test
+    @Tag("advanced")
+    @DisplayName("Advanced - canonical hash of boards")
+    void boardMode() {
+        try {
+            LevelDeduplicator.Mode mode = LevelDeduplicator.Mode.BOARD;
+            Level level3 = new Level("levels/level3.txt");
+            long hash = LevelDeduplicator.canonicalHash(new CompactLevel(level3), mode);
+
+            assertEquals(hash, LevelDeduplicator.canonicalHash(level(MIRRORED_LEVEL3), mode));
+            assertNotEquals(hash, LevelDeduplicator.canonicalHash(new CompactLevel(new Level("levels/level4.txt")), mode));
+
+            //Another scramble is another board.
+            level3.swapCells(new Coordinate(2, 0), new Coordinate(2, 1));
+            assertNotEquals(hash, LevelDeduplicator.canonicalHash(new CompactLevel(level3), mode));
+        } catch (LevelException e) {
+            fail("boardMode failed");
+            e.printStackTrace();
+        }
+    }
+
+    @Test
+    @Tag("advanced")
+    @DisplayName("Advanced - canonical hash of puzzles")
+    void puzzleMode() {
+        try {
+            LevelDeduplicator.Mode mode = LevelDeduplicator.Mode.PUZZLE;
+            Level level3 = new Level("levels/level3.txt");
+            long hash = LevelDeduplicator.canonicalHash(new CompactLevel(level3), mode);
+
+            //Other scrambles (mirrored or not) are the same puzzle...
+            level3.swapCells(new Coordinate(2, 0), new Coordinate(2, 1));
+            level3.swapCells(new Coordinate(0, 3), new Coordinate(2, 3));
+            assertEquals(hash, LevelDeduplicator.canonicalHash(new CompactLevel(level3), mode));
+            assertEquals(hash, LevelDeduplicator.canonicalHash(level(MIRRORED_LEVEL3), mode));
+            assertEquals(hash, LevelDeduplicator.canonicalHash(new CompactLevel(new Level("levels/solved/level3.txt")), mode));
+
+            //...but another piece or another fixed cell is another puzzle.
+            assertNotEquals(hash, LevelDeduplicator.canonicalHash(level("4\nJUNIOR\nMMF·\n~~VM\nLlrV\nSM··\n"), mode));
+            assertNotEquals(hash, LevelDeduplicator.canonicalHash(level("4\nJUNIOR\nMMF·\n~MVM\nLlrH\nSM··\n"), mode));
+
+            //The rotation of a rotatable cell does not change the puzzle.
+            Level level7 = new Level("levels/level7.txt");
+            long hash7 = LevelDeduplicator.canonicalHash(new CompactLevel(level7), mode);
+            for (int row = 0; row < level7.getSize(); row++) {
+                for (int column = 0; column < level7.getSize(); column++) {
+                    if (level7.getCell(new Coordinate(row, column)).isRotatable()) {
+                        level7.rotateCell(new Coordinate(row, column));
+                    }
+                }
+            }
+            assertEquals(hash7, LevelDeduplicator.canonicalHash(new CompactLevel(level7), mode));
+        } catch (LevelException e) {
+            fail("puzzleMode failed");
+            e.printStackTrace();
+        }
+    }
+
+    @Test
+    @Tag("advanced")
+    @DisplayName("Advanced - a board and its mirror are duplicates")
+    void mirrorIsDuplicate() {
+        try {
+            LevelDeduplicator deduplicator = new LevelDeduplicator(LevelDeduplicator.Mode.BOARD, 16);
+            assertEquals(-1, deduplicator.add(level("4\nJUNIOR\nF·M·\nVrH~\nRL·M\nS··~\n")));
+
+            //Each row is reversed and the corners are remapped (r <-> l, R <-> L).
+            assertEquals(0, deduplicator.add(level("4\nJUNIOR\n·M·F\n~HlV\nM·RL\n~··S\n")));
+
+            //Reversing the rows without remapping the corners is another board.
+            assertEquals(-1, deduplicator.add(level("4\nJUNIOR\n·M·F\n~HrV\nM·LR\n~··S\n")));
+        } catch (LevelException e) {
+            fail("mirrorIsDuplicate failed");
+            e.printStackTrace();
+        }
+    }
+
+    @Test
+    @Tag("advanced")
+    @DisplayName("Advanced - permutations of the movable cells are the same puzzle")
+    void permutationIsSamePuzzle() {
+        try {
+            String board = "4\nJUNIOR\nF·M·\nVrH~\nRL·M\nS··~\n";
+            //The same fixed cells and the same movable pieces in other positions.
+            String permutation = "4\nJUNIOR\nF·Mr\nH·V~\nL·RM\nS··~\n";
+
+            LevelDeduplicator puzzles = new LevelDeduplicator(LevelDeduplicator.Mode.PUZZLE, 16);
+            assertEquals(-1, puzzles.add(level(board)));
+            assertEquals(0, puzzles.add(level(permutation)));
+            //Another piece is another puzzle.
+            assertEquals(-1, puzzles.add(level("4\nJUNIOR\nF·M·\nVrV~\nRL·M\nS··~\n")));
+            //So is another position of a fixed cell.
+            assertEquals(-1, puzzles.add(level("4\nJUNIOR\nF·M·\nVrH~\nRLM·\nS··~\n")));
+
+            LevelDeduplicator boards = new LevelDeduplicator(LevelDeduplicator.Mode.BOARD, 16);
+            assertEquals(-1, boards.add(level(board)));
+            assertEquals(-1, boards.add(level(permutation)));
+        } catch (LevelException e) {
+            fail("permutationIsSamePuzzle failed");
+            e.printStackTrace();
+        }
+    }
+
+    @Test
+    @Tag("advanced")
+    @DisplayName("Advanced - deduplicate folders and packs")
+    void deduplicate() {
+        try {
+            Path levels = Files.createDirectory(folder.resolve("levels"));
+            List<CompactLevel> packed = new ArrayList<>();
+            for (int i = 1; i <= 7; i++) {
+                copyResource("levels/level" + i + ".txt", levels.resolve("level" + i + ".txt"));
+                packed.add(new CompactLevel(new Level("levels/level" + i + ".txt")));
+            }
+            Files.writeString(levels.resolve("mirror3.txt"), MIRRORED_LEVEL3);
+            copyResource("levels/errors/level-error-no-road.txt", levels.resolve("no-road.txt"));
+            Path pack = folder.resolve("levels.pack");
+            LevelPack.write(packed, pack);
+
+            Map<String, String> duplicates = new HashMap<>();
+            LevelDeduplicator.Summary summary = new LevelDeduplicator(LevelDeduplicator.Mode.BOARD, 16)
+                    .deduplicate(List.of(levels, pack), d -> duplicates.put(d.getName(), d.getOriginal()));
+
+            assertEquals(15, summary.getNumLevels());
+            assertEquals(1, summary.getNumInvalid());
+            assertEquals(7, summary.getNumDistinct());
+            assertEquals(8, summary.getNumDuplicates());
+            assertEquals(7, summary.getNumClusters());
+            assertEquals(3, summary.getLargestCluster());
+
+            assertEquals(8, duplicates.size());
+            assertEquals("level3.txt", duplicates.get("mirror3.txt"));
+            assertEquals("level3.txt", duplicates.get("levels.pack#2"));
+            assertEquals("level7.txt", duplicates.get("levels.pack#6"));
+        } catch (IOException | LevelException e) {
+            fail("deduplicate failed");
+            e.printStackTrace();
+        }
+    }
+
+    @Test
+    @Tag("advanced")
+    @DisplayName("Advanced - bounded index")
+    void capacity() {
+        try {
+            LevelDeduplicator deduplicator = new LevelDeduplicator(LevelDeduplicator.Mode.BOARD, 2);
+            assertEquals(-1, deduplicator.add(new CompactLevel(new Level("levels/level1.txt"))));
+            assertEquals(-1, deduplicator.add(new CompactLevel(new Level("levels/level2.txt"))));
+            assertEquals(0, deduplicator.add(new CompactLevel(new Level("levels/level1.txt"))));
+            assertEquals(1, deduplicator.add(new CompactLevel(new Level("levels/level2.txt"))));
+
+            //The duplicates can still be added, but a new distinct level does not fit.
+            CompactLevel level3 = new CompactLevel(new Level("levels/level3.txt"));
+            assertThrows(IllegalStateException.class, () -> deduplicator.add(level3));
+            assertThrows(IllegalArgumentException.class, () -> new LevelDeduplicator(LevelDeduplicator.Mode.BOARD, 0));
+        } catch (LevelException e) {
+            fail("capacity failed");
+            e.printStackTrace();
+        }
+    }
+}
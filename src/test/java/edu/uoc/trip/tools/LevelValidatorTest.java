@@ -0,0 +1,123 @@
+package edu.uoc.trip.tools;
+
+import edu.uoc.trip.model.levels.CompactLevel;
+import edu.uoc.trip.model.levels.Level;
+import edu.uoc.trip.model.levels.LevelException;
+import edu.uoc.trip.model.levels.LevelPack;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.TestInstance.Lifecycle.PER_CLASS;
+
+@TestInstance(PER_CLASS)
+class LevelValidatorTest {
+
+    @TempDir
+    Path folder;
+
+    private void copyResource(String resource, Path target) throws IOException {
+        try (InputStream in = getClass().getClassLoader().getResourceAsStream(resource)) {
+            Files.copy(in, target);
+        }
+    }
+
+    @Test
+    @Tag("advanced")
+    @DisplayName("Advanced - validate a folder")
+    void validateFolder() {
+        try {
+            Path levels = Files.createDirectory(folder.resolve("levels"));
+            for (int i = 1; i <= 7; i++) {
+                copyResource("levels/level" + i + ".txt", levels.resolve("level" + i + ".txt"));
+            }
+            copyResource("levels/errors/level-error-no-road.txt", levels.resolve("no-road.txt"));
+            copyResource("levels/errors/level-error-no-rows.txt", levels.resolve("no-rows.txt"));
+            copyResource("levels/errors/level-error-short-row.txt", levels.resolve("short-row.txt"));
+            Files.writeString(levels.resolve("unsolvable.txt"), "3\nSTARTER\n·F·\nV·M\n··S\n");
+            Files.writeString(levels.resolve("notes.md"), "It is not a level");
+
+            Map<String, LevelValidator.Result> results = new ConcurrentHashMap<>();
+            LevelValidator.Summary summary = new LevelValidator(3, 2, LevelValidator.DEFAULT_MAX_NODES)
+                    .validate(levels, result -> results.put(result.getName(), result));
+
+            assertEquals(11, summary.getTotal());
+            assertEquals(11, results.size());
+            assertEquals(7, summary.getCount(LevelValidator.Status.VALID));
+            assertEquals(3, summary.getCount(LevelValidator.Status.INVALID));
+            assertEquals(1, summary.getCount(LevelValidator.Status.UNSOLVABLE));
+            assertTrue(summary.getLevelsPerSecond() > 0);
+
+            assertEquals(6, results.get("level7.txt").getMinMoves());
+            assertEquals(LevelException.ERROR_NO_ROAD, results.get("no-road.txt").getMessage());
+            assertEquals(LevelException.ERROR_PARSING_LEVEL_FILE, results.get("no-rows.txt").getMessage());
+            assertEquals(LevelException.ERROR_PARSING_LEVEL_FILE, results.get("short-row.txt").getMessage());
+            assertEquals(LevelValidator.Status.UNSOLVABLE, results.get("unsolvable.txt").getStatus());
+        } catch (IOException | InterruptedException e) {
+            fail("validateFolder failed");
+            e.printStackTrace();
+        }
+    }
+
+    @Test
+    @Tag("advanced")
+    @DisplayName("Advanced - validate a pack")
+    void validatePack() {
+        try {
+            List<CompactLevel> levels = new ArrayList<>();
+            for (int i = 1; i <= 7; i++) {
+                levels.add(new CompactLevel(new Level("levels/level" + i + ".txt")));
+            }
+            Path pack = folder.resolve("levels.pack");
+            LevelPack.write(levels, pack);
+
+            LevelValidator.Summary summary = new LevelValidator(2, 1, LevelValidator.DEFAULT_MAX_NODES)
+                    .validate(pack, result -> { });
+            assertEquals(7, summary.getTotal());
+            assertEquals(7, summary.getCount(LevelValidator.Status.VALID));
+        } catch (IOException | InterruptedException | LevelException e) {
+            fail("validatePack failed");
+            e.printStackTrace();
+        }
+    }
+
+    @Test
+    @Tag("advanced")
+    @DisplayName("Advanced - a failing listener aborts the pipeline")
+    void listenerFails() {
+        try {
+            List<CompactLevel> levels = new ArrayList<>();
+            for (int copy = 0; copy < 10; copy++) {
+                for (int i = 1; i <= 7; i++) {
+                    levels.add(new CompactLevel(new Level("levels/level" + i + ".txt")));
+                }
+            }
+            Path pack = folder.resolve("failing.pack");
+            LevelPack.write(levels, pack);
+
+            IllegalStateException failure = new IllegalStateException("listener failure");
+            //With queues of capacity 1 the read stage blocks as soon as the solve stage stops.
+            IOException e = assertTimeoutPreemptively(Duration.ofSeconds(10), () -> assertThrows(IOException.class,
+                    () -> new LevelValidator(1, 1, LevelValidator.DEFAULT_MAX_NODES).validate(pack, result -> {
+                        throw failure;
+                    })));
+            assertSame(failure, e.getCause());
+        } catch (IOException | LevelException e) {
+            fail("listenerFails failed");
+            e.printStackTrace();
+        }
+    }
+}